@@ -0,0 +1,42 @@
+package frc.lib.math;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.geometry.Twist2d;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Benchmarks {@link GeometryUtils#exp} and {@link GeometryUtils#log}. */
+@State(Scope.Thread)
+public class GeometryUtilsBenchmark {
+
+    /** A twist and pose the size of one loop at full speed while rotating. */
+    private Twist2d twist;
+    private Pose2d pose;
+
+    /** Reused by the allocation-free log. */
+    private final Twist2d twistOut = new Twist2d();
+
+    @Setup
+    public void setup() {
+        twist = new Twist2d(0.08, 0.03, 0.1);
+        pose = new Pose2d(0.08, 0.03, Rotation2d.fromRadians(0.1));
+    }
+
+    @Benchmark
+    public Pose2d exp() {
+        return GeometryUtils.exp(twist);
+    }
+
+    @Benchmark
+    public Twist2d log() {
+        return GeometryUtils.log(pose);
+    }
+
+    @Benchmark
+    public Twist2d logPrimitive() {
+        return GeometryUtils.log(0.08, 0.03, 0.1, twistOut);
+    }
+}
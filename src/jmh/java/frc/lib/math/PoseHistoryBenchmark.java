@@ -0,0 +1,74 @@
+package frc.lib.math;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.interpolation.TimeInterpolatableBuffer;
+import java.util.Optional;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks {@link PoseHistory} against WPILib's {@link TimeInterpolatableBuffer}, both holding
+ * 1.5 seconds of 250 Hz odometry.
+ */
+@State(Scope.Thread)
+public class PoseHistoryBenchmark {
+
+    private static final double WINDOW_SECONDS = 1.5;
+    private static final double PERIOD_SECONDS = 1.0 / 250.0;
+    private static final int SAMPLES = (int) (WINDOW_SECONDS / PERIOD_SECONDS);
+
+    private PoseHistory history;
+    private TimeInterpolatableBuffer<Pose2d> buffer;
+
+    /** The time of the next sample added. */
+    private double nextTimestamp;
+
+    /** Reused by the allocation-free lookup. */
+    private final double[] out = new double[3];
+
+    @Setup
+    public void setup() {
+        history = new PoseHistory(WINDOW_SECONDS, SAMPLES + 1);
+        buffer = TimeInterpolatableBuffer.createBuffer(WINDOW_SECONDS);
+
+        for (int i = 0; i < SAMPLES; i++) {
+            double timestamp = i * PERIOD_SECONDS;
+            Pose2d pose = new Pose2d(i * 0.01, i * 0.005, Rotation2d.fromRadians(i * 0.002));
+            history.addSample(timestamp, pose);
+            buffer.addSample(timestamp, pose);
+        }
+        nextTimestamp = SAMPLES * PERIOD_SECONDS;
+    }
+
+    /** A time between two samples, a frame latency behind the newest one. */
+    private double lookupTime() {
+        return nextTimestamp - 0.0413;
+    }
+
+    @Benchmark
+    public boolean poseHistoryAdd() {
+        nextTimestamp += PERIOD_SECONDS;
+        return history.addSample(nextTimestamp, 1.0, 2.0, 0.5);
+    }
+
+    @Benchmark
+    public double[] poseHistorySample() {
+        history.sample(lookupTime(), out);
+        return out;
+    }
+
+    @Benchmark
+    public TimeInterpolatableBuffer<Pose2d> interpolatableBufferAdd() {
+        nextTimestamp += PERIOD_SECONDS;
+        buffer.addSample(nextTimestamp, new Pose2d(1.0, 2.0, Rotation2d.fromRadians(0.5)));
+        return buffer;
+    }
+
+    @Benchmark
+    public Optional<Pose2d> interpolatableBufferSample() {
+        return buffer.getSample(lookupTime());
+    }
+}
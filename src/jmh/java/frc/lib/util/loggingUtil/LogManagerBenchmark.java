@@ -0,0 +1,68 @@
+package frc.lib.util.loggingUtil;
+
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import java.io.IOException;
+import java.nio.file.Files;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Benchmarks appending a double through {@link LogManager}: by handle, by a constant name and by a
+ * name built every call, like "Swerve/Mod" + i + "/Speed". Appending to the entry directly is the
+ * floor, the difference to it is the cost of finding the entry.
+ */
+@State(Scope.Thread)
+public class LogManagerBenchmark {
+
+    private static final String NAME = "Benchmark/Swerve/Mod2/SpeedMetersPerSecond";
+
+    /** The log, in a temporary directory. */
+    private DataLog log;
+
+    private LogManager.DoubleHandle handle;
+    private DoubleLogEntry entry;
+
+    /** The module number used to build the name, not constant so the name is built every call. */
+    private int module = 2;
+
+    /** The value appended, changed every call like a sensor reading. */
+    private double value = 0;
+
+    @Setup
+    public void setup() throws IOException {
+        log = new DataLog(Files.createTempDirectory("LogManagerBenchmark").toString(), "benchmark.wpilog");
+        LogManager.setLog(log);
+
+        handle = LogManager.doubleHandle(NAME);
+        entry = new DoubleLogEntry(log, "Benchmark/Direct");
+    }
+
+    @TearDown
+    public void tearDown() {
+        log.close();
+    }
+
+    @Benchmark
+    public void appendHandle() {
+        handle.append(value += 0.01);
+    }
+
+    @Benchmark
+    public void appendConstantName() {
+        LogManager.addDouble(NAME, value += 0.01);
+    }
+
+    @Benchmark
+    public void appendBuiltName() {
+        LogManager.addDouble("Benchmark/Swerve/Mod" + module + "/SpeedMetersPerSecond", value += 0.01);
+    }
+
+    @Benchmark
+    public void appendEntry() {
+        entry.append(value += 0.01);
+    }
+}
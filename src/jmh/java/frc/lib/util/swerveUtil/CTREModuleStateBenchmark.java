@@ -0,0 +1,37 @@
+package frc.lib.util.swerveUtil;
+
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/** Benchmarks {@link CTREModuleState#optimize}. */
+@State(Scope.Thread)
+public class CTREModuleStateBenchmark {
+
+    /** A desired state that needs the wheel reversed, and a current angle several turns in. */
+    private SwerveModuleState desiredState;
+    private Rotation2d currentAngle;
+
+    /** Reused by the allocation-free optimize. */
+    private final double[] optimized = new double[2];
+
+    @Setup
+    public void setup() {
+        desiredState = new SwerveModuleState(3.2, Rotation2d.fromDegrees(170));
+        currentAngle = Rotation2d.fromDegrees(-735);
+    }
+
+    @Benchmark
+    public SwerveModuleState optimize() {
+        return CTREModuleState.optimize(desiredState, currentAngle);
+    }
+
+    @Benchmark
+    public double[] optimizePrimitive() {
+        CTREModuleState.optimize(3.2, 170, -735, optimized);
+        return optimized;
+    }
+}
@@ -0,0 +1,86 @@
+package frc.robot;
+
+import frc.lib.util.visionUtil.LimelightResultsParser;
+import frc.lib.util.visionUtil.LimelightResultsParser.TargetType;
+import frc.lib.util.visionUtil.PoseEstimateBuffer;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.EnumSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks decoding Limelight data: the botpose array behind {@link
+ * LimelightHelpers#getBotPoseEstimate_wpiBlue_MegaTag2} and the JSON dump behind {@link
+ * LimelightHelpers#getLatestResults}. Uses recorded values so NetworkTables is not needed.
+ *
+ * <p>{@link #decodeBotPoseEstimatePooled} decodes the same array into a reused {@link
+ * PoseEstimateBuffer}, compare its gc.alloc.rate.norm with {@link #decodeBotPoseEstimate}. The
+ * streaming benchmarks parse the same dump with {@link LimelightResultsParser}.
+ */
+@State(Scope.Thread)
+public class LimelightHelpersBenchmark {
+
+    /** A botpose_orb_wpiblue array with 3 tags in view. */
+    private double[] botpose;
+
+    /** A JSON dump with 3 fiducials and 1 detection. */
+    private String json;
+
+    /** The reused buffer for the pooled decode. */
+    private final PoseEstimateBuffer buffer = new PoseEstimateBuffer();
+
+    /* Streaming parsers, one for every target type and one for only the fiducials. */
+    private final LimelightResultsParser streamingParser = new LimelightResultsParser();
+    private final LimelightResultsParser fiducialParser = new LimelightResultsParser(EnumSet.of(TargetType.FIDUCIAL));
+
+    @Setup
+    public void setup() throws IOException {
+        botpose = new double[] {
+            // x, y, z, roll, pitch, yaw, latency, tag count, tag span, avg dist, avg area
+            12.37, 5.30, 0.0, 0.0, 0.0, 174.2, 29.6, 3, 1.42, 2.85, 0.0042,
+            // id, txnc, tync, ta, dist to camera, dist to robot, ambiguity
+            3, -12.4, 3.2, 0.0051, 2.61, 2.83, 0.08,
+            4, -2.1, 3.6, 0.0048, 2.70, 2.91, 0.12,
+            7, 18.9, 1.1, 0.0023, 3.42, 3.60, 0.31,
+        };
+
+        try (InputStream stream = getClass().getResourceAsStream("/limelight/results.json")) {
+            json = new String(stream.readAllBytes(), StandardCharsets.UTF_8);
+        }
+
+        // Create the ObjectMappers outside of the measurement
+        LimelightHelpers.parseResults(json);
+        streamingParser.parse(json);
+        fiducialParser.parse(json);
+    }
+
+    @Benchmark
+    public LimelightHelpers.PoseEstimate decodeBotPoseEstimate() {
+        return LimelightHelpers.toPoseEstimate(botpose, 5_284_101_234L);
+    }
+
+    @Benchmark
+    public PoseEstimateBuffer decodeBotPoseEstimatePooled() {
+        buffer.decode(botpose, 5_284_101_234L);
+        return buffer;
+    }
+
+    @Benchmark
+    public LimelightHelpers.LimelightResults parseLatestResults() {
+        return LimelightHelpers.parseResults(json);
+    }
+
+    @Benchmark
+    public LimelightHelpers.LimelightResults parseLatestResultsStreaming() {
+        return streamingParser.parse(json);
+    }
+
+    @Benchmark
+    public LimelightHelpers.LimelightResults parseLatestResultsFiducialsOnly() {
+        return fiducialParser.parse(json);
+    }
+}
@@ -0,0 +1,66 @@
+package frc.robot.subsystems.swerve;
+
+import edu.wpi.first.math.geometry.Twist2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks the math in {@link Swerve#drive}: {@link Swerve#correctForDynamics} and the fan-out
+ * from chassis speeds to module states. Both the WPILib object path and the allocation-free path
+ * are measured. The hardware is not touched, so this runs on the desktop.
+ */
+@State(Scope.Thread)
+public class SwerveDriveBenchmark {
+
+    /** Chassis speeds at full translation while rotating, so desaturation kicks in. */
+    private ChassisSpeeds speeds;
+
+    /* Scratch for the allocation-free path, the same as Swerve keeps. */
+    private final ChassisSpeeds speedsScratch = new ChassisSpeeds();
+    private final Twist2d twistScratch = new Twist2d();
+    private final double[] moduleSpeeds = new double[4];
+    private final double[] moduleAnglesDegrees = new double[4];
+
+    @Setup
+    public void setup() {
+        speeds = new ChassisSpeeds(3.5, 1.5, 4.0);
+    }
+
+    @Benchmark
+    public ChassisSpeeds correctForDynamics() {
+        return Swerve.correctForDynamics(speeds);
+    }
+
+    @Benchmark
+    public ChassisSpeeds correctForDynamicsInPlace() {
+        speedsScratch.vxMetersPerSecond = speeds.vxMetersPerSecond;
+        speedsScratch.vyMetersPerSecond = speeds.vyMetersPerSecond;
+        speedsScratch.omegaRadiansPerSecond = speeds.omegaRadiansPerSecond;
+        Swerve.correctForDynamics(speedsScratch, twistScratch);
+        return speedsScratch;
+    }
+
+    @Benchmark
+    public SwerveModuleState[] toSwerveModuleStates() {
+        SwerveModuleState[] states = SwerveConfig.swerveKinematics.toSwerveModuleStates(
+            Swerve.correctForDynamics(speeds)
+        );
+        SwerveDriveKinematics.desaturateWheelSpeeds(states, SwerveConfig.maxSpeed);
+        return states;
+    }
+
+    @Benchmark
+    public double[] toModuleStatesInPlace() {
+        speedsScratch.vxMetersPerSecond = speeds.vxMetersPerSecond;
+        speedsScratch.vyMetersPerSecond = speeds.vyMetersPerSecond;
+        speedsScratch.omegaRadiansPerSecond = speeds.omegaRadiansPerSecond;
+        Swerve.correctForDynamics(speedsScratch, twistScratch);
+        Swerve.toModuleStates(speedsScratch, moduleSpeeds, moduleAnglesDegrees);
+        return moduleSpeeds;
+    }
+}
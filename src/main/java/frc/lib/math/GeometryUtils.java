@@ -42,4 +42,36 @@ public class GeometryUtils {
             .rotateBy(new Rotation2d(halftheta_by_tan_of_halfdtheta, -half_dtheta));
         return new Twist2d(translation_part.getX(), translation_part.getY(), dtheta);
     }
+
+    /**
+     * Same as {@link #log(Pose2d)}, but takes the transform as primitives and writes the result into
+     * a caller-owned twist so nothing is allocated.
+     *
+     * @param x The x component of the transform, in meters.
+     * @param y The y component of the transform, in meters.
+     * @param dtheta The rotation of the transform, in radians.
+     * @param out The twist to write the result to.
+     * @return The out twist.
+     */
+    public static Twist2d log(final double x, final double y, final double dtheta, final Twist2d out) {
+        final double half_dtheta = 0.5 * dtheta;
+        final double sin_theta = Math.sin(dtheta);
+        final double cos_minus_one = Math.cos(dtheta) - 1.0;
+        double halftheta_by_tan_of_halfdtheta;
+        if (Math.abs(cos_minus_one) < kEps) {
+            halftheta_by_tan_of_halfdtheta = 1.0 - (1.0 / 12.0) * dtheta * dtheta;
+        } else {
+            halftheta_by_tan_of_halfdtheta = -(half_dtheta * sin_theta) / cos_minus_one;
+        }
+
+        // Rotate the translation by (halftheta_by_tan_of_halfdtheta, -half_dtheta), the same as
+        // Translation2d.rotateBy with an unnormalized Rotation2d
+        final double magnitude = Math.hypot(halftheta_by_tan_of_halfdtheta, half_dtheta);
+        final double cos = halftheta_by_tan_of_halfdtheta / magnitude;
+        final double sin = -half_dtheta / magnitude;
+        out.dx = x * cos - y * sin;
+        out.dy = x * sin + y * cos;
+        out.dtheta = dtheta;
+        return out;
+    }
 }
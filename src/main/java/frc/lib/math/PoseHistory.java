@@ -0,0 +1,208 @@
+package frc.lib.math;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+
+/**
+ * A fixed size history of robot poses, for looking up where the robot was at a past timestamp.
+ * Replaces WPILib's TimeInterpolatableBuffer, which keeps a TreeMap of boxed timestamps and Pose2d
+ * objects. The samples are kept in parallel primitive arrays used as a ring, so adding a sample
+ * and looking one up never allocates, and lookups are a binary search.
+ *
+ * <p>Samples older than the window before the newest sample are dropped, as are the oldest
+ * samples once the capacity is reached. Not thread safe.
+ */
+public class PoseHistory {
+
+    /* The samples, in a ring. The length is a power of two so indices can be masked. */
+    private final double[] timestamps;
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] thetas;
+    private final int mask;
+
+    /** How long samples are kept after a newer sample is added, in seconds. */
+    private final double windowSeconds;
+
+    /** The slot of the oldest sample. */
+    private int oldest = 0;
+
+    /** The number of samples. */
+    private int size = 0;
+
+    /**
+     * Creates a new PoseHistory.
+     *
+     * @param windowSeconds How long samples are kept, in seconds.
+     * @param capacity The minimum number of samples kept. Rounded up to a power of two. Should be at
+     *     least the window times the rate samples are added at.
+     */
+    public PoseHistory(double windowSeconds, int capacity) {
+        if (capacity < 2) {
+            throw new IllegalArgumentException("Capacity must be at least 2");
+        }
+
+        int length = Integer.highestOneBit(capacity);
+        if (length < capacity) {
+            length <<= 1;
+        }
+
+        timestamps = new double[length];
+        xs = new double[length];
+        ys = new double[length];
+        thetas = new double[length];
+        mask = length - 1;
+        this.windowSeconds = windowSeconds;
+    }
+
+    /**
+     * Adds a sample. Samples must be added in time order.
+     *
+     * @param timestampSeconds The time of the sample.
+     * @param x The x coordinate, in meters.
+     * @param y The y coordinate, in meters.
+     * @param thetaRadians The heading, in radians.
+     * @return Whether the sample was added. False if it is not newer than the newest sample.
+     */
+    public boolean addSample(double timestampSeconds, double x, double y, double thetaRadians) {
+        if (size > 0 && timestampSeconds <= timestamps[slot(size - 1)]) {
+            return false;
+        }
+
+        // Overwrite the oldest sample when full
+        if (size == timestamps.length) {
+            oldest = (oldest + 1) & mask;
+            size--;
+        }
+
+        int slot = slot(size);
+        timestamps[slot] = timestampSeconds;
+        xs[slot] = x;
+        ys[slot] = y;
+        thetas[slot] = thetaRadians;
+        size++;
+
+        // Drop the samples that fell out of the window
+        double cutoff = timestampSeconds - windowSeconds;
+        while (size > 1 && timestamps[oldest] < cutoff) {
+            oldest = (oldest + 1) & mask;
+            size--;
+        }
+        return true;
+    }
+
+    /**
+     * Adds a sample. Samples must be added in time order.
+     *
+     * @param timestampSeconds The time of the sample.
+     * @param pose The pose.
+     * @return Whether the sample was added. False if it is not newer than the newest sample.
+     */
+    public boolean addSample(double timestampSeconds, Pose2d pose) {
+        return addSample(timestampSeconds, pose.getX(), pose.getY(), pose.getRotation().getRadians());
+    }
+
+    /**
+     * Looks up the pose at a time, interpolating between the samples around it. Times outside the
+     * history are clamped to the oldest or newest sample.
+     *
+     * @param timestampSeconds The time.
+     * @param out The array to write x, y and heading in radians to. Must have a length of at least 3.
+     * @return Whether there was a sample. If false, out is not written.
+     */
+    public boolean sample(double timestampSeconds, double[] out) {
+        if (size == 0) {
+            return false;
+        }
+
+        int first = slot(0);
+        int last = slot(size - 1);
+        if (timestampSeconds <= timestamps[first]) {
+            copy(first, out);
+            return true;
+        }
+        if (timestampSeconds >= timestamps[last]) {
+            copy(last, out);
+            return true;
+        }
+
+        // Find the first sample after the time, the one before it is at or before the time
+        int low = 1;
+        int high = size - 1;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (timestamps[slot(middle)] > timestampSeconds) {
+                high = middle;
+            } else {
+                low = middle + 1;
+            }
+        }
+
+        int after = slot(low);
+        int before = slot(low - 1);
+        double t = (timestampSeconds - timestamps[before]) / (timestamps[after] - timestamps[before]);
+
+        out[0] = xs[before] + (xs[after] - xs[before]) * t;
+        out[1] = ys[before] + (ys[after] - ys[before]) * t;
+
+        // Interpolate the heading the short way around
+        double dtheta = MathUtil.angleModulus(thetas[after] - thetas[before]);
+        out[2] = MathUtil.angleModulus(thetas[before] + dtheta * t);
+        return true;
+    }
+
+    /**
+     * Looks up the pose at a time. Allocates the pose, use {@link #sample(double, double[])} at high
+     * rates.
+     *
+     * @param timestampSeconds The time.
+     * @return The pose, or null if there are no samples.
+     */
+    public Pose2d sample(double timestampSeconds) {
+        double[] out = new double[3];
+        if (!sample(timestampSeconds, out)) {
+            return null;
+        }
+        return new Pose2d(out[0], out[1], new Rotation2d(out[2]));
+    }
+
+    /** Removes every sample, ex. after the pose is reset. */
+    public void clear() {
+        oldest = 0;
+        size = 0;
+    }
+
+    /**
+     * @return The number of samples.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @return The time of the oldest sample, or NaN if there are no samples.
+     */
+    public double getOldestTimestamp() {
+        return size == 0 ? Double.NaN : timestamps[oldest];
+    }
+
+    /**
+     * @return The time of the newest sample, or NaN if there are no samples.
+     */
+    public double getNewestTimestamp() {
+        return size == 0 ? Double.NaN : timestamps[slot(size - 1)];
+    }
+
+    /** Turns the index of a sample, from oldest to newest, into its slot. */
+    private int slot(int index) {
+        return (oldest + index) & mask;
+    }
+
+    /** Writes the sample in a slot to out. */
+    private void copy(int slot, double[] out) {
+        out[0] = xs[slot];
+        out[1] = ys[slot];
+        out[2] = thetas[slot];
+    }
+}
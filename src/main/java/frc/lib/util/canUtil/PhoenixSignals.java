@@ -0,0 +1,71 @@
+package frc.lib.util.canUtil;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
+import edu.wpi.first.wpilibj.Timer;
+
+/**
+ * Refreshes every registered Phoenix 6 {@link StatusSignal} in a single {@link
+ * BaseStatusSignal#refreshAll} call per loop. Consumers read the cached values with {@code
+ * getValue()} instead of fetching the signal from the device, so every read in a loop costs no JNI
+ * call and sees the same snapshot.
+ *
+ * <p>Register signals once when the device is created, and call {@link #refreshAll} at the start
+ * of every loop.
+ */
+public class PhoenixSignals {
+
+    /** Every registered signal. Kept as an array because that is what refreshAll takes. */
+    private static BaseStatusSignal[] signals = new BaseStatusSignal[0];
+
+    /** The FPGA timestamp of the last refresh, in seconds. */
+    private static double refreshTimestamp = 0.0;
+
+    /**
+     * Registers a signal to be refreshed by {@link #refreshAll}.
+     *
+     * @param signal The signal to register.
+     * @return The signal, so it can be stored in a field in one line.
+     */
+    public static <T> StatusSignal<T> register(StatusSignal<T> signal) {
+        BaseStatusSignal[] newSignals = new BaseStatusSignal[signals.length + 1];
+        System.arraycopy(signals, 0, newSignals, 0, signals.length);
+        newSignals[signals.length] = signal;
+        signals = newSignals;
+
+        // Have a value ready before the first refreshAll
+        signal.refresh();
+        return signal;
+    }
+
+    /** Refreshes every registered signal. Should be called once at the start of every loop. */
+    public static void refreshAll() {
+        refreshTimestamp = Timer.getFPGATimestamp();
+
+        if (signals.length == 0) {
+            return;
+        }
+
+        BaseStatusSignal.refreshAll(signals);
+    }
+
+    /**
+     * Gets a value compensated for the latency between when it was measured and now, using the
+     * slope signal (ex. yaw and yaw rate). Both signals must be registered.
+     *
+     * @param signal The signal to compensate.
+     * @param slope The rate of change of the signal, per second.
+     * @return The latency compensated value.
+     */
+    public static double getLatencyCompensated(StatusSignal<Double> signal, StatusSignal<Double> slope) {
+        return BaseStatusSignal.getLatencyCompensatedValue(signal, slope);
+    }
+
+    /**
+     * @return The FPGA timestamp of the last {@link #refreshAll}, in seconds. Every cached value
+     *     was read at this time.
+     */
+    public static double getRefreshTimestamp() {
+        return refreshTimestamp;
+    }
+}
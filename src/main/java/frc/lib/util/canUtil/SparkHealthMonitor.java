@@ -0,0 +1,225 @@
+package frc.lib.util.canUtil;
+
+import com.revrobotics.CANSparkBase.FaultID;
+import com.revrobotics.CANSparkMax;
+import edu.wpi.first.wpilibj.DriverStation;
+import edu.wpi.first.wpilibj.Notifier;
+import frc.lib.util.loggingUtil.LogManager;
+import frc.lib.util.loggingUtil.LogPolicy;
+import java.util.ArrayList;
+
+/**
+ * Polls the active and sticky faults and the temperature of every registered SPARK MAX on a
+ * background thread at a low rate, so the control loop does not spend CAN reads on them. A warning
+ * is reported once when a fault appears instead of every loop while it persists, and the values are
+ * logged by {@link #recordAll} only when they change.
+ *
+ * <p>Motors must be registered with {@link #register} before {@link #start} is called.
+ */
+public class SparkHealthMonitor {
+
+    /** The time between polls, in seconds. Faults are not urgent, so this can be slow. */
+    public static final double POLL_PERIOD_SECONDS = 0.25;
+
+    /** The policy of the fault and reset entries. Only written when they change, checked at the poll rate. */
+    private static final LogPolicy FAULT_POLICY = LogPolicy.ON_CHANGE.withRate(1 / POLL_PERIOD_SECONDS);
+
+    /** The policy of the temperature entries. Temperatures change slowly, so once a second is plenty. */
+    private static final LogPolicy TEMPERATURE_POLICY = LogPolicy.absoluteDeadband(1).withRate(1).withMaxSilence(30);
+
+    /** A registered motor and its last polled faults. */
+    private static class Device {
+
+        final CANSparkMax motor;
+        final String name;
+
+        /* The log entries, created once so recording does not look up names. */
+        final LogManager.IntHandle faultsLog;
+        final LogManager.IntHandle stickyFaultsLog;
+        final LogManager.IntHandle resetsLog;
+        final LogManager.DoubleHandle temperatureLog;
+
+        /** The active faults from the last poll. Written by the monitor thread, read by the main thread. */
+        volatile int faults = 0;
+
+        /**
+         * Every sticky fault seen since the motor was registered. Accumulated, because a reset clears
+         * the sticky faults on the controller. Written by the monitor thread, read by the main thread.
+         */
+        volatile int stickyFaults = 0;
+
+        /** The faults that have already been reported. Only used by the monitor thread. */
+        int reportedFaults = 0;
+
+        /** The number of times the motor has reset. Written by the monitor thread. */
+        volatile int resets = 0;
+
+        /** The motor temperature from the last poll, in degrees Celsius. Written by the monitor thread. */
+        volatile double temperature = 0;
+
+        Device(String name, CANSparkMax motor) {
+            this.name = name;
+            this.motor = motor;
+            faultsLog = LogManager.intHandle("CAN/Health/" + name + "/Faults", FAULT_POLICY);
+            stickyFaultsLog = LogManager.intHandle("CAN/Health/" + name + "/StickyFaults", FAULT_POLICY);
+            resetsLog = LogManager.intHandle("CAN/Health/" + name + "/Resets", FAULT_POLICY);
+            temperatureLog = LogManager.doubleHandle("CAN/Health/" + name + "/Temperature", TEMPERATURE_POLICY);
+        }
+    }
+
+    /** Every registered device. */
+    private static final ArrayList<Device> devices = new ArrayList<>();
+
+    /** The notifier that runs {@link #poll}. */
+    private static final Notifier notifier = new Notifier(SparkHealthMonitor::poll);
+
+    /** Whether the notifier has been started. */
+    private static boolean running = false;
+
+    /**
+     * Registers a motor to be monitored. Must be called before {@link #start}. Clears the sticky
+     * faults, so the reset from powering on is not counted as a reset.
+     *
+     * @param name The name of the motor. Used in warnings and as the log key, ex. "Launcher/Top".
+     * @param motor The motor.
+     */
+    public static void register(String name, CANSparkMax motor) {
+        if (running) {
+            throw new IllegalStateException("Motors must be registered before the health monitor is started");
+        }
+
+        motor.clearFaults();
+        devices.add(new Device(name, motor));
+    }
+
+    /** Starts polling. Does nothing if already started. */
+    public static void start() {
+        if (running) {
+            return;
+        }
+
+        running = true;
+        notifier.setName("SparkHealthMonitor");
+        notifier.startPeriodic(POLL_PERIOD_SECONDS);
+    }
+
+    /** Reads the faults and temperature of every device and reports new faults. Runs on the notifier thread. */
+    private static void poll() {
+        for (Device device : devices) {
+            device.temperature = device.motor.getMotorTemperature();
+
+            // The fault getters return the bits as a short, mask off the sign extension
+            int faults = device.motor.getFaults() & 0xFFFF;
+            device.faults = faults;
+            int stickyFaults = device.motor.getStickyFaults() & 0xFFFF;
+
+            // Keep the sticky faults before a reset clears them, and report each one once. Resets are
+            // reported below
+            int newStickyFaults = stickyFaults & ~device.stickyFaults & ~(1 << FaultID.kHasReset.value);
+            device.stickyFaults |= stickyFaults;
+            if (newStickyFaults != 0) {
+                DriverStation.reportWarning(
+                    "Sticky faults on " + device.name + " (CAN " + device.motor.getDeviceId() + "): " +
+                    describe(newStickyFaults),
+                    false
+                );
+            }
+
+            // A reset puts the controller back on its default settings. Count it, and clear it so the
+            // next reset is seen too
+            if ((stickyFaults & (1 << FaultID.kHasReset.value)) != 0) {
+                device.motor.clearFaults();
+                device.resets++;
+                DriverStation.reportWarning(
+                    device.name + " (CAN " + device.motor.getDeviceId() + ") reset, its settings were lost",
+                    false
+                );
+            }
+
+            // Only report faults that were not active at the last report
+            int newFaults = faults & ~device.reportedFaults;
+            if (newFaults != 0) {
+                DriverStation.reportWarning(
+                    "Faults on " + device.name + " (CAN " + device.motor.getDeviceId() + "): " + describe(newFaults),
+                    false
+                );
+            }
+            device.reportedFaults = faults;
+        }
+    }
+
+    /**
+     * @param faults A fault bitmask.
+     * @return The names of the faults in the bitmask, ex. "kSensorFault, kBrownout".
+     */
+    private static String describe(int faults) {
+        StringBuilder description = new StringBuilder();
+        for (FaultID fault : FaultID.values()) {
+            if ((faults & (1 << fault.value)) != 0) {
+                if (description.length() > 0) {
+                    description.append(", ");
+                }
+                description.append(fault.name());
+            }
+        }
+        return description.toString();
+    }
+
+    /**
+     * @param name The name the motor was registered with.
+     * @return The active faults from the last poll, as a bitmask of {@link FaultID} values.
+     */
+    public static int getFaults(String name) {
+        for (Device device : devices) {
+            if (device.name.equals(name)) {
+                return device.faults;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * @return Whether the monitor has been started. Every motor has been registered once it has.
+     */
+    public static boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * @param name The name the motor was registered with.
+     * @return The index of the motor, for {@link #getResetCount}, or -1 if it is not registered.
+     */
+    public static int indexOf(String name) {
+        for (int i = 0; i < devices.size(); i++) {
+            if (devices.get(i).name.equals(name)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param index The index of the motor, from {@link #indexOf}.
+     * @return The number of times the motor has reset since it was registered. Only counts resets
+     *     seen by a poll, so it lags the reset by up to {@link #POLL_PERIOD_SECONDS}.
+     */
+    public static int getResetCount(int index) {
+        return devices.get(index).resets;
+    }
+
+    /**
+     * Logs the active fault bitmask of every device, every sticky fault seen since it was registered,
+     * its reset count and its temperature. Should be called periodically from the main thread. Only
+     * reads the values from the polls, so it never touches the bus, and the entries only write when
+     * their values change.
+     */
+    public static void recordAll() {
+        for (int i = 0; i < devices.size(); i++) {
+            Device device = devices.get(i);
+            device.faultsLog.append(device.faults);
+            device.stickyFaultsLog.append(device.stickyFaults);
+            device.resetsLog.append(device.resets);
+            device.temperatureLog.append(device.temperature);
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package frc.lib.util.canUtil;
+
+import com.revrobotics.CANSparkBase.ControlType;
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.SparkPIDController;
+import java.util.ArrayList;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Wraps the outputs of a {@link CANSparkMax}. Caches the last commanded control type, slot and
+ * value, and only sends a new frame when one of them changes by more than an epsilon. Unchanged
+ * commands are resent after {@link #keepaliveSeconds} so a lost frame cannot leave the controller
+ * at a stale setpoint forever.
+ *
+ * <p>Use this for every periodic write to a SPARK MAX instead of calling {@code set} or {@code
+ * setReference} directly.
+ */
+public class SparkOutput {
+
+    /** The default epsilon. Commands closer than this to the last sent value are skipped. */
+    public static final double DEFAULT_EPSILON = 1e-4;
+
+    /** The default time after which an unchanged command is sent again, in seconds. */
+    public static final double DEFAULT_KEEPALIVE_SECONDS = 1.0;
+
+    /** Every output that has been created. Used by {@link #recordAll}. */
+    private static final ArrayList<SparkOutput> outputs = new ArrayList<>();
+
+    /** The wrapped motor controller. */
+    private final CANSparkMax motor;
+
+    /** The PID controller of the motor. Cached because it is used every loop. */
+    private final SparkPIDController controller;
+
+    /** Commands closer than this to the last sent value are skipped. */
+    private final double epsilon;
+
+    /** The time after which an unchanged command is sent again, in seconds. */
+    private final double keepaliveSeconds;
+
+    /* The log keys, built once so recording does not concatenate strings. */
+    private final String sentKey;
+    private final String skippedKey;
+
+    /* The last command sent. lastType is null if nothing has been sent. */
+    private ControlType lastType = null;
+    private int lastSlot = 0;
+    private double lastValue = 0.0;
+    private long lastSentNanos = 0;
+
+    /* The number of frames sent and skipped. */
+    private long framesSent = 0;
+    private long framesSkipped = 0;
+
+    /**
+     * Creates a new output with the default epsilon and keepalive.
+     *
+     * @param name The name of the output. Used as the log key, ex. "Launcher/Top".
+     * @param motor The motor controller to wrap.
+     */
+    public SparkOutput(String name, CANSparkMax motor) {
+        this(name, motor, DEFAULT_EPSILON, DEFAULT_KEEPALIVE_SECONDS);
+    }
+
+    /**
+     * Creates a new output.
+     *
+     * @param name The name of the output. Used as the log key, ex. "Launcher/Top".
+     * @param motor The motor controller to wrap.
+     * @param epsilon Commands closer than this to the last sent value are skipped.
+     * @param keepaliveSeconds The time after which an unchanged command is sent again.
+     */
+    public SparkOutput(String name, CANSparkMax motor, double epsilon, double keepaliveSeconds) {
+        this.motor = motor;
+        this.controller = motor.getPIDController();
+        this.epsilon = epsilon;
+        this.keepaliveSeconds = keepaliveSeconds;
+
+        sentKey = "CAN/Outputs/" + name + "/FramesSent";
+        skippedKey = "CAN/Outputs/" + name + "/FramesSkipped";
+
+        outputs.add(this);
+    }
+
+    /**
+     * Sets the duty cycle of the motor. Same as {@link CANSparkMax#set}.
+     *
+     * @param speed The duty cycle, from -1 to 1.
+     */
+    public void set(double speed) {
+        if (shouldSend(ControlType.kDutyCycle, 0, speed)) {
+            motor.set(speed);
+        }
+    }
+
+    /** Stops the motor. Same as {@link CANSparkMax#stopMotor}, which commands a duty cycle of 0. */
+    public void stopMotor() {
+        if (shouldSend(ControlType.kDutyCycle, 0, 0.0)) {
+            motor.stopMotor();
+        }
+    }
+
+    /**
+     * Sets the closed loop reference of the motor. Same as {@link SparkPIDController#setReference}.
+     *
+     * @param value The reference, in the units of the control type.
+     * @param type The control type.
+     * @param slot The PID slot.
+     */
+    public void setReference(double value, ControlType type, int slot) {
+        if (shouldSend(type, slot, value)) {
+            controller.setReference(value, type, slot);
+        }
+    }
+
+    /** Forgets the last command, so the next command is always sent. Call after reconfiguring the motor. */
+    public void invalidate() {
+        lastType = null;
+    }
+
+    /**
+     * Forgets the last command of every output of a motor, ex. after it reset and lost its setpoint.
+     *
+     * @param motor The motor.
+     */
+    static void invalidateOutputsOf(CANSparkMax motor) {
+        for (int i = 0; i < outputs.size(); i++) {
+            SparkOutput output = outputs.get(i);
+            if (output.motor == motor) {
+                output.invalidate();
+            }
+        }
+    }
+
+    /**
+     * Decides whether a command should be sent, and updates the cache and counters.
+     *
+     * @return Whether the command differs from the last one sent or the keepalive has elapsed.
+     */
+    private boolean shouldSend(ControlType type, int slot, double value) {
+        long now = System.nanoTime();
+
+        boolean unchanged =
+            type == lastType &&
+            slot == lastSlot &&
+            Math.abs(value - lastValue) <= epsilon &&
+            (now - lastSentNanos) < (long) (keepaliveSeconds * 1e9);
+
+        if (unchanged) {
+            framesSkipped++;
+            return false;
+        }
+
+        lastType = type;
+        lastSlot = slot;
+        lastValue = value;
+        lastSentNanos = now;
+        framesSent++;
+        return true;
+    }
+
+    /**
+     * @return The number of frames sent.
+     */
+    public long getFramesSent() {
+        return framesSent;
+    }
+
+    /**
+     * @return The number of frames skipped because the command had not changed.
+     */
+    public long getFramesSkipped() {
+        return framesSkipped;
+    }
+
+    /**
+     * @return The wrapped motor controller.
+     */
+    public CANSparkMax getMotor() {
+        return motor;
+    }
+
+    /** Records the sent and skipped frame counts of every output. Should be called periodically. */
+    public static void recordAll() {
+        for (int i = 0; i < outputs.size(); i++) {
+            SparkOutput output = outputs.get(i);
+            Logger.recordOutput(output.sentKey, output.framesSent);
+            Logger.recordOutput(output.skippedKey, output.framesSkipped);
+        }
+    }
+}
@@ -0,0 +1,248 @@
+package frc.lib.util.canUtil;
+
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.REVLibError;
+import edu.wpi.first.wpilibj.DriverStation;
+import java.util.ArrayList;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Applies {@link StatusFrameProfile}s to every registered SPARK MAX and switches them when the
+ * robot mode changes. Also estimates the CAN bus load each mode produces, so profiles can be tuned
+ * in simulation before they are tried on the robot.
+ */
+public class StatusFrameManager {
+
+    /** The robot modes that can have different profiles. */
+    public static enum RobotMode {
+        DISABLED,
+        AUTO,
+        TELEOP,
+    }
+
+    /** The bit rate of the CAN bus, in bits per second. */
+    public static final double CAN_BITS_PER_SECOND = 1_000_000.0;
+
+    /**
+     * The size of a status frame on the bus, in bits. An extended frame with 8 data bytes is 128
+     * bits before bit stuffing; this includes a typical amount of stuffing.
+     */
+    public static final double BITS_PER_FRAME = 135.0;
+
+    /** The {@link SparkHealthMonitor} index of a device that has not been looked up yet. */
+    private static final int UNRESOLVED = -2;
+
+    /** A registered motor and its profile for each robot mode. */
+    private static class Device {
+
+        final String name;
+
+        /** The motor, or null if it is not on the bus, ex. in simulation. */
+        final CANSparkMax motor;
+
+        /** The profile for each {@link RobotMode}, indexed by ordinal. */
+        final StatusFrameProfile[] profiles;
+
+        /** The profile currently applied to the motor, or null if none has been applied. */
+        StatusFrameProfile applied = null;
+
+        /** The index of the motor in the {@link SparkHealthMonitor}, -1 if it is not monitored. */
+        int monitorIndex = UNRESOLVED;
+
+        /** The reset count of the motor when its profile was last applied. */
+        int resetsSeen = 0;
+
+        Device(String name, CANSparkMax motor, StatusFrameProfile[] profiles) {
+            this.name = name;
+            this.motor = motor;
+            this.profiles = profiles;
+        }
+    }
+
+    /** Every registered device. */
+    private static final ArrayList<Device> devices = new ArrayList<>();
+
+    /** The current robot mode. */
+    private static RobotMode currentMode = RobotMode.DISABLED;
+
+    /**
+     * Registers a motor and applies the profile for the current mode.
+     *
+     * @param name The name of the motor. Used in the bus load report.
+     * @param motor The motor.
+     * @param disabled The profile to use while disabled.
+     * @param auto The profile to use in autonomous.
+     * @param teleop The profile to use in teleop and test.
+     */
+    public static void register(
+        String name,
+        CANSparkMax motor,
+        StatusFrameProfile disabled,
+        StatusFrameProfile auto,
+        StatusFrameProfile teleop
+    ) {
+        Device device = new Device(name, motor, new StatusFrameProfile[] { disabled, auto, teleop });
+        devices.add(device);
+        apply(device);
+    }
+
+    /**
+     * Registers a motor that uses the same profile while enabled, and another one while disabled.
+     *
+     * @param name The name of the motor. Used in the bus load report.
+     * @param motor The motor.
+     * @param disabled The profile to use while disabled.
+     * @param enabled The profile to use in autonomous, teleop and test.
+     */
+    public static void register(
+        String name,
+        CANSparkMax motor,
+        StatusFrameProfile disabled,
+        StatusFrameProfile enabled
+    ) {
+        register(name, motor, disabled, enabled, enabled);
+    }
+
+    /**
+     * Registers a motor that is not on the bus, ex. a simulated one. It is only counted in the bus
+     * load, so the load of a mechanism can be estimated without its hardware.
+     *
+     * @param name The name of the motor. Used in the bus load report.
+     * @param disabled The profile to use while disabled.
+     * @param enabled The profile to use in autonomous, teleop and test.
+     */
+    public static void register(String name, StatusFrameProfile disabled, StatusFrameProfile enabled) {
+        register(name, null, disabled, enabled, enabled);
+    }
+
+    /**
+     * Switches every registered motor to its profile for a mode. Only motors whose profile changes
+     * are reconfigured. Should be called from the mode init methods of the robot.
+     *
+     * @param mode The new robot mode.
+     */
+    public static void setMode(RobotMode mode) {
+        currentMode = mode;
+        for (Device device : devices) {
+            apply(device);
+        }
+
+        Logger.recordOutput("CAN/StatusFrames/Mode", mode.name());
+        Logger.recordOutput("CAN/StatusFrames/EstimatedUtilization", estimateUtilization(mode));
+    }
+
+    /**
+     * Applies the profile for the current mode again to every motor that has reset since it was
+     * applied. A reset SPARK MAX, ex. after a brownout, falls back to its default frame periods and
+     * loses its setpoint, so its {@link SparkOutput}s also send their next command even if it is
+     * unchanged. Resets are detected by the {@link SparkHealthMonitor}, so this does not read the
+     * bus. Should be called periodically from the main thread.
+     */
+    public static void checkForResets() {
+        if (!SparkHealthMonitor.isRunning()) {
+            return;
+        }
+
+        for (int i = 0; i < devices.size(); i++) {
+            Device device = devices.get(i);
+            if (device.monitorIndex == UNRESOLVED) {
+                device.monitorIndex = SparkHealthMonitor.indexOf(device.name);
+            }
+            if (device.monitorIndex < 0) {
+                continue;
+            }
+
+            int resets = SparkHealthMonitor.getResetCount(device.monitorIndex);
+            if (resets != device.resetsSeen) {
+                device.resetsSeen = resets;
+                device.applied = null;
+                apply(device);
+                if (device.motor != null) {
+                    SparkOutput.invalidateOutputsOf(device.motor);
+                }
+            }
+        }
+    }
+
+    /**
+     * Applies the profile for the current mode to a device, if it is not already applied.
+     *
+     * @param device The device.
+     */
+    private static void apply(Device device) {
+        StatusFrameProfile profile = device.profiles[currentMode.ordinal()];
+        if (profile == device.applied) {
+            return;
+        }
+
+        // There is nothing to configure without a motor
+        if (device.motor == null) {
+            device.applied = profile;
+            return;
+        }
+
+        for (int i = 0; i < StatusFrameProfile.FRAMES.length; i++) {
+            REVLibError error = device.motor.setPeriodicFramePeriod(
+                StatusFrameProfile.FRAMES[i],
+                profile.periodsMs[i]
+            );
+            if (error != REVLibError.kOk) {
+                DriverStation.reportWarning(
+                    "Failed to set " + StatusFrameProfile.FRAMES[i] + " period on " + device.name + ": " + error,
+                    false
+                );
+            }
+        }
+
+        device.applied = profile;
+    }
+
+    /**
+     * Estimates the fraction of the CAN bus used by the status frames of every registered motor in
+     * a mode. Does not include control frames or non-REV devices.
+     *
+     * @param mode The robot mode.
+     * @return The estimated utilization, from 0 to 1.
+     */
+    public static double estimateUtilization(RobotMode mode) {
+        double framesPerSecond = 0.0;
+        for (Device device : devices) {
+            framesPerSecond += device.profiles[mode.ordinal()].getFramesPerSecond();
+        }
+        return framesPerSecond * BITS_PER_FRAME / CAN_BITS_PER_SECOND;
+    }
+
+    /**
+     * Prints and logs the status frame load of every registered motor in every mode. Meant to be
+     * run in simulation, where the profiles can be compared without a robot.
+     */
+    public static void reportBusLoad() {
+        StringBuilder report = new StringBuilder("Estimated SPARK MAX status frame load:\n");
+        for (RobotMode mode : RobotMode.values()) {
+            double framesPerSecond = 0.0;
+            report.append(String.format("  %s%n", mode.name()));
+
+            for (Device device : devices) {
+                StatusFrameProfile profile = device.profiles[mode.ordinal()];
+                framesPerSecond += profile.getFramesPerSecond();
+                report.append(
+                    String.format(
+                        "    %-24s %-18s %7.1f frames/s%n",
+                        device.name,
+                        profile.name,
+                        profile.getFramesPerSecond()
+                    )
+                );
+            }
+
+            double utilization = estimateUtilization(mode);
+            report.append(
+                String.format("    %-43s %7.1f frames/s (%.1f%% of bus)%n", "Total", framesPerSecond, utilization * 100)
+            );
+            Logger.recordOutput("CAN/StatusFrames/" + mode.name() + "/FramesPerSecond", framesPerSecond);
+            Logger.recordOutput("CAN/StatusFrames/" + mode.name() + "/EstimatedUtilization", utilization);
+        }
+
+        System.out.print(report);
+    }
+}
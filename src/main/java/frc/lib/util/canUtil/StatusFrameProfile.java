@@ -0,0 +1,122 @@
+package frc.lib.util.canUtil;
+
+import com.revrobotics.CANSparkLowLevel.PeriodicFrame;
+
+/**
+ * A set of periodic status frame periods for a SPARK MAX. Each frame carries a group of signals:
+ *
+ * <ul>
+ *   <li>Status 0: applied output, faults, follower data
+ *   <li>Status 1: velocity, temperature, voltage, current
+ *   <li>Status 2: position
+ *   <li>Status 3: analog sensor
+ *   <li>Status 4: alternate encoder
+ *   <li>Status 5: duty cycle absolute encoder position
+ *   <li>Status 6: duty cycle absolute encoder velocity
+ * </ul>
+ *
+ * <p>Frames that carry signals nobody reads should be slowed down as far as possible to free up
+ * the bus. See {@link StatusFrameManager} for switching profiles with the robot mode.
+ */
+public class StatusFrameProfile {
+
+    /** The longest period a status frame can be set to, in milliseconds. */
+    public static final int MAX_PERIOD_MS = 65535;
+
+    /** The frames, in the same order as {@link #periodsMs}. */
+    static final PeriodicFrame[] FRAMES = new PeriodicFrame[] {
+        PeriodicFrame.kStatus0,
+        PeriodicFrame.kStatus1,
+        PeriodicFrame.kStatus2,
+        PeriodicFrame.kStatus3,
+        PeriodicFrame.kStatus4,
+        PeriodicFrame.kStatus5,
+        PeriodicFrame.kStatus6,
+    };
+
+    /**
+     * Mechanisms while enabled. Applied output and faults at the default rate, velocity and position
+     * slowed down since they are only logged.
+     */
+    public static final StatusFrameProfile MECHANISM = new StatusFrameProfile("Mechanism", 10, 100, 100);
+
+    /** Mechanisms while disabled. Only enough to see faults and temperatures. */
+    public static final StatusFrameProfile MECHANISM_DISABLED = new StatusFrameProfile(
+        "MechanismDisabled",
+        100,
+        250,
+        250
+    );
+
+    /** The name of the profile. Used in the bus load report. */
+    public final String name;
+
+    /** The period of each frame in {@link #FRAMES}, in milliseconds. */
+    final int[] periodsMs;
+
+    /**
+     * Creates a new profile. Frames 3 through 6 are set to {@link #MAX_PERIOD_MS}, since no SPARK MAX
+     * on the robot has an analog sensor, alternate encoder or absolute encoder attached.
+     *
+     * @param name The name of the profile.
+     * @param status0PeriodMs The period of status 0 (applied output, faults), in milliseconds.
+     * @param status1PeriodMs The period of status 1 (velocity, temperature, current), in milliseconds.
+     * @param status2PeriodMs The period of status 2 (position), in milliseconds.
+     */
+    public StatusFrameProfile(String name, int status0PeriodMs, int status1PeriodMs, int status2PeriodMs) {
+        this.name = name;
+        this.periodsMs = new int[] {
+            status0PeriodMs,
+            status1PeriodMs,
+            status2PeriodMs,
+            MAX_PERIOD_MS,
+            MAX_PERIOD_MS,
+            MAX_PERIOD_MS,
+            MAX_PERIOD_MS,
+        };
+    }
+
+    /**
+     * Drive and steer motors whose positions are sampled by an odometry thread while enabled.
+     *
+     * @param positionPeriodMs The period of the position frame, matched to the odometry sample rate.
+     * @return The profile.
+     */
+    public static StatusFrameProfile odometry(int positionPeriodMs) {
+        return new StatusFrameProfile("Odometry", 10, 20, positionPeriodMs);
+    }
+
+    /**
+     * Drive and steer motors while disabled. Positions keep coming at the loop rate so odometry
+     * still tracks the robot if it is pushed.
+     *
+     * @return The profile.
+     */
+    public static StatusFrameProfile odometryDisabled() {
+        return new StatusFrameProfile("OdometryDisabled", 100, 100, 20);
+    }
+
+    /**
+     * @param frame The frame.
+     * @return The period of the frame in this profile, in milliseconds.
+     */
+    public int getPeriodMs(PeriodicFrame frame) {
+        for (int i = 0; i < FRAMES.length; i++) {
+            if (FRAMES[i] == frame) {
+                return periodsMs[i];
+            }
+        }
+        return MAX_PERIOD_MS;
+    }
+
+    /**
+     * @return The number of status frames per second a device with this profile sends.
+     */
+    public double getFramesPerSecond() {
+        double framesPerSecond = 0.0;
+        for (int periodMs : periodsMs) {
+            framesPerSecond += 1000.0 / periodMs;
+        }
+        return framesPerSecond;
+    }
+}
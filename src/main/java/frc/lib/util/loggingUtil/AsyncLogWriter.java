@@ -0,0 +1,368 @@
+package frc.lib.util.loggingUtil;
+
+import edu.wpi.first.util.datalog.BooleanLogEntry;
+import edu.wpi.first.util.datalog.DataLogEntry;
+import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import edu.wpi.first.util.datalog.IntegerLogEntry;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Moves DataLog appends off the robot thread. The robot thread copies each value, its entry and
+ * its timestamp into preallocated ring buffers, and a writer thread drains them into the DataLog
+ * in batches. Adding a value never allocates or locks, it is a few array stores.
+ *
+ * <p>Exactly one thread may add values. Arrays are copied into a separate ring of doubles, and an
+ * array is never split across the end of that ring.
+ */
+public class AsyncLogWriter implements AutoCloseable {
+
+    /** What to do with a value when the buffers are full. */
+    public enum DropPolicy {
+        /** Drop the value, the values already buffered are kept. The robot thread never waits. */
+        DROP_NEWEST,
+
+        /** Wait for the writer to make room. Nothing is dropped, but a stalled writer stalls the loop. */
+        BLOCK,
+    }
+
+    /* The kinds of values, stored per slot. */
+    private static final byte DOUBLE = 0;
+    private static final byte INTEGER = 1;
+    private static final byte BOOLEAN = 2;
+    private static final byte DOUBLE_ARRAY = 3;
+
+    /** Arrays up to this length are written from reused scratch arrays, longer ones allocate. */
+    private static final int MAX_SCRATCH_LENGTH = 64;
+
+    /* The slots. The length is a power of two so indices can be masked. */
+    private final DataLogEntry[] entries;
+    private final byte[] kinds;
+    private final long[] timestamps;
+    private final long[] values;
+    private final int mask;
+
+    /* The array values, in a ring. Each array slot holds where its values start and how many there are. */
+    private final double[] arrayData;
+    private final int arrayMask;
+    private final int[] arrayStarts;
+    private final int[] arrayLengths;
+
+    /** The position in the array ring after each slot's values, to free them once the slot is written. */
+    private final long[] arrayEnds;
+
+    /** The index of the next slot to write to the DataLog. Only written by the writer. */
+    private final AtomicLong head = new AtomicLong(0);
+
+    /** The index of the next slot to fill. Only written by the robot thread. */
+    private final AtomicLong tail = new AtomicLong(0);
+
+    /** The position in the array ring up to which values have been written. Only written by the writer. */
+    private final AtomicLong arrayReleased = new AtomicLong(0);
+
+    /** The position in the array ring of the next array. Only used by the robot thread. */
+    private long arrayCursor = 0;
+
+    /** What to do when the buffers are full. */
+    private final DropPolicy dropPolicy;
+
+    /** The most slots written in one batch. */
+    private final int maxBatchSize;
+
+    /** How long the writer sleeps when there is nothing to write. */
+    private final long idleNanos;
+
+    /** The writer thread. */
+    private final Thread writer;
+
+    /** Arrays of each length up to {@link #MAX_SCRATCH_LENGTH}, only used by the writer. */
+    private final double[][] scratchArrays = new double[MAX_SCRATCH_LENGTH + 1][];
+
+    /* Metrics of the robot thread. */
+    private long dropped = 0;
+    private long stalls = 0;
+    private long highWater = 0;
+
+    /* Metrics of the writer, read by the robot thread. */
+    private volatile long written = 0;
+    private volatile long batches = 0;
+    private volatile int largestBatch = 0;
+
+    /**
+     * Creates a new writer and starts the writer thread.
+     *
+     * @param capacity The minimum number of values that can be buffered. Rounded up to a power of two.
+     * @param arrayCapacity The minimum number of array elements that can be buffered. Rounded up to a
+     *     power of two.
+     * @param dropPolicy What to do with a value when the buffers are full.
+     * @param maxBatchSize The most values written in one batch, before checking for new ones.
+     * @param idleMillis How long the writer sleeps when there is nothing to write.
+     */
+    public AsyncLogWriter(int capacity, int arrayCapacity, DropPolicy dropPolicy, int maxBatchSize, double idleMillis) {
+        int length = powerOfTwo(capacity);
+        entries = new DataLogEntry[length];
+        kinds = new byte[length];
+        timestamps = new long[length];
+        values = new long[length];
+        arrayStarts = new int[length];
+        arrayLengths = new int[length];
+        arrayEnds = new long[length];
+        mask = length - 1;
+
+        int arrayLength = powerOfTwo(arrayCapacity);
+        arrayData = new double[arrayLength];
+        arrayMask = arrayLength - 1;
+
+        this.dropPolicy = dropPolicy;
+        this.maxBatchSize = maxBatchSize;
+        this.idleNanos = (long) (idleMillis * 1e6);
+
+        writer = new Thread(this::run, "AsyncLogWriter");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    /** Rounds a capacity up to a power of two. */
+    private static int powerOfTwo(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+
+        int length = Integer.highestOneBit(capacity);
+        return length < capacity ? length << 1 : length;
+    }
+
+    /**
+     * Buffers a double.
+     *
+     * @param entry The entry to append to.
+     * @param value The value.
+     * @param timestampMicros The time of the value, on the DataLog time base.
+     * @return Whether the value was buffered. False if it was dropped.
+     */
+    public boolean addDouble(DoubleLogEntry entry, double value, long timestampMicros) {
+        return add(entry, DOUBLE, Double.doubleToRawLongBits(value), timestampMicros);
+    }
+
+    /**
+     * Buffers an integer.
+     *
+     * @param entry The entry to append to.
+     * @param value The value.
+     * @param timestampMicros The time of the value, on the DataLog time base.
+     * @return Whether the value was buffered. False if it was dropped.
+     */
+    public boolean addInteger(IntegerLogEntry entry, long value, long timestampMicros) {
+        return add(entry, INTEGER, value, timestampMicros);
+    }
+
+    /**
+     * Buffers a boolean.
+     *
+     * @param entry The entry to append to.
+     * @param value The value.
+     * @param timestampMicros The time of the value, on the DataLog time base.
+     * @return Whether the value was buffered. False if it was dropped.
+     */
+    public boolean addBoolean(BooleanLogEntry entry, boolean value, long timestampMicros) {
+        return add(entry, BOOLEAN, value ? 1 : 0, timestampMicros);
+    }
+
+    /**
+     * Buffers a copy of a double array. The array can be reused as soon as this returns.
+     *
+     * @param entry The entry to append to.
+     * @param value The value.
+     * @param timestampMicros The time of the value, on the DataLog time base.
+     * @return Whether the value was buffered. False if it was dropped.
+     */
+    public boolean addDoubleArray(DoubleArrayLogEntry entry, double[] value, long timestampMicros) {
+        int length = value.length;
+        if (length > arrayData.length) {
+            dropped++;
+            return false;
+        }
+
+        // Skip to the start of the ring instead of splitting the array across the end
+        long start = arrayCursor;
+        int offset = (int) (start & arrayMask);
+        if (offset + length > arrayData.length) {
+            start += arrayData.length - offset;
+            offset = 0;
+        }
+        long end = start + length;
+
+        // Wait for room in both rings, or drop
+        while (tail.get() - head.get() == entries.length || end - arrayReleased.get() > arrayData.length) {
+            if (!waitForRoom()) {
+                return false;
+            }
+        }
+
+        System.arraycopy(value, 0, arrayData, offset, length);
+        arrayCursor = end;
+
+        long index = tail.get();
+        int slot = (int) (index & mask);
+        arrayStarts[slot] = offset;
+        arrayLengths[slot] = length;
+        arrayEnds[slot] = end;
+        publish(index, slot, entry, DOUBLE_ARRAY, 0, timestampMicros);
+        return true;
+    }
+
+    /** Buffers a value that fits in a slot. */
+    private boolean add(DataLogEntry entry, byte kind, long value, long timestampMicros) {
+        while (tail.get() - head.get() == entries.length) {
+            if (!waitForRoom()) {
+                return false;
+            }
+        }
+
+        long index = tail.get();
+        int slot = (int) (index & mask);
+
+        // The array ring is not used, free nothing past the last array
+        arrayEnds[slot] = arrayCursor;
+        publish(index, slot, entry, kind, value, timestampMicros);
+        return true;
+    }
+
+    /** Fills a slot and hands it to the writer. */
+    private void publish(long index, int slot, DataLogEntry entry, byte kind, long value, long timestampMicros) {
+        entries[slot] = entry;
+        kinds[slot] = kind;
+        values[slot] = value;
+        timestamps[slot] = timestampMicros;
+
+        // Publish after the slot is written, so the writer never sees a partial slot
+        tail.lazySet(index + 1);
+
+        long depth = index + 1 - head.get();
+        if (depth > highWater) {
+            highWater = depth;
+        }
+    }
+
+    /**
+     * Handles full buffers by the drop policy.
+     *
+     * @return Whether to check for room again. False if the value was dropped.
+     */
+    private boolean waitForRoom() {
+        if (dropPolicy == DropPolicy.DROP_NEWEST) {
+            dropped++;
+            return false;
+        }
+
+        stalls++;
+        LockSupport.unpark(writer);
+        Thread.onSpinWait();
+        return true;
+    }
+
+    /** Writes batches until the writer is closed, then writes what is left. Runs on the writer. */
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            if (drain() == 0) {
+                LockSupport.parkNanos(this, idleNanos);
+            }
+        }
+        while (drain() > 0) {}
+    }
+
+    /**
+     * Writes up to a batch of slots to the DataLog. Runs on the writer.
+     *
+     * @return The number of slots written.
+     */
+    private int drain() {
+        long start = head.get();
+        long end = Math.min(tail.get(), start + maxBatchSize);
+        if (start == end) {
+            return 0;
+        }
+
+        for (long index = start; index < end; index++) {
+            int slot = (int) (index & mask);
+            long timestamp = timestamps[slot];
+            switch (kinds[slot]) {
+                case DOUBLE:
+                    ((DoubleLogEntry) entries[slot]).append(Double.longBitsToDouble(values[slot]), timestamp);
+                    break;
+                case INTEGER:
+                    ((IntegerLogEntry) entries[slot]).append(values[slot], timestamp);
+                    break;
+                case BOOLEAN:
+                    ((BooleanLogEntry) entries[slot]).append(values[slot] != 0, timestamp);
+                    break;
+                case DOUBLE_ARRAY:
+                    double[] array = scratchArray(arrayLengths[slot]);
+                    System.arraycopy(arrayData, arrayStarts[slot], array, 0, array.length);
+                    ((DoubleArrayLogEntry) entries[slot]).append(array, timestamp);
+                    break;
+            }
+        }
+
+        // Free the array values, then the slots, so the robot thread never reuses values being read
+        arrayReleased.lazySet(arrayEnds[(int) ((end - 1) & mask)]);
+        head.lazySet(end);
+
+        int count = (int) (end - start);
+        written += count;
+        batches++;
+        if (count > largestBatch) {
+            largestBatch = count;
+        }
+        return count;
+    }
+
+    /** An array to copy values of a length into, reused for short lengths. Runs on the writer. */
+    private double[] scratchArray(int length) {
+        if (length > MAX_SCRATCH_LENGTH) {
+            return new double[length];
+        }
+        if (scratchArrays[length] == null) {
+            scratchArrays[length] = new double[length];
+        }
+        return scratchArrays[length];
+    }
+
+    /**
+     * @return The number of values waiting to be written.
+     */
+    public long getDepth() {
+        return tail.get() - head.get();
+    }
+
+    /**
+     * @return The number of values dropped because the buffers were full.
+     */
+    public long getDroppedCount() {
+        return dropped;
+    }
+
+    /** Records the depth, drops and batches. Only call from the thread that adds values. */
+    public void record() {
+        Logger.recordOutput("Logging/Async/Depth", getDepth());
+        Logger.recordOutput("Logging/Async/HighWater", highWater);
+        Logger.recordOutput("Logging/Async/Dropped", dropped);
+        Logger.recordOutput("Logging/Async/Stalls", stalls);
+        Logger.recordOutput("Logging/Async/Written", written);
+        Logger.recordOutput("Logging/Async/Batches", batches);
+        Logger.recordOutput("Logging/Async/LargestBatch", largestBatch);
+    }
+
+    /** Stops the writer after it writes every buffered value. */
+    @Override
+    public void close() {
+        writer.interrupt();
+        try {
+            writer.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package frc.lib.util.loggingUtil;
+
+import java.util.Arrays;
+
+/**
+ * A histogram of durations with fixed buckets, for finding percentiles without storing every
+ * sample. Durations up to {@link #FINE_LIMIT_MICROS} fall in fine buckets, longer ones in coarse
+ * buckets up to {@link #COARSE_LIMIT_MICROS}, and anything longer in a single overflow bucket. The
+ * maximum is tracked exactly.
+ *
+ * <p>Recording and reading never allocate, so this is safe to use every loop.
+ */
+public class LatencyHistogram {
+
+    /** The width of the fine buckets, in microseconds. */
+    public static final int FINE_WIDTH_MICROS = 10;
+
+    /** The end of the fine buckets, in microseconds. */
+    public static final int FINE_LIMIT_MICROS = 2_000;
+
+    /** The width of the coarse buckets, in microseconds. */
+    public static final int COARSE_WIDTH_MICROS = 200;
+
+    /** The end of the coarse buckets, in microseconds. Longer durations go in the overflow bucket. */
+    public static final int COARSE_LIMIT_MICROS = 40_000;
+
+    private static final int FINE_BUCKETS = FINE_LIMIT_MICROS / FINE_WIDTH_MICROS;
+    private static final int COARSE_BUCKETS = (COARSE_LIMIT_MICROS - FINE_LIMIT_MICROS) / COARSE_WIDTH_MICROS;
+    private static final int OVERFLOW_BUCKET = FINE_BUCKETS + COARSE_BUCKETS;
+
+    /** The number of samples in each bucket. The last bucket is the overflow bucket. */
+    private final int[] counts = new int[OVERFLOW_BUCKET + 1];
+
+    /** The number of samples since the last reset. */
+    private int count = 0;
+
+    /** The longest sample since the last reset, in microseconds. */
+    private long maxMicros = 0;
+
+    /**
+     * Adds a sample.
+     *
+     * @param micros The duration, in microseconds.
+     */
+    public void record(long micros) {
+        if (micros < 0) {
+            micros = 0;
+        }
+
+        counts[bucketOf(micros)]++;
+        count++;
+        if (micros > maxMicros) {
+            maxMicros = micros;
+        }
+    }
+
+    /**
+     * @param micros A duration, in microseconds.
+     * @return The index of the bucket the duration falls in.
+     */
+    private static int bucketOf(long micros) {
+        if (micros < FINE_LIMIT_MICROS) {
+            return (int) (micros / FINE_WIDTH_MICROS);
+        } else if (micros < COARSE_LIMIT_MICROS) {
+            return FINE_BUCKETS + (int) ((micros - FINE_LIMIT_MICROS) / COARSE_WIDTH_MICROS);
+        }
+        return OVERFLOW_BUCKET;
+    }
+
+    /**
+     * @param bucket The index of a bucket.
+     * @return The exclusive upper edge of the bucket, in microseconds.
+     */
+    private static long upperEdgeOf(int bucket) {
+        if (bucket < FINE_BUCKETS) {
+            return (long) (bucket + 1) * FINE_WIDTH_MICROS;
+        }
+        return FINE_LIMIT_MICROS + (long) (bucket - FINE_BUCKETS + 1) * COARSE_WIDTH_MICROS;
+    }
+
+    /**
+     * Finds a percentile. The result is the upper edge of the bucket the percentile falls in, capped
+     * at the maximum, so it is never an underestimate by more than one bucket width.
+     *
+     * @param percentile The percentile, from 0 to 1. Ex. 0.99 for p99.
+     * @return The percentile, in microseconds, or 0 if there are no samples.
+     */
+    public long getPercentileMicros(double percentile) {
+        if (count == 0) {
+            return 0;
+        }
+
+        // The number of samples at or below the percentile, at least one
+        long rank = Math.max(1, (long) Math.ceil(percentile * count));
+
+        long seen = 0;
+        for (int i = 0; i < OVERFLOW_BUCKET; i++) {
+            seen += counts[i];
+            if (seen >= rank) {
+                return Math.min(upperEdgeOf(i), maxMicros);
+            }
+        }
+        return maxMicros;
+    }
+
+    /** @return The longest sample since the last reset, in microseconds. */
+    public long getMaxMicros() {
+        return maxMicros;
+    }
+
+    /** @return The number of samples since the last reset. */
+    public int getCount() {
+        return count;
+    }
+
+    /** Removes every sample. */
+    public void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        maxMicros = 0;
+    }
+}
@@ -0,0 +1,197 @@
+package frc.lib.util.loggingUtil;
+
+import java.util.Arrays;
+
+/**
+ * The {@link LogPolicy} state of every entry of one type in {@link LogManager}, in primitive arrays
+ * indexed by the entry's handle. Deciding whether to write a value is a few array reads and
+ * comparisons, and never allocates, except to keep a copy of an array whose length changed.
+ */
+class LogFilter {
+
+    /* The policy of each entry. */
+    private boolean[] onChange = new boolean[16];
+    private double[] absoluteDeadbands = new double[16];
+    private double[] relativeDeadbands = new double[16];
+    private long[] maxSilenceMicros = new long[16];
+
+    /* The loops of each entry, from the {@link LogSchedule}. A divisor of 0 considers every value. */
+    private int[] divisors = new int[16];
+    private int[] phases = new int[16];
+
+    /** The time of the last write of each entry, or Long.MIN_VALUE before the first. */
+    private long[] lastTimes = new long[16];
+
+    /* The last value written of each entry, by type. */
+    private double[] lastDoubles = new double[16];
+    private long[] lastLongs = new long[16];
+    private double[][] lastArrays = new double[16][];
+
+    /** The number of values that were not written. */
+    private long skipped = 0;
+
+    /**
+     * Sets the policy of an entry, growing the arrays for new entries. The next value is always
+     * written.
+     *
+     * @param index The index of the entry.
+     * @param policy The policy.
+     */
+    void setPolicy(int index, LogPolicy policy) {
+        if (index >= lastTimes.length) {
+            int length = Math.max(index + 1, lastTimes.length * 2);
+            onChange = Arrays.copyOf(onChange, length);
+            absoluteDeadbands = Arrays.copyOf(absoluteDeadbands, length);
+            relativeDeadbands = Arrays.copyOf(relativeDeadbands, length);
+            maxSilenceMicros = Arrays.copyOf(maxSilenceMicros, length);
+            divisors = Arrays.copyOf(divisors, length);
+            phases = Arrays.copyOf(phases, length);
+            lastTimes = Arrays.copyOf(lastTimes, length);
+            lastDoubles = Arrays.copyOf(lastDoubles, length);
+            lastLongs = Arrays.copyOf(lastLongs, length);
+            lastArrays = Arrays.copyOf(lastArrays, length);
+        }
+
+        onChange[index] = policy.onChange;
+        absoluteDeadbands[index] = policy.absoluteDeadband;
+        relativeDeadbands[index] = policy.relativeDeadband;
+        maxSilenceMicros[index] = policy.maxSilenceMicros;
+        lastTimes[index] = Long.MIN_VALUE;
+
+        // Keep the phase while the rate is the same, so replacing a policy does not add load
+        int divisor = policy.rateHz > 0 ? LogSchedule.divisorFor(policy.rateHz) : 0;
+        if (divisor != divisors[index]) {
+            if (divisors[index] != 0) {
+                LogSchedule.releasePhase(divisors[index], phases[index]);
+            }
+            divisors[index] = divisor;
+            phases[index] = divisor != 0 ? LogSchedule.assignPhase(divisor) : 0;
+        }
+    }
+
+    /**
+     * @param index The index of the entry.
+     * @return Whether the entry considers values this loop.
+     */
+    boolean isDue(int index) {
+        return divisors[index] == 0 || LogSchedule.isDue(divisors[index], phases[index]);
+    }
+
+    /** Whether an entry is written regardless of its value, and records the write if so. */
+    private boolean mustWrite(int index, long nowMicros) {
+        long lastTime = lastTimes[index];
+        if (!onChange[index] || lastTime == Long.MIN_VALUE || nowMicros - lastTime >= maxSilenceMicros[index]) {
+            lastTimes[index] = nowMicros;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Decides whether to write a double, and remembers it if so.
+     *
+     * @param index The index of the entry.
+     * @param value The value.
+     * @param nowMicros The current time.
+     * @return Whether to write the value.
+     */
+    boolean shouldWrite(int index, double value, long nowMicros) {
+        if (!mustWrite(index, nowMicros)) {
+            double last = lastDoubles[index];
+            double change = Math.abs(value - last);
+
+            // NaN never equals itself, compare the bits so a steady NaN is not written every time
+            if (Double.doubleToLongBits(value) == Double.doubleToLongBits(last)) {
+                skipped++;
+                return false;
+            }
+            if (
+                !Double.isNaN(change) &&
+                change <= Math.max(absoluteDeadbands[index], relativeDeadbands[index] * Math.abs(last))
+            ) {
+                skipped++;
+                return false;
+            }
+            lastTimes[index] = nowMicros;
+        }
+        lastDoubles[index] = value;
+        return true;
+    }
+
+    /**
+     * Decides whether to write an int, and remembers it if so.
+     *
+     * @param index The index of the entry.
+     * @param value The value.
+     * @param nowMicros The current time.
+     * @return Whether to write the value.
+     */
+    boolean shouldWrite(int index, long value, long nowMicros) {
+        if (!mustWrite(index, nowMicros)) {
+            if (Math.abs(value - lastLongs[index]) <= absoluteDeadbands[index]) {
+                skipped++;
+                return false;
+            }
+            lastTimes[index] = nowMicros;
+        }
+        lastLongs[index] = value;
+        return true;
+    }
+
+    /**
+     * Decides whether to write a boolean, and remembers it if so. Deadbands do not apply.
+     *
+     * @param index The index of the entry.
+     * @param value The value.
+     * @param nowMicros The current time.
+     * @return Whether to write the value.
+     */
+    boolean shouldWrite(int index, boolean value, long nowMicros) {
+        long bits = value ? 1 : 0;
+        if (!mustWrite(index, nowMicros)) {
+            if (bits == lastLongs[index]) {
+                skipped++;
+                return false;
+            }
+            lastTimes[index] = nowMicros;
+        }
+        lastLongs[index] = bits;
+        return true;
+    }
+
+    /**
+     * Decides whether to write a double array, and remembers a copy if so.
+     *
+     * @param index The index of the entry.
+     * @param value The value.
+     * @param nowMicros The current time.
+     * @return Whether to write the value.
+     */
+    boolean shouldWrite(int index, double[] value, long nowMicros) {
+        if (!mustWrite(index, nowMicros)) {
+            if (Arrays.equals(value, lastArrays[index])) {
+                skipped++;
+                return false;
+            }
+            lastTimes[index] = nowMicros;
+        }
+
+        // Only entries that compare need the copy
+        if (onChange[index]) {
+            double[] last = lastArrays[index];
+            if (last == null || last.length != value.length) {
+                lastArrays[index] = value.clone();
+            } else {
+                System.arraycopy(value, 0, last, 0, value.length);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The number of values that were not written.
+     */
+    long getSkippedCount() {
+        return skipped;
+    }
+}
@@ -1,5 +1,6 @@
 package frc.lib.util.loggingUtil;
 
+import edu.wpi.first.util.WPIUtilJNI;
 import edu.wpi.first.util.datalog.BooleanLogEntry;
 import edu.wpi.first.util.datalog.DataLog;
 import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
@@ -7,10 +8,12 @@ import edu.wpi.first.util.datalog.DoubleLogEntry;
 import edu.wpi.first.util.datalog.IntegerLogEntry;
 import edu.wpi.first.wpilibj.DataLogManager;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.function.BooleanSupplier;
 import java.util.function.DoubleSupplier;
 import java.util.function.IntSupplier;
+import org.littletonrobotics.junction.Logger;
 
 /**
  * Utilty class for logging data to the DataLogManager. View logs using MechanicalAdvantage's
@@ -18,35 +21,407 @@ import java.util.function.IntSupplier;
  */
 public class LogManager {
 
-    private static DataLog log = DataLogManager.getLog();
+    /** The log written to. Null until the first entry is created, see {@link #setLog}. */
+    private static DataLog log = null;
 
-    // These are array lists of log entry classes from WPI. appending to a log entry automatically
-    // adds to the log file.
-    private static ArrayList<DoubleLogEntry> doubleLogs = new ArrayList<>();
-    private static ArrayList<DoubleArrayLogEntry> doubleArrayLogs = new ArrayList<>();
-    private static ArrayList<BooleanLogEntry> booleanLogs = new ArrayList<>();
-    private static ArrayList<IntegerLogEntry> intLogs = new ArrayList<>();
+    // These are the handles of the entries logged from suppliers. Appending through a handle applies
+    // the entry's LogPolicy, like any other append.
+    private static ArrayList<DoubleHandle> doubleLogs = new ArrayList<>();
+    private static ArrayList<DoubleArrayHandle> doubleArrayLogs = new ArrayList<>();
+    private static ArrayList<BooleanHandle> booleanLogs = new ArrayList<>();
+    private static ArrayList<IntHandle> intLogs = new ArrayList<>();
 
     // These are the suppliers, or functions that return values. This is how the values are accessed.
     private static ArrayList<DoubleSupplier> doubleValues = new ArrayList<>();
     private static ArrayList<DoubleSupplier[]> doubleArrayValues = new ArrayList<>();
+    private static ArrayList<double[]> doubleArrayScratch = new ArrayList<>();
     private static ArrayList<BooleanSupplier> booleanValues = new ArrayList<>();
     private static ArrayList<IntSupplier> intValues = new ArrayList<>();
 
     // These are the log entries that are not updated periodically, they just receive individual
-    // values.
-    private static HashMap<String, DoubleLogEntry> individualDoubleLogs = new HashMap<>();
-    private static HashMap<String, DoubleArrayLogEntry> individualDoubleArrayLogs = new HashMap<>();
-    private static HashMap<String, BooleanLogEntry> individualBooleanLogs = new HashMap<>();
-    private static HashMap<String, IntegerLogEntry> individualIntegerLogs = new HashMap<>();
+    // values. Each entry is in an array so a handle can append to it by index.
+    private static DoubleLogEntry[] doubleEntries = new DoubleLogEntry[16];
+    private static DoubleArrayLogEntry[] doubleArrayEntries = new DoubleArrayLogEntry[16];
+    private static BooleanLogEntry[] booleanEntries = new BooleanLogEntry[16];
+    private static IntegerLogEntry[] integerEntries = new IntegerLogEntry[16];
+
+    // The policy state of each entry, indexed like the entries.
+    private static LogFilter doubleFilter = new LogFilter();
+    private static LogFilter doubleArrayFilter = new LogFilter();
+    private static LogFilter booleanFilter = new LogFilter();
+    private static LogFilter integerFilter = new LogFilter();
+
+    /** Buffers the appends for a writer thread, or null to append on the calling thread. */
+    private static AsyncLogWriter asyncWriter = null;
+
+    // The handle of each entry by name, only used when registering and by the slow path.
+    private static HashMap<String, DoubleHandle> doubleHandles = new HashMap<>();
+    private static HashMap<String, DoubleArrayHandle> doubleArrayHandles = new HashMap<>();
+    private static HashMap<String, BooleanHandle> booleanHandles = new HashMap<>();
+    private static HashMap<String, IntHandle> intHandles = new HashMap<>();
+
+    /** A double entry. Appending is an array index, the name is not looked up. */
+    public static final class DoubleHandle {
+
+        private final int index;
+
+        private DoubleHandle(int index) {
+            this.index = index;
+        }
+
+        /**
+         * @return Whether the entry's {@link LogPolicy} considers values this loop. Check before
+         *     computing a value that is expensive.
+         */
+        public boolean isDue() {
+            return doubleFilter.isDue(index);
+        }
+
+        /**
+         * Logs a value, unless the entry's {@link LogPolicy} skips it.
+         *
+         * @param value The value.
+         */
+        public void append(double value) {
+            if (!doubleFilter.isDue(index)) {
+                return;
+            }
+
+            long now = WPIUtilJNI.now();
+            if (!doubleFilter.shouldWrite(index, value, now)) {
+                return;
+            }
+
+            if (asyncWriter != null) {
+                asyncWriter.addDouble(doubleEntries[index], value, now);
+            } else {
+                doubleEntries[index].append(value, now);
+            }
+        }
+    }
+
+    /** A double array entry. Appending is an array index, the name is not looked up. */
+    public static final class DoubleArrayHandle {
+
+        private final int index;
+
+        private DoubleArrayHandle(int index) {
+            this.index = index;
+        }
+
+        /**
+         * @return Whether the entry's {@link LogPolicy} considers values this loop. Check before
+         *     computing a value that is expensive.
+         */
+        public boolean isDue() {
+            return doubleArrayFilter.isDue(index);
+        }
+
+        /**
+         * Logs a value, unless the entry's {@link LogPolicy} skips it.
+         *
+         * @param value The value.
+         */
+        public void append(double[] value) {
+            if (!doubleArrayFilter.isDue(index)) {
+                return;
+            }
+
+            long now = WPIUtilJNI.now();
+            if (!doubleArrayFilter.shouldWrite(index, value, now)) {
+                return;
+            }
+
+            if (asyncWriter != null) {
+                asyncWriter.addDoubleArray(doubleArrayEntries[index], value, now);
+            } else {
+                doubleArrayEntries[index].append(value, now);
+            }
+        }
+    }
+
+    /** A boolean entry. Appending is an array index, the name is not looked up. */
+    public static final class BooleanHandle {
+
+        private final int index;
+
+        private BooleanHandle(int index) {
+            this.index = index;
+        }
+
+        /**
+         * @return Whether the entry's {@link LogPolicy} considers values this loop. Check before
+         *     computing a value that is expensive.
+         */
+        public boolean isDue() {
+            return booleanFilter.isDue(index);
+        }
+
+        /**
+         * Logs a value, unless the entry's {@link LogPolicy} skips it.
+         *
+         * @param value The value.
+         */
+        public void append(boolean value) {
+            if (!booleanFilter.isDue(index)) {
+                return;
+            }
+
+            long now = WPIUtilJNI.now();
+            if (!booleanFilter.shouldWrite(index, value, now)) {
+                return;
+            }
+
+            if (asyncWriter != null) {
+                asyncWriter.addBoolean(booleanEntries[index], value, now);
+            } else {
+                booleanEntries[index].append(value, now);
+            }
+        }
+    }
+
+    /** An int entry. Appending is an array index, the name is not looked up. */
+    public static final class IntHandle {
+
+        private final int index;
+
+        private IntHandle(int index) {
+            this.index = index;
+        }
+
+        /**
+         * @return Whether the entry's {@link LogPolicy} considers values this loop. Check before
+         *     computing a value that is expensive.
+         */
+        public boolean isDue() {
+            return integerFilter.isDue(index);
+        }
+
+        /**
+         * Logs a value, unless the entry's {@link LogPolicy} skips it.
+         *
+         * @param value The value.
+         */
+        public void append(int value) {
+            if (!integerFilter.isDue(index)) {
+                return;
+            }
+
+            long now = WPIUtilJNI.now();
+            if (!integerFilter.shouldWrite(index, value, now)) {
+                return;
+            }
+
+            if (asyncWriter != null) {
+                asyncWriter.addInteger(integerEntries[index], value, now);
+            } else {
+                integerEntries[index].append(value, now);
+            }
+        }
+    }
+
+    /**
+     * Sets the log to write to, ex. a log in a temporary directory for benchmarks. Must be called
+     * before any entry is created. Defaults to the {@link DataLogManager} log.
+     *
+     * @param dataLog The log.
+     */
+    public static void setLog(DataLog dataLog) {
+        log = dataLog;
+    }
+
+    /**
+     * Moves the appends to a writer thread. From then on every append, by handle, by name or from
+     * {@link #log()}, only copies the value into the writer's buffers. Appends must then all come
+     * from one thread, the robot thread.
+     *
+     * @param capacity The minimum number of values that can be buffered.
+     * @param arrayCapacity The minimum number of array elements that can be buffered.
+     * @param dropPolicy What to do with a value when the buffers are full.
+     */
+    public static void startAsyncWriter(int capacity, int arrayCapacity, AsyncLogWriter.DropPolicy dropPolicy) {
+        if (asyncWriter == null) {
+            asyncWriter = new AsyncLogWriter(capacity, arrayCapacity, dropPolicy, capacity / 4, 5);
+        }
+    }
+
+    /**
+     * @return The log to write to, the {@link DataLogManager} log unless {@link #setLog} was called.
+     */
+    private static DataLog getLog() {
+        if (log == null) {
+            log = DataLogManager.getLog();
+        }
+        return log;
+    }
+
+    /**
+     * Gets the handle of a double entry, creating the entry the first time. Get handles once, ex. in
+     * a constructor, and append to them every loop.
+     *
+     * @param name The name of the log. Use / to create subdirectories, and keep names unique.
+     * @param policy When values are written. Replaces the policy of an existing entry.
+     * @return The handle. The same handle for the same name.
+     */
+    public static DoubleHandle doubleHandle(String name, LogPolicy policy) {
+        DoubleHandle handle = doubleHandles.get(name);
+        if (handle == null) {
+            int index = doubleHandles.size();
+            if (index == doubleEntries.length) {
+                doubleEntries = Arrays.copyOf(doubleEntries, index * 2);
+            }
+            doubleEntries[index] = new DoubleLogEntry(getLog(), name);
+            handle = new DoubleHandle(index);
+            doubleHandles.put(name, handle);
+        }
+        doubleFilter.setPolicy(handle.index, policy);
+        return handle;
+    }
+
+    /**
+     * Gets the handle of a double entry. New entries write every value.
+     *
+     * @param name The name of the log. Use / to create subdirectories, and keep names unique.
+     * @return The handle. The same handle for the same name.
+     */
+    public static DoubleHandle doubleHandle(String name) {
+        DoubleHandle handle = doubleHandles.get(name);
+        return handle != null ? handle : doubleHandle(name, LogPolicy.ALWAYS);
+    }
+
+    /**
+     * Gets the handle of a double array entry, creating the entry the first time. Get handles once,
+     * ex. in a constructor, and append to them every loop.
+     *
+     * @param name The name of the log. Use / to create subdirectories, and keep names unique.
+     * @param policy When values are written. Replaces the policy of an existing entry.
+     * @return The handle. The same handle for the same name.
+     */
+    public static DoubleArrayHandle doubleArrayHandle(String name, LogPolicy policy) {
+        DoubleArrayHandle handle = doubleArrayHandles.get(name);
+        if (handle == null) {
+            int index = doubleArrayHandles.size();
+            if (index == doubleArrayEntries.length) {
+                doubleArrayEntries = Arrays.copyOf(doubleArrayEntries, index * 2);
+            }
+            doubleArrayEntries[index] = new DoubleArrayLogEntry(getLog(), name);
+            handle = new DoubleArrayHandle(index);
+            doubleArrayHandles.put(name, handle);
+        }
+        doubleArrayFilter.setPolicy(handle.index, policy);
+        return handle;
+    }
+
+    /**
+     * Gets the handle of a double array entry. New entries write every value.
+     *
+     * @param name The name of the log. Use / to create subdirectories, and keep names unique.
+     * @return The handle. The same handle for the same name.
+     */
+    public static DoubleArrayHandle doubleArrayHandle(String name) {
+        DoubleArrayHandle handle = doubleArrayHandles.get(name);
+        return handle != null ? handle : doubleArrayHandle(name, LogPolicy.ALWAYS);
+    }
+
+    /**
+     * Gets the handle of a boolean entry, creating the entry the first time. Get handles once, ex.
+     * in a constructor, and append to them every loop.
+     *
+     * @param name The name of the log. Use / to create subdirectories, and keep names unique.
+     * @param policy When values are written. Replaces the policy of an existing entry.
+     * @return The handle. The same handle for the same name.
+     */
+    public static BooleanHandle booleanHandle(String name, LogPolicy policy) {
+        BooleanHandle handle = booleanHandles.get(name);
+        if (handle == null) {
+            int index = booleanHandles.size();
+            if (index == booleanEntries.length) {
+                booleanEntries = Arrays.copyOf(booleanEntries, index * 2);
+            }
+            booleanEntries[index] = new BooleanLogEntry(getLog(), name);
+            handle = new BooleanHandle(index);
+            booleanHandles.put(name, handle);
+        }
+        booleanFilter.setPolicy(handle.index, policy);
+        return handle;
+    }
+
+    /**
+     * Gets the handle of a boolean entry. New entries write every value.
+     *
+     * @param name The name of the log. Use / to create subdirectories, and keep names unique.
+     * @return The handle. The same handle for the same name.
+     */
+    public static BooleanHandle booleanHandle(String name) {
+        BooleanHandle handle = booleanHandles.get(name);
+        return handle != null ? handle : booleanHandle(name, LogPolicy.ALWAYS);
+    }
+
+    /**
+     * Gets the handle of an int entry, creating the entry the first time. Get handles once, ex. in a
+     * constructor, and append to them every loop.
+     *
+     * @param name The name of the log. Use / to create subdirectories, and keep names unique.
+     * @param policy When values are written. Replaces the policy of an existing entry.
+     * @return The handle. The same handle for the same name.
+     */
+    public static IntHandle intHandle(String name, LogPolicy policy) {
+        IntHandle handle = intHandles.get(name);
+        if (handle == null) {
+            int index = intHandles.size();
+            if (index == integerEntries.length) {
+                integerEntries = Arrays.copyOf(integerEntries, index * 2);
+            }
+            integerEntries[index] = new IntegerLogEntry(getLog(), name);
+            handle = new IntHandle(index);
+            intHandles.put(name, handle);
+        }
+        integerFilter.setPolicy(handle.index, policy);
+        return handle;
+    }
 
     /**
-     * @deprecated Use {@link #addDouble(String, double)} with a single value instead.
+     * Gets the handle of an int entry. New entries write every value.
+     *
+     * @param name The name of the log. Use / to create subdirectories, and keep names unique.
+     * @return The handle. The same handle for the same name.
+     */
+    public static IntHandle intHandle(String name) {
+        IntHandle handle = intHandles.get(name);
+        return handle != null ? handle : intHandle(name, LogPolicy.ALWAYS);
+    }
+
+    /**
+     * @deprecated Reads the supplier every loop. Use {@link #addDouble(String, DoubleSupplier, LogPolicy)} or
+     *     {@link #addDouble(String, DoubleSupplier, double)} to declare when the entry is written.
      */
     @Deprecated
     public static void addDouble(String name, DoubleSupplier logged) {
-        DoubleLogEntry myDoubleLog = new DoubleLogEntry(log, name);
-        doubleLogs.add(myDoubleLog);
+        addDouble(name, logged, LogPolicy.ALWAYS);
+    }
+
+    /**
+     * Logs a double supplier from {@link #log()} at a rate. Suppliers with low rates are only read on the
+     * loops they log, and are spread across loops by the {@link LogSchedule}.
+     *
+     * @param name The name of the log. Use / to create subdirectories, and keep names unique.
+     * @param logged The value to log.
+     * @param rateHz How often to log, ex. 1 for temperatures.
+     */
+    public static void addDouble(String name, DoubleSupplier logged, double rateHz) {
+        addDouble(name, logged, LogPolicy.ALWAYS.withRate(rateHz));
+    }
+
+    /**
+     * Logs a double supplier from {@link #log()}. The supplier is only read on the loops the policy
+     * considers, and its values go through the policy like any other append to the entry.
+     *
+     * @param name The name of the log. Use / to create subdirectories, and keep names unique.
+     * @param logged The value to log.
+     * @param policy When values are written, ex. {@code LogPolicy.ON_CHANGE.withRate(1)}.
+     */
+    public static void addDouble(String name, DoubleSupplier logged, LogPolicy policy) {
+        doubleLogs.add(doubleHandle(name, policy));
         doubleValues.add(logged);
     }
 
@@ -56,26 +431,49 @@ public class LogManager {
      * needed. If you have a function that consistently returns values, it may be easier to use the
      * double supplier log.
      *
+     * <p>Looks the entry up by name on every call. Use {@link #doubleHandle} for values logged every
+     * loop.
+     *
      * @param name The name of the log. Use / to create subdirectories, and keep names unique.
      * @param value the value to be logged.
      */
     public static void addDouble(String name, double value) {
-        if (individualDoubleLogs.containsKey(name)) {
-            individualDoubleLogs.get(name).append(value);
-        } else {
-            individualDoubleLogs.put(name, new DoubleLogEntry(log, name));
-            individualDoubleLogs.get(name).append(value);
-        }
+        doubleHandle(name).append(value);
     }
 
     /**
-     * @deprecated Use {@link #addDoubleArray(String, double[])} with a single value instead.
+     * @deprecated Reads the supplier every loop. Use {@link #addDoubleArray(String, DoubleSupplier[], LogPolicy)} or
+     *     {@link #addDoubleArray(String, DoubleSupplier[], double)} to declare when the entry is written.
      */
     @Deprecated
     public static void addDoubleArray(String name, DoubleSupplier[] logged) {
-        DoubleArrayLogEntry myDoubleLog = new DoubleArrayLogEntry(log, name);
-        doubleArrayLogs.add(myDoubleLog);
+        addDoubleArray(name, logged, LogPolicy.ALWAYS);
+    }
+
+    /**
+     * Logs double array suppliers from {@link #log()} at a rate. Suppliers with low rates are only read on the
+     * loops they log, and are spread across loops by the {@link LogSchedule}.
+     *
+     * @param name The name of the log. Use / to create subdirectories, and keep names unique.
+     * @param logged The value to log.
+     * @param rateHz How often to log, ex. 1 for temperatures.
+     */
+    public static void addDoubleArray(String name, DoubleSupplier[] logged, double rateHz) {
+        addDoubleArray(name, logged, LogPolicy.ALWAYS.withRate(rateHz));
+    }
+
+    /**
+     * Logs double array suppliers from {@link #log()}. The suppliers are only read on the loops the
+     * policy considers, and its values go through the policy like any other append to the entry.
+     *
+     * @param name The name of the log. Use / to create subdirectories, and keep names unique.
+     * @param logged The value to log.
+     * @param policy When values are written, ex. {@code LogPolicy.ON_CHANGE.withRate(1)}.
+     */
+    public static void addDoubleArray(String name, DoubleSupplier[] logged, LogPolicy policy) {
+        doubleArrayLogs.add(doubleArrayHandle(name, policy));
         doubleArrayValues.add(logged);
+        doubleArrayScratch.add(new double[logged.length]);
     }
 
     /**
@@ -84,25 +482,47 @@ public class LogManager {
      * or when needed. If you have a function that consistently returns values, it may be easier to
      * use the double array supplier log.
      *
+     * <p>Looks the entry up by name on every call. Use {@link #doubleArrayHandle} for values logged
+     * every loop.
+     *
      * @param name The name of the log. Use / to create subdirectories, and keep names unique.
      * @param value the value to be logged.
      */
     public static void addDoubleArray(String name, double[] value) {
-        if (individualDoubleArrayLogs.containsKey(name)) {
-            individualDoubleArrayLogs.get(name).append(value);
-        } else {
-            individualDoubleArrayLogs.put(name, new DoubleArrayLogEntry(log, name));
-            individualDoubleArrayLogs.get(name).append(value);
-        }
+        doubleArrayHandle(name).append(value);
     }
 
     /**
-     * @deprecated Use {@link #addInt(String, int)} with a single value instead.
+     * @deprecated Reads the supplier every loop. Use {@link #addInt(String, IntSupplier, LogPolicy)} or
+     *     {@link #addInt(String, IntSupplier, double)} to declare when the entry is written.
      */
     @Deprecated
     public static void addInt(String name, IntSupplier logged) {
-        IntegerLogEntry IntegerLog = new IntegerLogEntry(log, name);
-        intLogs.add(IntegerLog);
+        addInt(name, logged, LogPolicy.ALWAYS);
+    }
+
+    /**
+     * Logs an int supplier from {@link #log()} at a rate. Suppliers with low rates are only read on the
+     * loops they log, and are spread across loops by the {@link LogSchedule}.
+     *
+     * @param name The name of the log. Use / to create subdirectories, and keep names unique.
+     * @param logged The value to log.
+     * @param rateHz How often to log, ex. 1 for temperatures.
+     */
+    public static void addInt(String name, IntSupplier logged, double rateHz) {
+        addInt(name, logged, LogPolicy.ALWAYS.withRate(rateHz));
+    }
+
+    /**
+     * Logs an int supplier from {@link #log()}. The supplier is only read on the loops the policy
+     * considers, and its values go through the policy like any other append to the entry.
+     *
+     * @param name The name of the log. Use / to create subdirectories, and keep names unique.
+     * @param logged The value to log.
+     * @param policy When values are written, ex. {@code LogPolicy.ON_CHANGE.withRate(1)}.
+     */
+    public static void addInt(String name, IntSupplier logged, LogPolicy policy) {
+        intLogs.add(intHandle(name, policy));
         intValues.add(logged);
     }
 
@@ -111,25 +531,47 @@ public class LogManager {
      * This will only log the value once, so it should be called periodically or when needed. If you
      * have a function that consistently returns values, it may be easier to use the int supplier log.
      *
+     * <p>Looks the entry up by name on every call. Use {@link #intHandle} for values logged every
+     * loop.
+     *
      * @param name The name of the log. Use / to create subdirectories, and keep names unique.
      * @param value the value to be logged.
      */
     public static void addInt(String name, int value) {
-        if (individualIntegerLogs.containsKey(name)) {
-            individualIntegerLogs.get(name).append(value);
-        } else {
-            individualIntegerLogs.put(name, new IntegerLogEntry(log, name));
-            individualIntegerLogs.get(name).append(value);
-        }
+        intHandle(name).append(value);
     }
 
     /**
-     * @deprecated Use {@link #addBoolean(String, boolean)} with a single value instead.
+     * @deprecated Reads the supplier every loop. Use {@link #addBoolean(String, BooleanSupplier, LogPolicy)} or
+     *     {@link #addBoolean(String, BooleanSupplier, double)} to declare when the entry is written.
      */
     @Deprecated
     public static void addBoolean(String name, BooleanSupplier logged) {
-        BooleanLogEntry BooleanLog = new BooleanLogEntry(log, name);
-        booleanLogs.add(BooleanLog);
+        addBoolean(name, logged, LogPolicy.ALWAYS);
+    }
+
+    /**
+     * Logs a boolean supplier from {@link #log()} at a rate. Suppliers with low rates are only read on the
+     * loops they log, and are spread across loops by the {@link LogSchedule}.
+     *
+     * @param name The name of the log. Use / to create subdirectories, and keep names unique.
+     * @param logged The value to log.
+     * @param rateHz How often to log, ex. 1 for temperatures.
+     */
+    public static void addBoolean(String name, BooleanSupplier logged, double rateHz) {
+        addBoolean(name, logged, LogPolicy.ALWAYS.withRate(rateHz));
+    }
+
+    /**
+     * Logs a boolean supplier from {@link #log()}. The supplier is only read on the loops the policy
+     * considers, and its values go through the policy like any other append to the entry.
+     *
+     * @param name The name of the log. Use / to create subdirectories, and keep names unique.
+     * @param logged The value to log.
+     * @param policy When values are written, ex. {@code LogPolicy.ON_CHANGE.withRate(1)}.
+     */
+    public static void addBoolean(String name, BooleanSupplier logged, LogPolicy policy) {
+        booleanLogs.add(booleanHandle(name, policy));
         booleanValues.add(logged);
     }
 
@@ -139,35 +581,71 @@ public class LogManager {
      * needed. If you have a function that consistently returns values, it may be easier to use the
      * boolean supplier log.
      *
+     * <p>Looks the entry up by name on every call. Use {@link #booleanHandle} for values logged
+     * every loop.
+     *
      * @param name The name of the log. Use / to create subdirectories, and keep names unique.
      * @param value the value to be logged.
      */
     public static void addBoolean(String name, boolean value) {
-        if (individualBooleanLogs.containsKey(name)) {
-            individualBooleanLogs.get(name).append(value);
-        } else {
-            individualBooleanLogs.put(name, new BooleanLogEntry(log, name));
-            individualBooleanLogs.get(name).append(value);
-        }
+        booleanHandle(name).append(value);
     }
 
-    /** Logs all the values that have been collected. Should be called periodically. */
+    /**
+     * Logs all the values that have been collected, the number of values skipped by the {@link
+     * LogPolicy} of each entry, and the writer metrics if the writer is running. Should be called
+     * periodically.
+     */
     public static void log() {
+        Logger.recordOutput(
+            "Logging/Skipped",
+            doubleFilter.getSkippedCount() +
+            doubleArrayFilter.getSkippedCount() +
+            booleanFilter.getSkippedCount() +
+            integerFilter.getSkippedCount()
+        );
+
+        // The handles buffer for the writer themselves when it is running
         for (int i = 0; i < doubleLogs.size(); i++) {
-            doubleLogs.get(i).append(doubleValues.get(i).getAsDouble());
+            DoubleHandle handle = doubleLogs.get(i);
+            if (handle.isDue()) {
+                handle.append(doubleValues.get(i).getAsDouble());
+            }
         }
         for (int i = 0; i < doubleArrayLogs.size(); i++) {
-            double[] values = new double[doubleArrayValues.get(i).length];
-            for (int j = 0; j < doubleArrayValues.get(i).length; j++) {
-                values[j] = doubleArrayValues.get(i)[j].getAsDouble();
+            DoubleArrayHandle handle = doubleArrayLogs.get(i);
+            if (handle.isDue()) {
+                handle.append(readDoubleArray(i));
             }
-            doubleArrayLogs.get(i).append(values);
         }
         for (int i = 0; i < intLogs.size(); i++) {
-            intLogs.get(i).append(intValues.get(i).getAsInt());
+            IntHandle handle = intLogs.get(i);
+            if (handle.isDue()) {
+                handle.append(intValues.get(i).getAsInt());
+            }
         }
         for (int i = 0; i < booleanLogs.size(); i++) {
-            booleanLogs.get(i).append(booleanValues.get(i).getAsBoolean());
+            BooleanHandle handle = booleanLogs.get(i);
+            if (handle.isDue()) {
+                handle.append(booleanValues.get(i).getAsBoolean());
+            }
+        }
+
+        if (asyncWriter != null) {
+            asyncWriter.record();
+        }
+    }
+
+    /**
+     * Reads a double array supplier into its reused array. The entries copy the values, so the
+     * array does not need to be allocated every loop.
+     */
+    private static double[] readDoubleArray(int index) {
+        DoubleSupplier[] suppliers = doubleArrayValues.get(index);
+        double[] values = doubleArrayScratch.get(index);
+        for (int j = 0; j < suppliers.length; j++) {
+            values[j] = suppliers[j].getAsDouble();
         }
+        return values;
     }
 }
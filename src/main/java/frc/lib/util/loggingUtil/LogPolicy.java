@@ -0,0 +1,92 @@
+package frc.lib.util.loggingUtil;
+
+/**
+ * When a {@link LogManager} entry writes a value. Values that are skipped are not written to the
+ * log at all, so entries that rarely change cost almost nothing on disk.
+ *
+ * <p>Values are compared against the last value written, not the last value appended, so a value
+ * that drifts slowly is still written once it has drifted past the deadband.
+ */
+public final class LogPolicy {
+
+    /** Write every value. */
+    public static final LogPolicy ALWAYS = new LogPolicy(false, 0, 0, Long.MAX_VALUE, 0);
+
+    /** Write a value only when it differs from the last value written. */
+    public static final LogPolicy ON_CHANGE = new LogPolicy(true, 0, 0, Long.MAX_VALUE, 0);
+
+    /** Whether values are compared against the last value written. False writes every value. */
+    final boolean onChange;
+
+    /** How far a double or int has to move from the last value written to be written. */
+    final double absoluteDeadband;
+
+    /** How far a double has to move, as a fraction of the last value written, to be written. */
+    final double relativeDeadband;
+
+    /** The longest time without a write, in microseconds. A value is written after this even if unchanged. */
+    final long maxSilenceMicros;
+
+    /** How often values are considered, in Hz, or 0 for every value appended. */
+    final double rateHz;
+
+    private LogPolicy(
+        boolean onChange,
+        double absoluteDeadband,
+        double relativeDeadband,
+        long maxSilenceMicros,
+        double rateHz
+    ) {
+        this.onChange = onChange;
+        this.absoluteDeadband = absoluteDeadband;
+        this.relativeDeadband = relativeDeadband;
+        this.maxSilenceMicros = maxSilenceMicros;
+        this.rateHz = rateHz;
+    }
+
+    /**
+     * Writes a value only when it moves more than a fixed amount. Booleans and arrays are written on
+     * any change.
+     *
+     * @param deadband How far a value has to move from the last value written, in its units.
+     * @return The policy.
+     */
+    public static LogPolicy absoluteDeadband(double deadband) {
+        return new LogPolicy(true, deadband, 0, Long.MAX_VALUE, 0);
+    }
+
+    /**
+     * Writes a double only when it moves more than a fraction of its last value written. Other
+     * types are written on any change.
+     *
+     * @param fraction How far a value has to move, ex. 0.01 for 1%.
+     * @return The policy.
+     */
+    public static LogPolicy relativeDeadband(double fraction) {
+        return new LogPolicy(true, 0, fraction, Long.MAX_VALUE, 0);
+    }
+
+    /**
+     * Writes a value at least this often, even if it has not changed, so a plot never goes silent
+     * for long. Has no effect on {@link #ALWAYS}.
+     *
+     * @param seconds The longest time without a write.
+     * @return A copy of this policy with the interval.
+     */
+    public LogPolicy withMaxSilence(double seconds) {
+        return new LogPolicy(onChange, absoluteDeadband, relativeDeadband, (long) (seconds * 1e6), rateHz);
+    }
+
+    /**
+     * Only considers values on some loops, spread by the {@link LogSchedule}. Values appended on
+     * other loops are skipped. Without a rate, every value appended is considered, so entries
+     * appended on events log every event.
+     *
+     * @param hz How often to consider values, ex. 1 for temperatures. Rates at or above the loop
+     *     rate consider every loop.
+     * @return A copy of this policy with the rate.
+     */
+    public LogPolicy withRate(double hz) {
+        return new LogPolicy(onChange, absoluteDeadband, relativeDeadband, maxSilenceMicros, hz);
+    }
+}
@@ -0,0 +1,142 @@
+package frc.lib.util.loggingUtil;
+
+/**
+ * Decides which loops log values that do not need the full loop rate, ex. temperatures at 1 Hz.
+ * Each rate becomes a divisor of the loop count and a phase, and each new slot takes the phase
+ * whose loops log the least so far. Ten 1 Hz entries then log on ten different loops instead of
+ * all on the same one, and the logging cost of each loop stays flat.
+ *
+ * <p>{@link #advance} must be called once at the start of every loop. Only use from the robot
+ * thread.
+ */
+public final class LogSchedule {
+
+    /** The rate of the robot loop. */
+    public static final double LOOP_FREQUENCY_HZ = 50;
+
+    /**
+     * The loops the load is tracked over. Divisible by every common divisor up to 50, so the load of
+     * 1, 2, 5, 10, 25 and 50 Hz slots is exact.
+     */
+    private static final int WINDOW = 600;
+
+    /** The number of slots that log on each loop of the window. */
+    private static final int[] load = new int[WINDOW];
+
+    /** The number of the current loop. */
+    private static long cycle = 0;
+
+    /** A rate and a phase. Logs on the loops where {@link #isDue()} is true. */
+    public static final class Slot {
+
+        private final int divisor;
+        private final int phase;
+
+        private Slot(int divisor, int phase) {
+            this.divisor = divisor;
+            this.phase = phase;
+        }
+
+        /**
+         * @return Whether to log this loop.
+         */
+        public boolean isDue() {
+            return LogSchedule.isDue(divisor, phase);
+        }
+    }
+
+    private LogSchedule() {}
+
+    /**
+     * Creates a slot and spreads it across the loops. Create slots once, ex. in a constructor.
+     *
+     * @param rateHz How often to log. Rates at or above the loop rate log every loop.
+     * @return The slot.
+     */
+    public static Slot slot(double rateHz) {
+        int divisor = divisorFor(rateHz);
+        return new Slot(divisor, assignPhase(divisor));
+    }
+
+    /** Moves to the next loop. Call once at the start of every loop. */
+    public static void advance() {
+        cycle++;
+    }
+
+    /**
+     * @return The number of the current loop.
+     */
+    public static long getCycle() {
+        return cycle;
+    }
+
+    /**
+     * @param rateHz How often to log.
+     * @return The number of loops between logs, at least 1.
+     */
+    static int divisorFor(double rateHz) {
+        if (rateHz <= 0 || rateHz >= LOOP_FREQUENCY_HZ) {
+            return 1;
+        }
+        return (int) Math.round(LOOP_FREQUENCY_HZ / rateHz);
+    }
+
+    /**
+     * Picks the phase whose loops log the least, and counts the new slot on them.
+     *
+     * @param divisor The number of loops between logs.
+     * @return The phase, from 0 to the divisor.
+     */
+    static int assignPhase(int divisor) {
+        if (divisor == 1) {
+            return 0;
+        }
+
+        int bestPhase = 0;
+        long bestLoad = Long.MAX_VALUE;
+        for (int phase = 0; phase < divisor; phase++) {
+            long phaseLoad = 0;
+            for (int loop = phase; loop < WINDOW; loop += divisor) {
+                phaseLoad += load[loop];
+            }
+
+            // Divisors that do not divide the window cover fewer loops on later phases
+            long loops = (WINDOW - phase + divisor - 1) / divisor;
+            phaseLoad = loops == 0 ? 0 : phaseLoad * WINDOW / loops;
+            if (phaseLoad < bestLoad) {
+                bestLoad = phaseLoad;
+                bestPhase = phase;
+            }
+        }
+
+        for (int loop = bestPhase; loop < WINDOW; loop += divisor) {
+            load[loop]++;
+        }
+        return bestPhase;
+    }
+
+    /**
+     * Stops counting a slot on the loops of its phase, ex. when its rate changes.
+     *
+     * @param divisor The number of loops between logs.
+     * @param phase The phase returned by {@link #assignPhase}.
+     */
+    static void releasePhase(int divisor, int phase) {
+        if (divisor == 1) {
+            return;
+        }
+
+        for (int loop = phase; loop < WINDOW; loop += divisor) {
+            load[loop]--;
+        }
+    }
+
+    /**
+     * @param divisor The number of loops between logs.
+     * @param phase The phase.
+     * @return Whether a slot with the divisor and phase logs this loop.
+     */
+    static boolean isDue(int divisor, int phase) {
+        return divisor == 1 || cycle % divisor == phase;
+    }
+}
@@ -0,0 +1,151 @@
+package frc.lib.util.loggingUtil;
+
+import edu.wpi.first.wpilibj2.command.Command;
+import edu.wpi.first.wpilibj2.command.WrapperCommand;
+import java.util.ArrayList;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Times named sections of the robot loop, ex. a subsystem's periodic or a command's execute, into
+ * {@link LatencyHistogram}s. The p50, p99 and max of every section are recorded once per {@link
+ * #PUBLISH_PERIOD_SECONDS} by {@link #publish}, so loop overruns can be traced to a section from
+ * the match log.
+ *
+ * <p>Sections should be created once, ex. as a field, and then {@link Section#begin} and {@link
+ * Section#end} called around the timed code. Only use from the main thread.
+ */
+public class LoopProfiler {
+
+    /** The time between publishing the histograms, in seconds. */
+    public static final double PUBLISH_PERIOD_SECONDS = 1.0;
+
+    /** The loop budget, in microseconds. Samples longer than this are counted as overruns. */
+    public static final long LOOP_BUDGET_MICROS = 20_000;
+
+    /** A timed section of the loop. */
+    public static class Section {
+
+        private final String name;
+        private final LatencyHistogram histogram = new LatencyHistogram();
+
+        /* The log keys, built once so publishing does not concatenate strings. */
+        private final String p50Key;
+        private final String p99Key;
+        private final String maxKey;
+        private final String overrunsKey;
+
+        /** The time {@link #begin} was called, in microseconds, or -1 if not timing. */
+        private long beginMicros = -1;
+
+        /** The number of samples longer than {@link #LOOP_BUDGET_MICROS} since the last publish. */
+        private int overruns = 0;
+
+        private Section(String name) {
+            this.name = name;
+            p50Key = "LoopTimes/" + name + "/P50Ms";
+            p99Key = "LoopTimes/" + name + "/P99Ms";
+            maxKey = "LoopTimes/" + name + "/MaxMs";
+            overrunsKey = "LoopTimes/" + name + "/Overruns";
+        }
+
+        /** Starts timing the section. */
+        public void begin() {
+            beginMicros = Logger.getRealTimestamp();
+        }
+
+        /** Stops timing the section and records the time since {@link #begin}. */
+        public void end() {
+            if (beginMicros < 0) {
+                return;
+            }
+
+            long micros = Logger.getRealTimestamp() - beginMicros;
+            beginMicros = -1;
+
+            histogram.record(micros);
+            if (micros > LOOP_BUDGET_MICROS) {
+                overruns++;
+            }
+        }
+
+        /** Records the histogram and starts a new one. */
+        private void publish() {
+            Logger.recordOutput(p50Key, histogram.getPercentileMicros(0.5) / 1000.0);
+            Logger.recordOutput(p99Key, histogram.getPercentileMicros(0.99) / 1000.0);
+            Logger.recordOutput(maxKey, histogram.getMaxMicros() / 1000.0);
+            Logger.recordOutput(overrunsKey, overruns);
+
+            histogram.reset();
+            overruns = 0;
+        }
+    }
+
+    /** A command that times the execute of the command it wraps. */
+    private static class ProfiledCommand extends WrapperCommand {
+
+        private final Section section;
+
+        private ProfiledCommand(Section section, Command command) {
+            super(command);
+            this.section = section;
+        }
+
+        @Override
+        public void execute() {
+            section.begin();
+            m_command.execute();
+            section.end();
+        }
+    }
+
+    /** Every section, in the order they were created. */
+    private static final ArrayList<Section> sections = new ArrayList<>();
+
+    /** The time of the last publish, in microseconds. */
+    private static long lastPublishMicros = 0;
+
+    /**
+     * Gets a section, creating it if it does not exist.
+     *
+     * @param name The name of the section. Used as the log key, ex. "Subsystems/Swerve".
+     * @return The section.
+     */
+    public static Section section(String name) {
+        for (Section section : sections) {
+            if (section.name.equals(name)) {
+                return section;
+            }
+        }
+
+        Section section = new Section(name);
+        sections.add(section);
+        return section;
+    }
+
+    /**
+     * Wraps a command so its execute is timed in the section "Commands/{name}".
+     *
+     * @param name The name of the command, ex. "Intake/Intake".
+     * @param command The command to wrap. Can not be scheduled on its own afterwards.
+     * @return The wrapped command.
+     */
+    public static Command profile(String name, Command command) {
+        return new ProfiledCommand(section("Commands/" + name), command);
+    }
+
+    /**
+     * Records and resets every section's histogram if {@link #PUBLISH_PERIOD_SECONDS} have passed
+     * since the last publish. Should be called at the end of every loop.
+     */
+    public static void publish() {
+        long now = Logger.getRealTimestamp();
+        if (now - lastPublishMicros < PUBLISH_PERIOD_SECONDS * 1e6) {
+            return;
+        }
+        lastPublishMicros = now;
+
+        for (int i = 0; i < sections.size(); i++) {
+            sections.get(i).publish();
+        }
+    }
+}
@@ -5,6 +5,12 @@ import edu.wpi.first.math.kinematics.SwerveModuleState;
 
 public class CTREModuleState {
 
+    /** The index of the speed in the output of {@link #optimize(double, double, double, double[])}. */
+    public static final int SPEED = 0;
+
+    /** The index of the angle in the output of {@link #optimize(double, double, double, double[])}. */
+    public static final int ANGLE = 1;
+
     /**
      * Minimize the change in heading the desired swerve module state would require by potentially
      * reversing the direction the wheel spins. Customized from WPILib's version to include placing in
@@ -14,14 +20,41 @@ public class CTREModuleState {
      * @param currentAngle The current module angle.
      */
     public static SwerveModuleState optimize(SwerveModuleState desiredState, Rotation2d currentAngle) {
-        double targetAngle = placeInAppropriate0To360Scope(currentAngle.getDegrees(), desiredState.angle.getDegrees());
-        double targetSpeed = desiredState.speedMetersPerSecond;
-        double delta = targetAngle - currentAngle.getDegrees();
+        double[] optimized = new double[2];
+        optimize(
+            desiredState.speedMetersPerSecond,
+            desiredState.angle.getDegrees(),
+            currentAngle.getDegrees(),
+            optimized
+        );
+        return new SwerveModuleState(optimized[SPEED], Rotation2d.fromDegrees(optimized[ANGLE]));
+    }
+
+    /**
+     * Same as {@link #optimize(SwerveModuleState, Rotation2d)}, but works on primitives and writes the
+     * result into a caller-owned array so nothing is allocated.
+     *
+     * @param desiredSpeed The desired speed, in meters per second.
+     * @param desiredAngleDegrees The desired angle, in degrees.
+     * @param currentAngleDegrees The current module angle, in degrees.
+     * @param out An array of at least 2 elements. The optimized speed is written to {@link #SPEED}
+     *     and the optimized angle in degrees is written to {@link #ANGLE}.
+     */
+    public static void optimize(
+        double desiredSpeed,
+        double desiredAngleDegrees,
+        double currentAngleDegrees,
+        double[] out
+    ) {
+        double targetAngle = placeInAppropriate0To360Scope(currentAngleDegrees, desiredAngleDegrees);
+        double targetSpeed = desiredSpeed;
+        double delta = targetAngle - currentAngleDegrees;
         if (Math.abs(delta) > 90) {
             targetSpeed = -targetSpeed;
             targetAngle = delta > 90 ? (targetAngle -= 180) : (targetAngle += 180);
         }
-        return new SwerveModuleState(targetSpeed, Rotation2d.fromDegrees(targetAngle));
+        out[SPEED] = targetSpeed;
+        out[ANGLE] = targetAngle;
     }
 
     /**
@@ -0,0 +1,176 @@
+package frc.lib.util.visionUtil;
+
+import edu.wpi.first.apriltag.AprilTag;
+import edu.wpi.first.apriltag.AprilTagFieldLayout;
+import edu.wpi.first.math.geometry.Pose3d;
+
+/**
+ * The AprilTags of a field layout in arrays indexed by tag id, so vision code can go from a {@link
+ * frc.robot.LimelightHelpers.RawFiducial#id} to the tag's pose without searching the layout's list.
+ * The position and the direction each tag faces are precomputed as primitives.
+ *
+ * <p>Ids are limited to 0 to {@link #MAX_ID}, so a set of tags fits in a long bit mask.
+ */
+public class AprilTagIndex {
+
+    /** The largest tag id that can be indexed. */
+    public static final int MAX_ID = 63;
+
+    /** The tag poses, null for ids not on the field. */
+    private final Pose3d[] poses;
+
+    /* The tag positions, in meters. */
+    private final double[] xs;
+    private final double[] ys;
+    private final double[] zs;
+
+    /* The unit vector each tag faces, on the floor. Points out of the tag's face, into the field. */
+    private final double[] normalXs;
+    private final double[] normalYs;
+
+    /** The bit mask of every tag on the field. */
+    private final long allTags;
+
+    /* The size of the field, in meters. */
+    private final double fieldLength;
+    private final double fieldWidth;
+
+    /**
+     * Creates a new index.
+     *
+     * @param layout The field layout.
+     */
+    public AprilTagIndex(AprilTagFieldLayout layout) {
+        int maxId = 0;
+        for (AprilTag tag : layout.getTags()) {
+            if (tag.ID < 0 || tag.ID > MAX_ID) {
+                throw new IllegalArgumentException("Tag id " + tag.ID + " is outside 0 to " + MAX_ID);
+            }
+            maxId = Math.max(maxId, tag.ID);
+        }
+
+        poses = new Pose3d[maxId + 1];
+        xs = new double[maxId + 1];
+        ys = new double[maxId + 1];
+        zs = new double[maxId + 1];
+        normalXs = new double[maxId + 1];
+        normalYs = new double[maxId + 1];
+
+        long mask = 0;
+        for (AprilTag tag : layout.getTags()) {
+            int id = tag.ID;
+            poses[id] = tag.pose;
+            xs[id] = tag.pose.getX();
+            ys[id] = tag.pose.getY();
+            zs[id] = tag.pose.getZ();
+
+            double yaw = tag.pose.getRotation().getZ();
+            normalXs[id] = Math.cos(yaw);
+            normalYs[id] = Math.sin(yaw);
+            mask |= 1L << id;
+        }
+        allTags = mask;
+
+        fieldLength = layout.getFieldLength();
+        fieldWidth = layout.getFieldWidth();
+    }
+
+    /**
+     * @param id The tag id.
+     * @return Whether the tag is on the field.
+     */
+    public boolean hasTag(int id) {
+        return id >= 0 && id < poses.length && poses[id] != null;
+    }
+
+    /**
+     * @param id The tag id, on the field.
+     * @return The pose of the tag.
+     */
+    public Pose3d getPose(int id) {
+        return poses[id];
+    }
+
+    /**
+     * @param id The tag id, on the field.
+     * @return The x coordinate of the tag, in meters.
+     */
+    public double getX(int id) {
+        return xs[id];
+    }
+
+    /**
+     * @param id The tag id, on the field.
+     * @return The y coordinate of the tag, in meters.
+     */
+    public double getY(int id) {
+        return ys[id];
+    }
+
+    /**
+     * @param id The tag id, on the field.
+     * @return The height of the center of the tag, in meters.
+     */
+    public double getZ(int id) {
+        return zs[id];
+    }
+
+    /**
+     * @param id The tag id, on the field.
+     * @return The x component of the direction the tag faces.
+     */
+    public double getNormalX(int id) {
+        return normalXs[id];
+    }
+
+    /**
+     * @param id The tag id, on the field.
+     * @return The y component of the direction the tag faces.
+     */
+    public double getNormalY(int id) {
+        return normalYs[id];
+    }
+
+    /**
+     * @return The largest tag id on the field.
+     */
+    public int getMaxId() {
+        return poses.length - 1;
+    }
+
+    /**
+     * @return The bit mask of every tag on the field, bit n set for tag n.
+     */
+    public long getAllTags() {
+        return allTags;
+    }
+
+    /**
+     * @return The length of the field, in meters.
+     */
+    public double getFieldLength() {
+        return fieldLength;
+    }
+
+    /**
+     * @return The width of the field, in meters.
+     */
+    public double getFieldWidth() {
+        return fieldWidth;
+    }
+
+    /**
+     * Lists the tags in a bit mask.
+     *
+     * @param mask The bit mask, bit n set for tag n.
+     * @return The tag ids, lowest first.
+     */
+    public static int[] toIds(long mask) {
+        int[] ids = new int[Long.bitCount(mask)];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = Long.numberOfTrailingZeros(mask);
+            mask &= mask - 1;
+        }
+        return ids;
+    }
+}
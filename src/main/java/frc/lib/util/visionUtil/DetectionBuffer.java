@@ -0,0 +1,164 @@
+package frc.lib.util.visionUtil;
+
+import frc.robot.LimelightHelpers.RawDetection;
+
+/**
+ * A reusable buffer of the neural detector results a Limelight reported. Decoding overwrites the
+ * detections in place instead of allocating an array and one object per detection.
+ *
+ * <p>The class ids and target angles are also kept in flat primitive arrays. Only the first {@link
+ * #getCount()} entries of any array are valid.
+ */
+public class DetectionBuffer {
+
+    /** The default maximum number of detections. Extra detections are skipped. */
+    public static final int DEFAULT_CAPACITY = 16;
+
+    /** The number of values each detection takes in rawdetections: class, tx, ty, ta and 4 corners. */
+    public static final int VALUES_PER_DETECTION = 12;
+
+    /** The pooled detections, overwritten by each decode. */
+    private final RawDetection[] detections;
+
+    /* The flat view of the detections. */
+    private final int[] classIds;
+    private final double[] txnc;
+    private final double[] tync;
+    private final double[] ta;
+
+    /** The number of valid detections. */
+    private int count = 0;
+
+    /** Whether the last decode had more detections than the buffer holds. */
+    private boolean truncated = false;
+
+    /** Creates a new buffer with the default capacity. */
+    public DetectionBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new buffer.
+     *
+     * @param capacity The maximum number of detections the buffer holds.
+     */
+    public DetectionBuffer(int capacity) {
+        detections = new RawDetection[capacity];
+        for (int i = 0; i < capacity; i++) {
+            detections[i] = new RawDetection(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
+        }
+
+        classIds = new int[capacity];
+        txnc = new double[capacity];
+        tync = new double[capacity];
+        ta = new double[capacity];
+    }
+
+    /**
+     * Decodes a rawdetections array into the buffer. Detections past the capacity are skipped.
+     *
+     * @param rawDetectionArray The rawdetections array published by the Limelight.
+     * @return Whether the array was valid. The buffer is empty if not.
+     */
+    public boolean decode(double[] rawDetectionArray) {
+        if (rawDetectionArray.length % VALUES_PER_DETECTION != 0) {
+            clear();
+            return false;
+        }
+
+        int detectionCount = rawDetectionArray.length / VALUES_PER_DETECTION;
+        truncated = detectionCount > detections.length;
+        count = Math.min(detectionCount, detections.length);
+
+        for (int i = 0; i < count; i++) {
+            int baseIndex = i * VALUES_PER_DETECTION;
+            RawDetection detection = detections[i];
+            detection.classId = (int) rawDetectionArray[baseIndex];
+            detection.txnc = rawDetectionArray[baseIndex + 1];
+            detection.tync = rawDetectionArray[baseIndex + 2];
+            detection.ta = rawDetectionArray[baseIndex + 3];
+            detection.corner0_X = rawDetectionArray[baseIndex + 4];
+            detection.corner0_Y = rawDetectionArray[baseIndex + 5];
+            detection.corner1_X = rawDetectionArray[baseIndex + 6];
+            detection.corner1_Y = rawDetectionArray[baseIndex + 7];
+            detection.corner2_X = rawDetectionArray[baseIndex + 8];
+            detection.corner2_Y = rawDetectionArray[baseIndex + 9];
+            detection.corner3_X = rawDetectionArray[baseIndex + 10];
+            detection.corner3_Y = rawDetectionArray[baseIndex + 11];
+
+            classIds[i] = detection.classId;
+            txnc[i] = detection.txnc;
+            tync[i] = detection.tync;
+            ta[i] = detection.ta;
+        }
+        return true;
+    }
+
+    /** Empties the buffer. */
+    public void clear() {
+        count = 0;
+        truncated = false;
+    }
+
+    /**
+     * @return The number of valid detections.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return The maximum number of detections the buffer holds.
+     */
+    public int getCapacity() {
+        return detections.length;
+    }
+
+    /**
+     * @return Whether the last decode had more detections than the buffer holds.
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * Gets a pooled detection. It is overwritten by the next decode, so copy it to keep it.
+     *
+     * @param index The index of the detection, less than {@link #getCount()}.
+     * @return The detection.
+     */
+    public RawDetection get(int index) {
+        return detections[index];
+    }
+
+    /**
+     * @return The class ids. Only the first {@link #getCount()} are valid.
+     */
+    public int[] getClassIds() {
+        return classIds;
+    }
+
+    /**
+     * @return The horizontal angles to each detection, in degrees, without the crosshair offset.
+     *     Only the first {@link #getCount()} are valid.
+     */
+    public double[] getTxnc() {
+        return txnc;
+    }
+
+    /**
+     * @return The vertical angles to each detection, in degrees, without the crosshair offset. Only
+     *     the first {@link #getCount()} are valid.
+     */
+    public double[] getTync() {
+        return tync;
+    }
+
+    /**
+     * @return The area of each detection, as a fraction of the image. Only the first {@link
+     *     #getCount()} are valid.
+     */
+    public double[] getTa() {
+        return ta;
+    }
+}
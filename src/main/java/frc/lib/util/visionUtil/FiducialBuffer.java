@@ -0,0 +1,200 @@
+package frc.lib.util.visionUtil;
+
+import frc.robot.LimelightHelpers.RawFiducial;
+
+/**
+ * A reusable buffer of the AprilTags a Limelight reported. Decoding overwrites the fiducials in
+ * place instead of allocating an array and one object per tag.
+ *
+ * <p>The values are also kept in flat primitive arrays, for consumers that only need the ids,
+ * distances and ambiguities. Only the first {@link #getCount()} entries of any array are valid.
+ */
+public class FiducialBuffer {
+
+    /** The number of tags on the field. A Limelight never reports more than this at once. */
+    public static final int DEFAULT_CAPACITY = 16;
+
+    /** The number of values each fiducial takes in rawfiducials and the botpose arrays. */
+    public static final int VALUES_PER_FIDUCIAL = 7;
+
+    /** The pooled fiducials, overwritten by each decode. */
+    private final RawFiducial[] fiducials;
+
+    /* The flat view of the fiducials. */
+    private final int[] ids;
+    private final double[] distancesToCamera;
+    private final double[] distancesToRobot;
+    private final double[] ambiguities;
+
+    /** The number of valid fiducials. */
+    private int count = 0;
+
+    /** Whether the last decode had more fiducials than the buffer holds. */
+    private boolean truncated = false;
+
+    /** Creates a new buffer that holds every tag on the field. */
+    public FiducialBuffer() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new buffer.
+     *
+     * @param capacity The maximum number of fiducials the buffer holds.
+     */
+    public FiducialBuffer(int capacity) {
+        fiducials = new RawFiducial[capacity];
+        for (int i = 0; i < capacity; i++) {
+            fiducials[i] = new RawFiducial(0, 0, 0, 0, 0, 0, 0);
+        }
+
+        ids = new int[capacity];
+        distancesToCamera = new double[capacity];
+        distancesToRobot = new double[capacity];
+        ambiguities = new double[capacity];
+    }
+
+    /**
+     * Decodes a rawfiducials array into the buffer.
+     *
+     * @param rawFiducialArray The rawfiducials array published by the Limelight.
+     * @return Whether the array was valid. The buffer is empty if not.
+     */
+    public boolean decode(double[] rawFiducialArray) {
+        if (rawFiducialArray.length % VALUES_PER_FIDUCIAL != 0) {
+            clear();
+            return false;
+        }
+
+        decode(rawFiducialArray, 0, rawFiducialArray.length / VALUES_PER_FIDUCIAL);
+        return true;
+    }
+
+    /**
+     * Decodes fiducials stored back to back in an array into the buffer. Fiducials past the
+     * capacity are skipped.
+     *
+     * @param array The array.
+     * @param offset The index of the first value of the first fiducial.
+     * @param fiducialCount The number of fiducials in the array.
+     */
+    void decode(double[] array, int offset, int fiducialCount) {
+        truncated = fiducialCount > fiducials.length;
+        count = Math.min(fiducialCount, fiducials.length);
+
+        for (int i = 0; i < count; i++) {
+            int baseIndex = offset + i * VALUES_PER_FIDUCIAL;
+            RawFiducial fiducial = fiducials[i];
+            fiducial.id = (int) array[baseIndex];
+            fiducial.txnc = array[baseIndex + 1];
+            fiducial.tync = array[baseIndex + 2];
+            fiducial.ta = array[baseIndex + 3];
+            fiducial.distToCamera = array[baseIndex + 4];
+            fiducial.distToRobot = array[baseIndex + 5];
+            fiducial.ambiguity = array[baseIndex + 6];
+
+            ids[i] = fiducial.id;
+            distancesToCamera[i] = fiducial.distToCamera;
+            distancesToRobot[i] = fiducial.distToRobot;
+            ambiguities[i] = fiducial.ambiguity;
+        }
+    }
+
+    /**
+     * Fills the buffer with the ids and ambiguities of fiducials, ex. from logged inputs. The other
+     * values of each fiducial are zero. Fiducials past the capacity are skipped.
+     *
+     * @param ids The ids, back to back.
+     * @param ambiguities The ambiguities, in the same order as the ids.
+     * @param offset The index of the first fiducial.
+     * @param fiducialCount The number of fiducials.
+     */
+    public void set(int[] ids, double[] ambiguities, int offset, int fiducialCount) {
+        truncated = fiducialCount > fiducials.length;
+        count = Math.min(fiducialCount, fiducials.length);
+
+        for (int i = 0; i < count; i++) {
+            RawFiducial fiducial = fiducials[i];
+            fiducial.id = ids[offset + i];
+            fiducial.txnc = 0;
+            fiducial.tync = 0;
+            fiducial.ta = 0;
+            fiducial.distToCamera = 0;
+            fiducial.distToRobot = 0;
+            fiducial.ambiguity = ambiguities[offset + i];
+
+            this.ids[i] = fiducial.id;
+            distancesToCamera[i] = 0;
+            distancesToRobot[i] = 0;
+            this.ambiguities[i] = fiducial.ambiguity;
+        }
+    }
+
+    /** Empties the buffer. */
+    public void clear() {
+        count = 0;
+        truncated = false;
+    }
+
+    /**
+     * @return The number of valid fiducials.
+     */
+    public int getCount() {
+        return count;
+    }
+
+    /**
+     * @return The maximum number of fiducials the buffer holds.
+     */
+    public int getCapacity() {
+        return fiducials.length;
+    }
+
+    /**
+     * @return Whether the last decode had more fiducials than the buffer holds.
+     */
+    public boolean isTruncated() {
+        return truncated;
+    }
+
+    /**
+     * Gets a pooled fiducial. It is overwritten by the next decode, so copy it to keep it.
+     *
+     * @param index The index of the fiducial, less than {@link #getCount()}.
+     * @return The fiducial.
+     */
+    public RawFiducial get(int index) {
+        return fiducials[index];
+    }
+
+    /**
+     * @return The tag ids. Only the first {@link #getCount()} are valid.
+     */
+    public int[] getIds() {
+        return ids;
+    }
+
+    /**
+     * @return The distances from the camera to each tag, in meters. Only the first {@link
+     *     #getCount()} are valid.
+     */
+    public double[] getDistancesToCamera() {
+        return distancesToCamera;
+    }
+
+    /**
+     * @return The distances from the robot to each tag, in meters. Only the first {@link
+     *     #getCount()} are valid.
+     */
+    public double[] getDistancesToRobot() {
+        return distancesToRobot;
+    }
+
+    /**
+     * @return The pose ambiguity of each tag, from 0 to 1. Only the first {@link #getCount()} are
+     *     valid.
+     */
+    public double[] getAmbiguities() {
+        return ambiguities;
+    }
+}
@@ -0,0 +1,84 @@
+package frc.lib.util.visionUtil;
+
+/**
+ * The name, mount and field of view of a Limelight. The mount is in the Limelight's robot space,
+ * the same values as its web interface: the origin is the center of the robot's footprint on the
+ * floor, forward is toward the front of the robot, side is toward its right and up is off the floor.
+ */
+public class LimelightCameraConstants {
+
+    /** The NetworkTables name of the Limelight. */
+    public final String name;
+
+    /**
+     * Whether the pose below was measured and is sent to the Limelight. If not, the Limelight keeps
+     * the mount set in its web interface, the pose is NaN and the visible tags are not checked.
+     */
+    public final boolean sendPose;
+
+    /* The pose of the camera in the Limelight's robot space, the same values as its web interface. */
+    public final double forwardMeters;
+    public final double sideMeters;
+    public final double upMeters;
+    public final double rollDegrees;
+    public final double pitchDegrees;
+    public final double yawDegrees;
+
+    /** The horizontal field of view, in degrees. */
+    public final double horizontalFovDegrees;
+
+    /**
+     * Limelight Camera Constants to be used when creating cameras. The pose is sent with {@link
+     * frc.robot.LimelightHelpers#setCameraPose_RobotSpace}, and replaces the mount set in the
+     * Limelight web interface. Only use with a measured pose.
+     *
+     * @param name The NetworkTables name of the Limelight, ex. "limelight".
+     * @param forwardMeters How far the lens is in front of the robot center, in meters.
+     * @param sideMeters How far the lens is to the right of the robot center, in meters.
+     * @param upMeters How high the lens is above the floor, in meters.
+     * @param rollDegrees The rotation of the camera around its forward axis, in degrees.
+     * @param pitchDegrees The tilt of the camera, in degrees, positive when it looks up.
+     * @param yawDegrees The direction the camera faces, counterclockwise from forward, in degrees.
+     * @param horizontalFovDegrees The horizontal field of view, ex. 62.5 for a Limelight 3.
+     */
+    public LimelightCameraConstants(
+        String name,
+        double forwardMeters,
+        double sideMeters,
+        double upMeters,
+        double rollDegrees,
+        double pitchDegrees,
+        double yawDegrees,
+        double horizontalFovDegrees
+    ) {
+        this.name = name;
+        this.sendPose = true;
+        this.forwardMeters = forwardMeters;
+        this.sideMeters = sideMeters;
+        this.upMeters = upMeters;
+        this.rollDegrees = rollDegrees;
+        this.pitchDegrees = pitchDegrees;
+        this.yawDegrees = yawDegrees;
+        this.horizontalFovDegrees = horizontalFovDegrees;
+    }
+
+    /**
+     * Limelight Camera Constants for a camera whose pose has not been measured. The pose is not sent,
+     * so the Limelight keeps the mount set in its web interface, and the tags in view are not
+     * checked.
+     *
+     * @param name The NetworkTables name of the Limelight, ex. "limelight".
+     * @param horizontalFovDegrees The horizontal field of view, ex. 62.5 for a Limelight 3.
+     */
+    public LimelightCameraConstants(String name, double horizontalFovDegrees) {
+        this.name = name;
+        this.sendPose = false;
+        this.forwardMeters = Double.NaN;
+        this.sideMeters = Double.NaN;
+        this.upMeters = Double.NaN;
+        this.rollDegrees = Double.NaN;
+        this.pitchDegrees = Double.NaN;
+        this.yawDegrees = Double.NaN;
+        this.horizontalFovDegrees = horizontalFovDegrees;
+    }
+}
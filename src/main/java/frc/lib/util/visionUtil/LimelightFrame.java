@@ -0,0 +1,106 @@
+package frc.lib.util.visionUtil;
+
+/**
+ * A decoded value published by a Limelight. Frames are pooled by their {@link
+ * LimelightSubscriber}: the buffers are decoded into in place, and a frame is reused once it is
+ * released. Only the buffer for the frame's {@link Type} holds the value.
+ */
+public class LimelightFrame {
+
+    /** The Limelight topic a frame came from. */
+    public enum Type {
+        /** botpose_orb_wpiblue, the MegaTag2 pose on the blue alliance origin. */
+        MEGATAG2,
+
+        /** rawfiducials, every AprilTag in view. */
+        RAW_FIDUCIALS,
+
+        /** rawdetections, every neural detector result. */
+        RAW_DETECTIONS,
+    }
+
+    /** The name of the Limelight, ex. "limelight". */
+    private final String camera;
+
+    /** The topic the frame came from. */
+    private Type type = Type.MEGATAG2;
+
+    /** The NetworkTables timestamp of the value, in microseconds. */
+    private long timestampMicros = 0;
+
+    /* The reusable buffers, one per type. */
+    private final PoseEstimateBuffer poseEstimate = new PoseEstimateBuffer();
+    private final FiducialBuffer rawFiducials = new FiducialBuffer();
+    private final DetectionBuffer rawDetections = new DetectionBuffer();
+
+    LimelightFrame(String camera) {
+        this.camera = camera;
+    }
+
+    /**
+     * Decodes a botpose_orb_wpiblue value into the frame.
+     *
+     * @return Whether the value had an estimate.
+     */
+    boolean decodeMegaTag2(double[] value, long timestampMicros) {
+        this.type = Type.MEGATAG2;
+        this.timestampMicros = timestampMicros;
+        return poseEstimate.decode(value, timestampMicros);
+    }
+
+    /** Decodes a rawfiducials value into the frame. */
+    void decodeRawFiducials(double[] value, long timestampMicros) {
+        this.type = Type.RAW_FIDUCIALS;
+        this.timestampMicros = timestampMicros;
+        rawFiducials.decode(value);
+    }
+
+    /** Decodes a rawdetections value into the frame. */
+    void decodeRawDetections(double[] value, long timestampMicros) {
+        this.type = Type.RAW_DETECTIONS;
+        this.timestampMicros = timestampMicros;
+        rawDetections.decode(value);
+    }
+
+    /**
+     * @return The topic the frame came from.
+     */
+    public Type getType() {
+        return type;
+    }
+
+    /**
+     * @return The name of the Limelight.
+     */
+    public String getCamera() {
+        return camera;
+    }
+
+    /**
+     * @return The NetworkTables timestamp of the value, in microseconds.
+     */
+    public long getTimestampMicros() {
+        return timestampMicros;
+    }
+
+    /**
+     * @return The pose estimate. Only valid for {@link Type#MEGATAG2}.
+     */
+    public PoseEstimateBuffer getPoseEstimate() {
+        return poseEstimate;
+    }
+
+    /**
+     * @return The fiducials. Only valid for {@link Type#RAW_FIDUCIALS}.
+     */
+    public FiducialBuffer getRawFiducials() {
+        return rawFiducials;
+    }
+
+    /**
+     * @return The detections. Only valid for {@link Type#RAW_DETECTIONS}.
+     */
+    public DetectionBuffer getRawDetections() {
+        return rawDetections;
+    }
+}
@@ -0,0 +1,305 @@
+package frc.lib.util.visionUtil;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Sends REST requests to Limelights, ex. to capture a snapshot. Requests run on a small pool of
+ * its own threads with a bounded queue, so a camera that stops answering ties up at most this pool
+ * until the timeouts expire, never the common ForkJoinPool other async work runs on. When the queue
+ * is full, requests fail right away instead of piling up.
+ *
+ * <p>A GET that is already waiting or in flight for the same camera, endpoint and headers is not
+ * sent again, the caller gets the future of the first one.
+ */
+public class LimelightHttpClient implements AutoCloseable {
+
+    /** The URL of a Limelight's REST API, %s for the name. */
+    public static final String DEFAULT_URL_FORMAT = "http://%s.local:5807/";
+
+    /* The default pool and timeouts. Snapshots are rare, two threads cover two stalled cameras. */
+    public static final int DEFAULT_THREADS = 2;
+    public static final int DEFAULT_QUEUE_CAPACITY = 8;
+    public static final Duration DEFAULT_CONNECT_TIMEOUT = Duration.ofMillis(500);
+    public static final Duration DEFAULT_REQUEST_TIMEOUT = Duration.ofMillis(1500);
+
+    /** The single client used by LimelightHelpers. */
+    private static LimelightHttpClient instance = null;
+
+    /** The URL format, %s for the name. */
+    private final String urlFormat;
+
+    /** How long a request can wait for the response headers after it is sent. */
+    private final Duration requestTimeout;
+
+    /** The threads that send the requests. */
+    private final ThreadPoolExecutor executor;
+
+    /** The HTTP client. Only used with blocking sends, from the executor. */
+    private final HttpClient client;
+
+    /** The GETs waiting or in flight, by camera, endpoint and headers. */
+    private final Map<String, CompletableFuture<Boolean>> inFlight = new ConcurrentHashMap<>();
+
+    /* Metrics, written by the pool and read by the main loop. */
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong coalesced = new AtomicLong();
+    private final AtomicLong rejected = new AtomicLong();
+    private final AtomicLong succeeded = new AtomicLong();
+    private final AtomicLong failed = new AtomicLong();
+    private final AtomicLong timedOut = new AtomicLong();
+    private volatile double lastLatencyMillis = 0;
+    private volatile double maxLatencyMillis = 0;
+
+    /**
+     * @return The client used by LimelightHelpers.
+     */
+    public static synchronized LimelightHttpClient getInstance() {
+        if (instance == null) {
+            instance = new LimelightHttpClient(
+                DEFAULT_URL_FORMAT,
+                DEFAULT_THREADS,
+                DEFAULT_QUEUE_CAPACITY,
+                DEFAULT_CONNECT_TIMEOUT,
+                DEFAULT_REQUEST_TIMEOUT
+            );
+        }
+        return instance;
+    }
+
+    /**
+     * Creates a new client.
+     *
+     * @param urlFormat The URL of a Limelight's REST API, %s for the name. Ex. a local stub server.
+     * @param threads The number of requests that can be in flight at once.
+     * @param queueCapacity The number of requests that can wait for a thread.
+     * @param connectTimeout How long connecting can take.
+     * @param requestTimeout How long a request can wait for the response headers after it is sent.
+     */
+    public LimelightHttpClient(
+        String urlFormat,
+        int threads,
+        int queueCapacity,
+        Duration connectTimeout,
+        Duration requestTimeout
+    ) {
+        this.urlFormat = urlFormat;
+        this.requestTimeout = requestTimeout;
+
+        AtomicInteger threadCount = new AtomicInteger();
+        executor = new ThreadPoolExecutor(
+            threads,
+            threads,
+            30,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(queueCapacity),
+            runnable -> {
+                Thread thread = new Thread(runnable, "LimelightHttp-" + threadCount.getAndIncrement());
+                thread.setDaemon(true);
+                return thread;
+            }
+        );
+        executor.allowCoreThreadTimeOut(true);
+
+        client = HttpClient.newBuilder()
+            .connectTimeout(connectTimeout)
+            .followRedirects(HttpClient.Redirect.NEVER)
+            .build();
+    }
+
+    /**
+     * Captures a snapshot.
+     *
+     * @param camera The name of the Limelight, ex. "limelight".
+     * @param snapshotName The name of the snapshot, or null or empty for the Limelight's default.
+     * @return Whether the Limelight captured it. Completes false on errors and timeouts.
+     */
+    public CompletableFuture<Boolean> takeSnapshot(String camera, String snapshotName) {
+        if (snapshotName == null || snapshotName.isEmpty()) {
+            return get(camera, "capturesnapshot", Map.of());
+        }
+        return get(camera, "capturesnapshot", Map.of("snapname", snapshotName));
+    }
+
+    /**
+     * Sends a GET, unless the same one is already waiting or in flight.
+     *
+     * @param camera The name of the Limelight, ex. "limelight".
+     * @param endpoint The endpoint, ex. "capturesnapshot".
+     * @param headers The request headers.
+     * @return Whether the response was 200. Completes false on errors and timeouts.
+     */
+    public CompletableFuture<Boolean> get(String camera, String endpoint, Map<String, String> headers) {
+        String key = camera + "/" + endpoint + headers;
+
+        // Only the caller that adds the future sends the request
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        CompletableFuture<Boolean> existing = inFlight.putIfAbsent(key, future);
+        if (existing != null) {
+            coalesced.incrementAndGet();
+            return existing;
+        }
+
+        submit(key, future, request(camera, endpoint, headers).GET().build());
+        return future;
+    }
+
+    /**
+     * Sends a POST. POSTs are never coalesced.
+     *
+     * @param camera The name of the Limelight, ex. "limelight".
+     * @param endpoint The endpoint.
+     * @param headers The request headers.
+     * @param body The request body.
+     * @return Whether the response was 200. Completes false on errors and timeouts.
+     */
+    public CompletableFuture<Boolean> post(String camera, String endpoint, Map<String, String> headers, byte[] body) {
+        CompletableFuture<Boolean> future = new CompletableFuture<>();
+        HttpRequest.BodyPublisher publisher = HttpRequest.BodyPublishers.ofByteArray(body);
+        submit(null, future, request(camera, endpoint, headers).POST(publisher).build());
+        return future;
+    }
+
+    /** Builds a request with the timeout and headers. */
+    private HttpRequest.Builder request(String camera, String endpoint, Map<String, String> headers) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder()
+            .uri(URI.create(String.format(urlFormat, camera) + endpoint))
+            .timeout(requestTimeout);
+        headers.forEach(builder::header);
+        return builder;
+    }
+
+    /**
+     * Sends a request on the pool, or fails it right away if the queue is full.
+     *
+     * @param key The key of the GET in {@link #inFlight}, or null for requests that are not coalesced.
+     */
+    private void submit(String key, CompletableFuture<Boolean> future, HttpRequest request) {
+        requests.incrementAndGet();
+        try {
+            executor.execute(() -> complete(key, future, send(request)));
+        } catch (RejectedExecutionException e) {
+            rejected.incrementAndGet();
+            complete(key, future, false);
+        }
+    }
+
+    /**
+     * Completes a request. The GET is removed from {@link #inFlight} first, so a GET made after the
+     * response sends a new request instead of joining one that already completed.
+     */
+    private void complete(String key, CompletableFuture<Boolean> future, boolean success) {
+        if (key != null) {
+            inFlight.remove(key, future);
+        }
+        future.complete(success);
+    }
+
+    /** Sends a request and waits for the response. Runs on the pool. */
+    private boolean send(HttpRequest request) {
+        long start = System.nanoTime();
+        try {
+            int status = client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode();
+            recordLatency(start);
+            if (status == 200) {
+                succeeded.incrementAndGet();
+                return true;
+            }
+            System.err.println("Limelight request " + request.uri() + " returned " + status);
+        } catch (HttpTimeoutException e) {
+            timedOut.incrementAndGet();
+            return false;
+        } catch (IOException e) {
+            System.err.println("Limelight request " + request.uri() + " failed: " + e.getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        failed.incrementAndGet();
+        return false;
+    }
+
+    /** Records how long a request took to get a response. */
+    private void recordLatency(long startNanos) {
+        double millis = (System.nanoTime() - startNanos) / 1e6;
+        lastLatencyMillis = millis;
+        if (millis > maxLatencyMillis) {
+            maxLatencyMillis = millis;
+        }
+    }
+
+    /**
+     * @return The number of requests sent or rejected. Coalesced requests are not counted.
+     */
+    public long getRequestCount() {
+        return requests.get();
+    }
+
+    /**
+     * @return The number of GETs that joined one already waiting or in flight.
+     */
+    public long getCoalescedCount() {
+        return coalesced.get();
+    }
+
+    /**
+     * @return The number of requests failed because the queue was full.
+     */
+    public long getRejectedCount() {
+        return rejected.get();
+    }
+
+    /**
+     * @return The number of requests that got a 200.
+     */
+    public long getSucceededCount() {
+        return succeeded.get();
+    }
+
+    /**
+     * @return The number of requests that got another status or an error, not counting timeouts.
+     */
+    public long getFailedCount() {
+        return failed.get();
+    }
+
+    /**
+     * @return The number of requests that timed out.
+     */
+    public long getTimedOutCount() {
+        return timedOut.get();
+    }
+
+    /** Records the request metrics. */
+    public void record() {
+        Logger.recordOutput("Vision/Http/Requests", requests.get());
+        Logger.recordOutput("Vision/Http/Coalesced", coalesced.get());
+        Logger.recordOutput("Vision/Http/Rejected", rejected.get());
+        Logger.recordOutput("Vision/Http/Succeeded", succeeded.get());
+        Logger.recordOutput("Vision/Http/Failed", failed.get());
+        Logger.recordOutput("Vision/Http/TimedOut", timedOut.get());
+        Logger.recordOutput("Vision/Http/InFlight", executor.getActiveCount() + executor.getQueue().size());
+        Logger.recordOutput("Vision/Http/LatencyMs", lastLatencyMillis);
+        Logger.recordOutput("Vision/Http/MaxLatencyMs", maxLatencyMillis);
+    }
+
+    /** Stops taking requests. The ones already queued still run, each bounded by the timeouts. */
+    @Override
+    public void close() {
+        executor.shutdown();
+    }
+}
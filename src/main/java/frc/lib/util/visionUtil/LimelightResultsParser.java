@@ -0,0 +1,205 @@
+package frc.lib.util.visionUtil;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import frc.robot.LimelightHelpers.LimelightResults;
+import frc.robot.LimelightHelpers.LimelightTarget_Barcode;
+import frc.robot.LimelightHelpers.LimelightTarget_Classifier;
+import frc.robot.LimelightHelpers.LimelightTarget_Detector;
+import frc.robot.LimelightHelpers.LimelightTarget_Fiducial;
+import frc.robot.LimelightHelpers.LimelightTarget_Retro;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * Parses Limelight JSON dumps into {@link LimelightResults} with a streaming parser. The header
+ * values are read token by token, and only the target arrays that were asked for are bound to
+ * objects. The others are skipped without being materialized, which is most of the cost of
+ * {@link frc.robot.LimelightHelpers#parseResults} when only one target type is used.
+ *
+ * <p>Not thread safe, use one parser per thread.
+ */
+public class LimelightResultsParser {
+
+    /** The target arrays in a results dump. */
+    public enum TargetType {
+        RETRO("Retro"),
+        FIDUCIAL("Fiducial"),
+        CLASSIFIER("Classifier"),
+        DETECTOR("Detector"),
+        BARCODE("Barcode");
+
+        /** The name of the array in the JSON dump. */
+        public final String jsonName;
+
+        TargetType(String jsonName) {
+            this.jsonName = jsonName;
+        }
+    }
+
+    /** Binds the requested target arrays. Configured the same as the mapper in LimelightHelpers. */
+    private final ObjectMapper mapper = new ObjectMapper()
+        .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    /* Whether each target array is materialized. */
+    private final boolean parseRetro;
+    private final boolean parseFiducials;
+    private final boolean parseClassifier;
+    private final boolean parseDetector;
+    private final boolean parseBarcode;
+
+    /** Growable scratch array for reading number arrays, so their length is not needed up front. */
+    private double[] scratch = new double[16];
+
+    /**
+     * Creates a new parser.
+     *
+     * @param targetTypes The target arrays to materialize. Arrays of other types are left empty.
+     */
+    public LimelightResultsParser(Set<TargetType> targetTypes) {
+        parseRetro = targetTypes.contains(TargetType.RETRO);
+        parseFiducials = targetTypes.contains(TargetType.FIDUCIAL);
+        parseClassifier = targetTypes.contains(TargetType.CLASSIFIER);
+        parseDetector = targetTypes.contains(TargetType.DETECTOR);
+        parseBarcode = targetTypes.contains(TargetType.BARCODE);
+    }
+
+    /** Creates a new parser that materializes every target array, like LimelightHelpers. */
+    public LimelightResultsParser() {
+        this(EnumSet.allOf(TargetType.class));
+    }
+
+    /**
+     * Parses a JSON dump. The parse time is stored in {@link LimelightResults#latency_jsonParse}.
+     *
+     * @param json The JSON dump published by the Limelight.
+     * @return The results. On a malformed dump, {@link LimelightResults#error} is set.
+     */
+    public LimelightResults parse(String json) {
+        long start = System.nanoTime();
+        LimelightResults results = new LimelightResults();
+
+        try (JsonParser parser = mapper.getFactory().createParser(json)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Expected an object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String field = parser.getCurrentName();
+                parser.nextToken();
+                readField(parser, field, results);
+            }
+        } catch (IOException e) {
+            results.error = "lljson error: " + e.getMessage();
+        }
+
+        results.latency_jsonParse = (System.nanoTime() - start) * 1e-6;
+        return results;
+    }
+
+    /** Reads the value of one top level field. The parser is on the first token of the value. */
+    private void readField(JsonParser parser, String field, LimelightResults results) throws IOException {
+        switch (field) {
+            case "pID":
+                results.pipelineID = parser.getValueAsDouble();
+                break;
+            case "tl":
+                results.latency_pipeline = parser.getValueAsDouble();
+                break;
+            case "cl":
+                results.latency_capture = parser.getValueAsDouble();
+                break;
+            case "ts":
+                results.timestamp_LIMELIGHT_publish = parser.getValueAsDouble();
+                break;
+            case "ts_rio":
+                results.timestamp_RIOFPGA_capture = parser.getValueAsDouble();
+                break;
+            case "v":
+                results.valid = parser.getValueAsDouble() != 0;
+                break;
+            case "botpose":
+                results.botpose = readDoubleArray(parser);
+                break;
+            case "botpose_wpired":
+                results.botpose_wpired = readDoubleArray(parser);
+                break;
+            case "botpose_wpiblue":
+                results.botpose_wpiblue = readDoubleArray(parser);
+                break;
+            case "botpose_tagcount":
+                results.botpose_tagcount = parser.getValueAsDouble();
+                break;
+            case "botpose_span":
+                results.botpose_span = parser.getValueAsDouble();
+                break;
+            case "botpose_avgdist":
+                results.botpose_avgdist = parser.getValueAsDouble();
+                break;
+            case "botpose_avgarea":
+                results.botpose_avgarea = parser.getValueAsDouble();
+                break;
+            case "t6c_rs":
+                results.camerapose_robotspace = readDoubleArray(parser);
+                break;
+            case "Retro":
+                if (parseRetro) {
+                    results.targets_Retro = mapper.readValue(parser, LimelightTarget_Retro[].class);
+                } else {
+                    parser.skipChildren();
+                }
+                break;
+            case "Fiducial":
+                if (parseFiducials) {
+                    results.targets_Fiducials = mapper.readValue(parser, LimelightTarget_Fiducial[].class);
+                } else {
+                    parser.skipChildren();
+                }
+                break;
+            case "Classifier":
+                if (parseClassifier) {
+                    results.targets_Classifier = mapper.readValue(parser, LimelightTarget_Classifier[].class);
+                } else {
+                    parser.skipChildren();
+                }
+                break;
+            case "Detector":
+                if (parseDetector) {
+                    results.targets_Detector = mapper.readValue(parser, LimelightTarget_Detector[].class);
+                } else {
+                    parser.skipChildren();
+                }
+                break;
+            case "Barcode":
+                if (parseBarcode) {
+                    results.targets_Barcode = mapper.readValue(parser, LimelightTarget_Barcode[].class);
+                } else {
+                    parser.skipChildren();
+                }
+                break;
+            default:
+                // Skip fields LimelightResults does not have
+                parser.skipChildren();
+                break;
+        }
+    }
+
+    /** Reads an array of numbers. The parser is on the start of the array. */
+    private double[] readDoubleArray(JsonParser parser) throws IOException {
+        if (parser.currentToken() != JsonToken.START_ARRAY) {
+            throw new IOException("Expected an array of numbers");
+        }
+
+        int length = 0;
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (length == scratch.length) {
+                scratch = Arrays.copyOf(scratch, length * 2);
+            }
+            scratch[length++] = parser.getValueAsDouble();
+        }
+        return Arrays.copyOf(scratch, length);
+    }
+}
@@ -0,0 +1,165 @@
+package frc.lib.util.visionUtil;
+
+import edu.wpi.first.networktables.NetworkTableEvent;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.StringSubscriber;
+import frc.lib.util.visionUtil.LimelightResultsParser.TargetType;
+import frc.robot.LimelightHelpers.LimelightResults;
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Parses a Limelight's JSON dumps on a worker thread, so the main loop never waits on JSON. A
+ * NetworkTables listener hands each new dump to the worker, which parses it with a {@link
+ * LimelightResultsParser} and publishes the results atomically. {@link #getLatest()} only reads
+ * a reference.
+ *
+ * <p>The worker only parses the newest dump. Dumps that arrive while it is busy replace the one
+ * waiting, and are counted as skipped.
+ */
+public class LimelightResultsService implements AutoCloseable {
+
+    /** The name of the Limelight, ex. "limelight". */
+    private final String camera;
+
+    /** The json topic subscriber. Kept open for as long as the listener is registered. */
+    private final StringSubscriber jsonSubscriber;
+
+    /** The listener handle, used to remove the listener. */
+    private final int listenerHandle;
+
+    /** Parses the dumps. Only used by the worker. */
+    private final LimelightResultsParser parser;
+
+    /** The worker thread. */
+    private final Thread worker;
+
+    /** The newest dump that has not been parsed, or null. Set by the listener, taken by the worker. */
+    private final AtomicReference<String> pendingJson = new AtomicReference<>();
+
+    /** The newest parsed results. */
+    private final AtomicReference<LimelightResults> latest = new AtomicReference<>(new LimelightResults());
+
+    /* Metrics, written by the listener and the worker and read by the main loop. */
+    private volatile long dumpsParsed = 0;
+    private volatile long dumpsSkipped = 0;
+    private volatile long parseErrors = 0;
+    private volatile double lastParseMillis = 0;
+    private volatile double maxParseMillis = 0;
+
+    /* The log keys, built once so recording does not concatenate strings. */
+    private final String parsedKey;
+    private final String skippedKey;
+    private final String errorsKey;
+    private final String lastParseKey;
+    private final String maxParseKey;
+
+    /**
+     * Creates a new service and starts the worker.
+     *
+     * @param camera The name of the Limelight, ex. "limelight".
+     * @param targetTypes The target arrays to materialize. Arrays of other types are left empty.
+     */
+    public LimelightResultsService(String camera, Set<TargetType> targetTypes) {
+        this.camera = camera;
+        this.parser = new LimelightResultsParser(targetTypes);
+
+        parsedKey = "Vision/" + camera + "/Json/Parsed";
+        skippedKey = "Vision/" + camera + "/Json/Skipped";
+        errorsKey = "Vision/" + camera + "/Json/Errors";
+        lastParseKey = "Vision/" + camera + "/Json/ParseMs";
+        maxParseKey = "Vision/" + camera + "/Json/MaxParseMs";
+
+        worker = new Thread(this::run, "LimelightResults-" + camera);
+        worker.setDaemon(true);
+        worker.start();
+
+        NetworkTableInstance instance = NetworkTableInstance.getDefault();
+        jsonSubscriber = instance.getTable(camera).getStringTopic("json").subscribe("");
+        listenerHandle = instance.addListener(
+            jsonSubscriber,
+            EnumSet.of(NetworkTableEvent.Kind.kValueAll),
+            event -> submit(event.valueData.value.getString())
+        );
+    }
+
+    /**
+     * Creates a new service that materializes every target array.
+     *
+     * @param camera The name of the Limelight, ex. "limelight".
+     */
+    public LimelightResultsService(String camera) {
+        this(camera, EnumSet.allOf(TargetType.class));
+    }
+
+    /** Hands a dump to the worker. Runs on the listener thread. */
+    private void submit(String json) {
+        if (json.isEmpty()) {
+            return;
+        }
+
+        // Replace the dump still waiting, the worker only needs the newest
+        if (pendingJson.getAndSet(json) != null) {
+            dumpsSkipped++;
+        }
+        LockSupport.unpark(worker);
+    }
+
+    /** Parses dumps until the service is closed. Runs on the worker. */
+    private void run() {
+        while (!Thread.currentThread().isInterrupted()) {
+            String json = pendingJson.getAndSet(null);
+            if (json == null) {
+                // Wait for the listener, unpark is never lost if it came first
+                LockSupport.park(this);
+                continue;
+            }
+
+            LimelightResults results = parser.parse(json);
+            if (results.error != null) {
+                parseErrors++;
+            }
+
+            latest.set(results);
+            dumpsParsed++;
+            lastParseMillis = results.latency_jsonParse;
+            maxParseMillis = Math.max(maxParseMillis, results.latency_jsonParse);
+        }
+    }
+
+    /**
+     * Gets the newest parsed results. Never blocks.
+     *
+     * @return The results. Empty until the first dump is parsed. Do not modify them.
+     */
+    public LimelightResults getLatest() {
+        return latest.get();
+    }
+
+    /**
+     * @return The name of the Limelight.
+     */
+    public String getCamera() {
+        return camera;
+    }
+
+    /** Records the parse metrics. */
+    public void record() {
+        Logger.recordOutput(parsedKey, dumpsParsed);
+        Logger.recordOutput(skippedKey, dumpsSkipped);
+        Logger.recordOutput(errorsKey, parseErrors);
+        Logger.recordOutput(lastParseKey, lastParseMillis);
+        Logger.recordOutput(maxParseKey, maxParseMillis);
+    }
+
+    /** Stops listening and stops the worker. */
+    @Override
+    public void close() {
+        NetworkTableInstance.getDefault().removeListener(listenerHandle);
+        jsonSubscriber.close();
+        worker.interrupt();
+    }
+}
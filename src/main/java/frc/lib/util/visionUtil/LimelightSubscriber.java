@@ -0,0 +1,236 @@
+package frc.lib.util.visionUtil;
+
+import edu.wpi.first.networktables.DoubleArraySubscriber;
+import edu.wpi.first.networktables.NetworkTable;
+import edu.wpi.first.networktables.NetworkTableEvent;
+import edu.wpi.first.networktables.NetworkTableInstance;
+import edu.wpi.first.networktables.NetworkTableListenerPoller;
+import edu.wpi.first.networktables.NetworkTableValue;
+import edu.wpi.first.util.WPIUtilJNI;
+import java.util.EnumSet;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Receives the values a Limelight publishes as they arrive, instead of polling them every loop.
+ * Each subscriber has its own NetworkTables listener poller on botpose_orb_wpiblue, rawfiducials
+ * and rawdetections, and its own thread that decodes each new value once and queues the {@link
+ * LimelightFrame} for the main loop. Every frame is returned by {@link #poll} exactly once.
+ *
+ * <p>Cameras are decoded in parallel, since no two subscribers share a thread. The camera thread
+ * is the only producer and the main loop is the only consumer of the queue.
+ *
+ * <p>Frames are pooled so decoding does not allocate. The main loop hands each frame back with
+ * {@link #release} once it is done with it, through a second queue going the other way. A frame
+ * that is never released is lost to the pool.
+ */
+public class LimelightSubscriber implements AutoCloseable {
+
+    /** The number of frames that can wait for the main loop. Newer frames are dropped when full. */
+    public static final int QUEUE_CAPACITY = 16;
+
+    /** The number of pooled frames. One more than the queue, so one can be decoded while it is full. */
+    public static final int POOL_SIZE = QUEUE_CAPACITY + 1;
+
+    /** The name of the Limelight, ex. "limelight". */
+    private final String camera;
+
+    /* The topic subscribers. Kept open for as long as the listeners are registered. */
+    private final DoubleArraySubscriber megaTag2Subscriber;
+    private final DoubleArraySubscriber rawFiducialsSubscriber;
+    private final DoubleArraySubscriber rawDetectionsSubscriber;
+
+    /** The poller the listeners queue their events on, read by {@link #cameraThread}. */
+    private final NetworkTableListenerPoller poller;
+
+    /* The listener handles, used to tell which topic an event is for. */
+    private final int megaTag2Listener;
+    private final int rawFiducialsListener;
+    private final int rawDetectionsListener;
+
+    /** The thread that decodes this camera's values. */
+    private final Thread cameraThread;
+
+    /** The decoded frames waiting for the main loop. */
+    private final SpscQueue<LimelightFrame> frames = new SpscQueue<>(QUEUE_CAPACITY);
+
+    /** The released frames waiting for the camera thread. Produced by the main loop. */
+    private final SpscQueue<LimelightFrame> freeFrames = new SpscQueue<>(POOL_SIZE);
+
+    /**
+     * A frame the camera thread took but did not queue. Kept here instead of going back into
+     * {@link #freeFrames}, which only the main loop may add to. Only used by the camera thread.
+     */
+    private LimelightFrame spareFrame = null;
+
+    /* Counters, written by the camera thread and read by the main loop. */
+    private volatile long framesReceived = 0;
+    private volatile long framesDropped = 0;
+
+    /* The log keys, built once so recording does not concatenate strings. */
+    private final String receivedKey;
+    private final String droppedKey;
+
+    /**
+     * Creates a new subscriber and starts listening.
+     *
+     * @param camera The name of the Limelight, ex. "limelight".
+     */
+    public LimelightSubscriber(String camera) {
+        this.camera = camera;
+
+        // Fill the pool before the camera thread can take from it
+        for (int i = 0; i < POOL_SIZE; i++) {
+            freeFrames.offer(new LimelightFrame(camera));
+        }
+
+        NetworkTableInstance instance = NetworkTableInstance.getDefault();
+        NetworkTable table = instance.getTable(camera);
+        megaTag2Subscriber = table.getDoubleArrayTopic("botpose_orb_wpiblue").subscribe(new double[0]);
+        rawFiducialsSubscriber = table.getDoubleArrayTopic("rawfiducials").subscribe(new double[0]);
+        rawDetectionsSubscriber = table.getDoubleArrayTopic("rawdetections").subscribe(new double[0]);
+
+        receivedKey = "Vision/" + camera + "/FramesReceived";
+        droppedKey = "Vision/" + camera + "/FramesDropped";
+
+        EnumSet<NetworkTableEvent.Kind> kinds = EnumSet.of(NetworkTableEvent.Kind.kValueAll);
+        poller = new NetworkTableListenerPoller(instance);
+        megaTag2Listener = poller.addListener(megaTag2Subscriber, kinds);
+        rawFiducialsListener = poller.addListener(rawFiducialsSubscriber, kinds);
+        rawDetectionsListener = poller.addListener(rawDetectionsSubscriber, kinds);
+
+        cameraThread = new Thread(this::run, "Limelight-" + camera);
+        cameraThread.setDaemon(true);
+        cameraThread.start();
+    }
+
+    /** Decodes events until the subscriber is closed. Runs on the camera thread. */
+    private void run() {
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                // Sleep until the poller has events, closing the poller also wakes this
+                WPIUtilJNI.waitForObject(poller.getHandle());
+
+                for (NetworkTableEvent event : poller.readQueue()) {
+                    if (event.valueData == null) {
+                        continue;
+                    }
+
+                    if (event.listener == megaTag2Listener) {
+                        onMegaTag2(event.valueData.value);
+                    } else if (event.listener == rawFiducialsListener) {
+                        onRawFiducials(event.valueData.value);
+                    } else if (event.listener == rawDetectionsListener) {
+                        onRawDetections(event.valueData.value);
+                    }
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /** Decodes a botpose_orb_wpiblue value. Runs on the camera thread. */
+    private void onMegaTag2(NetworkTableValue value) {
+        LimelightFrame frame = takeFrame();
+        if (frame == null) {
+            return;
+        }
+
+        // An empty or truncated array has no estimate, keep the frame for the next value
+        if (frame.decodeMegaTag2(value.getDoubleArray(), value.getTime())) {
+            enqueue(frame);
+        } else {
+            spareFrame = frame;
+        }
+    }
+
+    /** Decodes a rawfiducials value. Runs on the camera thread. */
+    private void onRawFiducials(NetworkTableValue value) {
+        LimelightFrame frame = takeFrame();
+        if (frame != null) {
+            frame.decodeRawFiducials(value.getDoubleArray(), value.getTime());
+            enqueue(frame);
+        }
+    }
+
+    /** Decodes a rawdetections value. Runs on the camera thread. */
+    private void onRawDetections(NetworkTableValue value) {
+        LimelightFrame frame = takeFrame();
+        if (frame != null) {
+            frame.decodeRawDetections(value.getDoubleArray(), value.getTime());
+            enqueue(frame);
+        }
+    }
+
+    /**
+     * Takes a free frame to decode into. Runs on the camera thread.
+     *
+     * @return The frame, or null if every frame is queued or held by the main loop.
+     */
+    private LimelightFrame takeFrame() {
+        framesReceived++;
+        LimelightFrame frame = spareFrame;
+        if (frame != null) {
+            spareFrame = null;
+            return frame;
+        }
+
+        frame = freeFrames.poll();
+        if (frame == null) {
+            framesDropped++;
+        }
+        return frame;
+    }
+
+    /** Queues a frame, or drops it if the main loop has fallen behind. Runs on the camera thread. */
+    private void enqueue(LimelightFrame frame) {
+        if (!frames.offer(frame)) {
+            framesDropped++;
+            spareFrame = frame;
+        }
+    }
+
+    /**
+     * Takes the oldest frame that has not been returned yet. Only call from the main loop, and
+     * {@link #release} the frame when done with it.
+     *
+     * @return The frame, or null if there are no new frames.
+     */
+    public LimelightFrame poll() {
+        return frames.poll();
+    }
+
+    /**
+     * Returns a frame from {@link #poll} to the pool. The frame must not be used after this. Only
+     * call from the main loop.
+     *
+     * @param frame The frame.
+     */
+    public void release(LimelightFrame frame) {
+        freeFrames.offer(frame);
+    }
+
+    /**
+     * @return The name of the Limelight.
+     */
+    public String getCamera() {
+        return camera;
+    }
+
+    /** Records the number of frames received and dropped. */
+    public void record() {
+        Logger.recordOutput(receivedKey, framesReceived);
+        Logger.recordOutput(droppedKey, framesDropped);
+    }
+
+    /** Stops the camera thread and closes the subscribers. */
+    @Override
+    public void close() {
+        cameraThread.interrupt();
+        poller.close();
+
+        megaTag2Subscriber.close();
+        rawFiducialsSubscriber.close();
+        rawDetectionsSubscriber.close();
+    }
+}
@@ -0,0 +1,240 @@
+package frc.lib.util.visionUtil;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import frc.robot.LimelightHelpers;
+import frc.robot.LimelightHelpers.RawFiducial;
+
+/**
+ * A reusable botpose estimate. Decoding overwrites the primitive fields and the pooled {@link
+ * FiducialBuffer} instead of allocating a {@link LimelightHelpers.PoseEstimate}, a {@link Pose2d}
+ * and one object per tag. {@link #toPose2d()} and {@link #toPoseEstimate()} allocate, only call
+ * them for estimates that are kept.
+ */
+public class PoseEstimateBuffer {
+
+    /** The number of values before the fiducials in a botpose array. */
+    public static final int HEADER_LENGTH = 11;
+
+    /* The pose, on the origin of the array that was decoded. */
+    private double xMeters = 0;
+    private double yMeters = 0;
+    private double yawDegrees = 0;
+
+    /** The capture time of the frame, in seconds, on the NetworkTables time base. */
+    private double timestampSeconds = 0;
+
+    /** The total latency of the frame, in milliseconds. */
+    private double latencyMillis = 0;
+
+    /* The tag statistics reported by the Limelight. */
+    private int tagCount = 0;
+    private double tagSpan = 0;
+    private double avgTagDist = 0;
+    private double avgTagArea = 0;
+
+    /** The tags used for the estimate. Empty if the array did not include them. */
+    private final FiducialBuffer fiducials;
+
+    /** Creates a new buffer that holds every tag on the field. */
+    public PoseEstimateBuffer() {
+        this(FiducialBuffer.DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates a new buffer.
+     *
+     * @param maxTags The maximum number of fiducials kept.
+     */
+    public PoseEstimateBuffer(int maxTags) {
+        fiducials = new FiducialBuffer(maxTags);
+    }
+
+    /**
+     * Decodes a botpose array into the buffer. Matches {@link LimelightHelpers#toPoseEstimate}.
+     *
+     * @param poseArray The botpose array published by the Limelight.
+     * @param timestampMicros The NetworkTables timestamp of the array, in microseconds.
+     * @return Whether the array had an estimate. False if it was empty or shorter than the header.
+     */
+    public boolean decode(double[] poseArray, long timestampMicros) {
+        if (poseArray.length < HEADER_LENGTH) {
+            // An empty array means no data, a truncated one has no usable estimate either
+            clear();
+            return false;
+        }
+
+        xMeters = poseArray[0];
+        yMeters = poseArray[1];
+        yawDegrees = poseArray[5];
+        latencyMillis = poseArray[6];
+        tagCount = (int) poseArray[7];
+        tagSpan = poseArray[8];
+        avgTagDist = poseArray[9];
+        avgTagArea = poseArray[10];
+
+        // Convert the server timestamp from microseconds to seconds and adjust for latency
+        timestampSeconds = timestampMicros / 1e6 - latencyMillis / 1e3;
+
+        // Only read the fiducials if the array holds exactly the number reported
+        if (poseArray.length == HEADER_LENGTH + FiducialBuffer.VALUES_PER_FIDUCIAL * tagCount) {
+            fiducials.decode(poseArray, HEADER_LENGTH, tagCount);
+        } else {
+            fiducials.clear();
+        }
+        return true;
+    }
+
+    /**
+     * Sets the estimate from its primitive fields, ex. from logged inputs. The latency, tag span and
+     * tag area are zero, and the fiducials are cleared, fill them with {@link FiducialBuffer#set}.
+     *
+     * @param timestampSeconds The capture time of the frame, in seconds.
+     * @param xMeters The x coordinate of the pose, in meters.
+     * @param yMeters The y coordinate of the pose, in meters.
+     * @param yawDegrees The yaw of the pose, in degrees.
+     * @param tagCount The number of tags used for the estimate.
+     * @param avgTagDist The average distance to the tags, in meters.
+     */
+    public void set(
+        double timestampSeconds,
+        double xMeters,
+        double yMeters,
+        double yawDegrees,
+        int tagCount,
+        double avgTagDist
+    ) {
+        clear();
+        this.timestampSeconds = timestampSeconds;
+        this.xMeters = xMeters;
+        this.yMeters = yMeters;
+        this.yawDegrees = yawDegrees;
+        this.tagCount = tagCount;
+        this.avgTagDist = avgTagDist;
+    }
+
+    /** Resets the buffer to an estimate without tags. */
+    public void clear() {
+        xMeters = 0;
+        yMeters = 0;
+        yawDegrees = 0;
+        timestampSeconds = 0;
+        latencyMillis = 0;
+        tagCount = 0;
+        tagSpan = 0;
+        avgTagDist = 0;
+        avgTagArea = 0;
+        fiducials.clear();
+    }
+
+    /**
+     * @return The x coordinate of the pose, in meters.
+     */
+    public double getXMeters() {
+        return xMeters;
+    }
+
+    /**
+     * @return The y coordinate of the pose, in meters.
+     */
+    public double getYMeters() {
+        return yMeters;
+    }
+
+    /**
+     * @return The yaw of the pose, in degrees.
+     */
+    public double getYawDegrees() {
+        return yawDegrees;
+    }
+
+    /**
+     * @return The capture time of the frame, in seconds, on the NetworkTables time base.
+     */
+    public double getTimestampSeconds() {
+        return timestampSeconds;
+    }
+
+    /**
+     * @return The total latency of the frame, in milliseconds.
+     */
+    public double getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    /**
+     * @return The number of tags used for the estimate.
+     */
+    public int getTagCount() {
+        return tagCount;
+    }
+
+    /**
+     * @return The distance between the furthest apart tags, in meters.
+     */
+    public double getTagSpan() {
+        return tagSpan;
+    }
+
+    /**
+     * @return The average distance to the tags, in meters.
+     */
+    public double getAvgTagDist() {
+        return avgTagDist;
+    }
+
+    /**
+     * @return The average area of the tags, as a fraction of the image.
+     */
+    public double getAvgTagArea() {
+        return avgTagArea;
+    }
+
+    /**
+     * @return The pooled tags used for the estimate. Overwritten by the next decode.
+     */
+    public FiducialBuffer getFiducials() {
+        return fiducials;
+    }
+
+    /**
+     * Allocates the pose. Only call for estimates that are kept.
+     *
+     * @return The pose.
+     */
+    public Pose2d toPose2d() {
+        return new Pose2d(xMeters, yMeters, Rotation2d.fromDegrees(yawDegrees));
+    }
+
+    /**
+     * Copies the buffer into a new PoseEstimate, for code that uses {@link LimelightHelpers}.
+     *
+     * @return The copy.
+     */
+    public LimelightHelpers.PoseEstimate toPoseEstimate() {
+        RawFiducial[] rawFiducials = new RawFiducial[fiducials.getCount()];
+        for (int i = 0; i < rawFiducials.length; i++) {
+            RawFiducial fiducial = fiducials.get(i);
+            rawFiducials[i] = new RawFiducial(
+                fiducial.id,
+                fiducial.txnc,
+                fiducial.tync,
+                fiducial.ta,
+                fiducial.distToCamera,
+                fiducial.distToRobot,
+                fiducial.ambiguity
+            );
+        }
+
+        return new LimelightHelpers.PoseEstimate(
+            toPose2d(),
+            timestampSeconds,
+            latencyMillis,
+            tagCount,
+            tagSpan,
+            avgTagDist,
+            avgTagArea,
+            rawFiducials
+        );
+    }
+}
@@ -0,0 +1,101 @@
+package frc.lib.util.visionUtil;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * A bounded queue for exactly one producer thread and one consumer thread. Neither side locks:
+ * each side only writes its own index, and publishes it after the slot it covers is written.
+ *
+ * <p>When the queue is full, {@link #offer} fails instead of overwriting, since the producer can
+ * not safely touch a slot the consumer may be reading.
+ *
+ * @param <T> The type of the elements.
+ */
+public class SpscQueue<T> {
+
+    /** The slots. The length is a power of two so indices can be masked instead of divided. */
+    private final Object[] buffer;
+
+    /** The mask that turns an index into a slot. */
+    private final int mask;
+
+    /** The index of the next element to read. Only written by the consumer. */
+    private final AtomicLong head = new AtomicLong(0);
+
+    /** The index of the next element to write. Only written by the producer. */
+    private final AtomicLong tail = new AtomicLong(0);
+
+    /**
+     * Creates a new queue.
+     *
+     * @param capacity The minimum number of elements the queue can hold. Rounded up to a power of two.
+     */
+    public SpscQueue(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("Capacity must be positive");
+        }
+
+        int size = Integer.highestOneBit(capacity);
+        if (size < capacity) {
+            size <<= 1;
+        }
+
+        buffer = new Object[size];
+        mask = size - 1;
+    }
+
+    /**
+     * Adds an element. Only call from the producer thread.
+     *
+     * @param element The element to add.
+     * @return Whether the element was added. False if the queue is full.
+     */
+    public boolean offer(T element) {
+        long currentTail = tail.get();
+        if (currentTail - head.get() == buffer.length) {
+            return false;
+        }
+
+        buffer[(int) (currentTail & mask)] = element;
+
+        // Publish the slot after it is written
+        tail.lazySet(currentTail + 1);
+        return true;
+    }
+
+    /**
+     * Removes the oldest element. Only call from the consumer thread.
+     *
+     * @return The oldest element, or null if the queue is empty.
+     */
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        long currentHead = head.get();
+        if (currentHead == tail.get()) {
+            return null;
+        }
+
+        int slot = (int) (currentHead & mask);
+        T element = (T) buffer[slot];
+        buffer[slot] = null;
+
+        // Free the slot after it is read
+        head.lazySet(currentHead + 1);
+        return element;
+    }
+
+    /**
+     * @return The number of elements in the queue. Only exact when called from one of the two
+     *     threads while the other is idle.
+     */
+    public int size() {
+        return (int) (tail.get() - head.get());
+    }
+
+    /**
+     * @return The number of elements the queue can hold.
+     */
+    public int capacity() {
+        return buffer.length;
+    }
+}
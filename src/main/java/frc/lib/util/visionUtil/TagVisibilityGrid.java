@@ -0,0 +1,213 @@
+package frc.lib.util.visionUtil;
+
+import edu.wpi.first.math.MathUtil;
+
+/**
+ * Answers which AprilTags a camera could plausibly see from a robot pose, in constant time. The
+ * field is split into square cells and the robot heading into bins, and the set of tags for each
+ * cell and bin is precomputed as a bit mask from an {@link AprilTagIndex}.
+ *
+ * <p>A tag is in the set if it is in range, faces the camera and is inside the horizontal field of
+ * view, from anywhere in the cell at any heading in the bin. The cell is the robot center, the
+ * camera's offset from it is applied for each heading bin. The set errs towards too many tags: it
+ * is for rejecting tags that can not be in view, not for predicting which will be.
+ *
+ * <p>Only build a grid for a camera whose mount was measured, see {@link #forCamera}. With a wrong
+ * mount every estimate is rejected.
+ */
+public class TagVisibilityGrid {
+
+    /** The index the grid was built from. */
+    private final AprilTagIndex index;
+
+    /* The size of a cell, and the number of cells and heading bins. */
+    private final double cellSize;
+    private final int columns;
+    private final int rows;
+    private final int headingBins;
+    private final double binWidth;
+
+    /** The visible tags of each cell and heading bin, at [(row * columns + column) * headingBins + bin]. */
+    private final long[] masks;
+
+    /**
+     * Creates the grid of a Limelight, if its mount was measured.
+     *
+     * @param index The field's tags.
+     * @param camera The camera.
+     * @param cellSizeMeters The size of a cell. Smaller cells are more precise and use more memory.
+     * @param headingBins The number of heading bins.
+     * @param maxRangeMeters The furthest a tag can be detected from.
+     * @return The grid, or null if the mount of the camera was not measured, which skips the check.
+     */
+    public static TagVisibilityGrid forCamera(
+        AprilTagIndex index,
+        LimelightCameraConstants camera,
+        double cellSizeMeters,
+        int headingBins,
+        double maxRangeMeters
+    ) {
+        if (!camera.sendPose) {
+            return null;
+        }
+
+        // The Limelight's side axis points to the right of the robot, the grid's y axis to the left
+        return new TagVisibilityGrid(
+            index,
+            cellSizeMeters,
+            headingBins,
+            maxRangeMeters,
+            camera.horizontalFovDegrees,
+            camera.forwardMeters,
+            -camera.sideMeters,
+            camera.yawDegrees
+        );
+    }
+
+    /**
+     * Creates a new grid.
+     *
+     * @param index The field's tags.
+     * @param cellSizeMeters The size of a cell. Smaller cells are more precise and use more memory.
+     * @param headingBins The number of heading bins.
+     * @param maxRangeMeters The furthest a tag can be detected from.
+     * @param horizontalFovDegrees The horizontal field of view of the camera.
+     * @param cameraXMeters How far the camera is in front of the robot center.
+     * @param cameraYMeters How far the camera is to the left of the robot center.
+     * @param cameraYawDegrees The yaw of the camera on the robot, counterclockwise positive.
+     */
+    public TagVisibilityGrid(
+        AprilTagIndex index,
+        double cellSizeMeters,
+        int headingBins,
+        double maxRangeMeters,
+        double horizontalFovDegrees,
+        double cameraXMeters,
+        double cameraYMeters,
+        double cameraYawDegrees
+    ) {
+        this.index = index;
+        this.cellSize = cellSizeMeters;
+        this.columns = Math.max(1, (int) Math.ceil(index.getFieldLength() / cellSizeMeters));
+        this.rows = Math.max(1, (int) Math.ceil(index.getFieldWidth() / cellSizeMeters));
+        this.headingBins = headingBins;
+        this.binWidth = 2 * Math.PI / headingBins;
+        this.masks = new long[columns * rows * headingBins];
+
+        // Anywhere in a cell is at most half a diagonal from its center. Across a heading bin, the
+        // camera also swings around the robot center by up to the arc of half a bin
+        double cameraOffset = Math.hypot(cameraXMeters, cameraYMeters);
+        double cellRadius = cellSizeMeters * Math.sqrt(2) / 2 + cameraOffset * (Math.PI / headingBins);
+        double halfFov = Math.toRadians(horizontalFovDegrees) / 2;
+        double cameraYaw = Math.toRadians(cameraYawDegrees);
+
+        for (int row = 0; row < rows; row++) {
+            for (int column = 0; column < columns; column++) {
+                double cellX = (column + 0.5) * cellSizeMeters;
+                double cellY = (row + 0.5) * cellSizeMeters;
+
+                for (int bin = 0; bin < headingBins; bin++) {
+                    double robotHeading = (bin + 0.5) * binWidth;
+                    double cameraHeading = robotHeading + cameraYaw;
+
+                    // The camera position on the field, at the center of the bin
+                    double cos = Math.cos(robotHeading);
+                    double sin = Math.sin(robotHeading);
+                    double cameraX = cellX + cameraXMeters * cos - cameraYMeters * sin;
+                    double cameraY = cellY + cameraXMeters * sin + cameraYMeters * cos;
+                    long mask = 0;
+
+                    for (int id = 0; id <= index.getMaxId(); id++) {
+                        if (
+                            index.hasTag(id) &&
+                            isVisible(id, cameraX, cameraY, cameraHeading, cellRadius, maxRangeMeters, halfFov)
+                        ) {
+                            mask |= 1L << id;
+                        }
+                    }
+                    masks[(row * columns + column) * headingBins + bin] = mask;
+                }
+            }
+        }
+    }
+
+    /** Whether a tag could be seen from anywhere within a radius of a point, at any heading in a bin. */
+    private boolean isVisible(
+        int id,
+        double x,
+        double y,
+        double cameraHeading,
+        double radius,
+        double maxRange,
+        double halfFov
+    ) {
+        double dx = index.getX(id) - x;
+        double dy = index.getY(id) - y;
+        double distance = Math.hypot(dx, dy);
+        if (distance - radius > maxRange) {
+            return false;
+        }
+
+        // The camera must be in front of the tag, the tag's normal points away from it
+        if (-dx * index.getNormalX(id) - dy * index.getNormalY(id) < -radius) {
+            return false;
+        }
+
+        // Widen the field of view by the heading bin and by how much the bearing changes across the cell
+        double slack = binWidth / 2 + Math.atan2(radius, Math.max(distance - radius, 1e-6));
+        double bearing = MathUtil.angleModulus(Math.atan2(dy, dx) - cameraHeading);
+        return Math.abs(bearing) <= halfFov + slack;
+    }
+
+    /**
+     * Gets the tags the camera could plausibly see. Poses outside the field use the nearest cell.
+     *
+     * @param x The x coordinate of the robot, in meters.
+     * @param y The y coordinate of the robot, in meters.
+     * @param headingRadians The heading of the robot.
+     * @return The bit mask of the tags, bit n set for tag n.
+     */
+    public long getVisibleTags(double x, double y, double headingRadians) {
+        int column = MathUtil.clamp((int) Math.floor(x / cellSize), 0, columns - 1);
+        int row = MathUtil.clamp((int) Math.floor(y / cellSize), 0, rows - 1);
+
+        double heading = headingRadians % (2 * Math.PI);
+        if (heading < 0) {
+            heading += 2 * Math.PI;
+        }
+        int bin = Math.min((int) (heading / binWidth), headingBins - 1);
+
+        return masks[(row * columns + column) * headingBins + bin];
+    }
+
+    /**
+     * Checks whether every tag of an estimate could have been seen from the estimated pose.
+     *
+     * @param estimate The estimate.
+     * @return False if any tag could not have been in view.
+     */
+    public boolean canSeeAll(PoseEstimateBuffer estimate) {
+        long visible = getVisibleTags(
+            estimate.getXMeters(),
+            estimate.getYMeters(),
+            Math.toRadians(estimate.getYawDegrees())
+        );
+
+        FiducialBuffer fiducials = estimate.getFiducials();
+        int[] ids = fiducials.getIds();
+        for (int i = 0; i < fiducials.getCount(); i++) {
+            int id = ids[i];
+            if (id < 0 || id > AprilTagIndex.MAX_ID || (visible & (1L << id)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return The index the grid was built from.
+     */
+    public AprilTagIndex getIndex() {
+        return index;
+    }
+}
@@ -0,0 +1,229 @@
+package frc.lib.util.visionUtil;
+
+import edu.wpi.first.math.Matrix;
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Rejects vision estimates before they reach the pose estimator, where every measurement costs a
+ * replay of the odometry history. Only reads the primitive fields of a {@link PoseEstimateBuffer},
+ * so a rejection costs a few comparisons.
+ *
+ * <p>Estimates that pass get standard deviations that grow with the square of the average tag
+ * distance and shrink with the number of tags, down to a floor, instead of a fixed trust.
+ */
+public class VisionGate {
+
+    /** Why an estimate was rejected. */
+    public enum Rejection {
+        /** No tags were seen. */
+        NO_TAGS,
+
+        /** The robot was spinning too fast for the heading at capture time to be trusted. */
+        SPINNING,
+
+        /** The frame was captured too long ago, or after now. */
+        STALE,
+
+        /** The pose is outside the field. */
+        OUT_OF_FIELD,
+
+        /** The tags were too far away. */
+        TOO_FAR,
+
+        /** A single tag estimate with an ambiguous tag. */
+        AMBIGUOUS,
+
+        /** A tag could not have been in view of the camera from the estimated pose. */
+        UNSEEABLE_TAG,
+    }
+
+    /* The limits. */
+    private final double maxYawRateDegreesPerSecond;
+    private final double maxAgeSeconds;
+    private final double fieldLengthMeters;
+    private final double fieldWidthMeters;
+    private final double fieldMarginMeters;
+    private final double maxAvgTagDistMeters;
+    private final double maxAmbiguity;
+
+    /* The standard deviation scaling. */
+    private final double xyStdDevCoefficient;
+    private final double minXYStdDev;
+    private final double thetaStdDev;
+
+    /** The standard deviations of the last estimate that passed. Reused for every estimate. */
+    private final Matrix<N3, N1> stdDevs = VecBuilder.fill(0, 0, 0);
+
+    /* Metrics. */
+    private long accepted = 0;
+    private final long[] rejected = new long[Rejection.values().length];
+
+    /* The log keys, built once so recording does not concatenate strings. */
+    private final String acceptedKey;
+    private final String[] rejectedKeys = new String[Rejection.values().length];
+
+    /**
+     * Creates a new VisionGate.
+     *
+     * @param name The name to record the metrics under, ex. "Vision/Gate".
+     * @param maxYawRateDegreesPerSecond Estimates are rejected while the robot spins faster.
+     * @param maxAgeSeconds Estimates captured longer ago are rejected.
+     * @param fieldLengthMeters The length of the field.
+     * @param fieldWidthMeters The width of the field.
+     * @param fieldMarginMeters How far outside the field a pose can be before it is rejected.
+     * @param maxAvgTagDistMeters Estimates with tags further away on average are rejected.
+     * @param maxAmbiguity Single tag estimates with a more ambiguous tag are rejected.
+     * @param xyStdDevCoefficient The x and y standard deviation, in meters, of one tag 1 meter away.
+     * @param minXYStdDev The smallest x and y standard deviation, in meters. Keeps close tags from
+     *     overwriting the odometry outright.
+     * @param thetaStdDev The heading standard deviation, in radians.
+     */
+    public VisionGate(
+        String name,
+        double maxYawRateDegreesPerSecond,
+        double maxAgeSeconds,
+        double fieldLengthMeters,
+        double fieldWidthMeters,
+        double fieldMarginMeters,
+        double maxAvgTagDistMeters,
+        double maxAmbiguity,
+        double xyStdDevCoefficient,
+        double minXYStdDev,
+        double thetaStdDev
+    ) {
+        this.maxYawRateDegreesPerSecond = maxYawRateDegreesPerSecond;
+        this.maxAgeSeconds = maxAgeSeconds;
+        this.fieldLengthMeters = fieldLengthMeters;
+        this.fieldWidthMeters = fieldWidthMeters;
+        this.fieldMarginMeters = fieldMarginMeters;
+        this.maxAvgTagDistMeters = maxAvgTagDistMeters;
+        this.maxAmbiguity = maxAmbiguity;
+        this.xyStdDevCoefficient = xyStdDevCoefficient;
+        this.minXYStdDev = minXYStdDev;
+        this.thetaStdDev = thetaStdDev;
+
+        acceptedKey = name + "/Accepted";
+        for (Rejection rejection : Rejection.values()) {
+            rejectedKeys[rejection.ordinal()] = name + "/Rejected/" + rejection.name();
+        }
+    }
+
+    /**
+     * Checks an estimate. If it passes, {@link #getStdDevs()} holds its standard deviations.
+     *
+     * @param estimate The estimate.
+     * @param yawRateDegreesPerSecond The current yaw rate of the robot.
+     * @param nowSeconds The current time, on the same time base as the estimate.
+     * @param visibility The tags the camera can see, or null to skip the check.
+     * @return The reason the estimate was rejected, or null if it passed.
+     */
+    public Rejection check(
+        PoseEstimateBuffer estimate,
+        double yawRateDegreesPerSecond,
+        double nowSeconds,
+        TagVisibilityGrid visibility
+    ) {
+        Rejection rejection = findRejection(estimate, yawRateDegreesPerSecond, nowSeconds, visibility);
+        if (rejection != null) {
+            rejected[rejection.ordinal()]++;
+            return rejection;
+        }
+
+        // Trust falls off with the square of the distance, and each tag adds a constraint. Close
+        // tags never get more trust than the floor
+        double distance = estimate.getAvgTagDist();
+        double xyStdDev = Math.max(minXYStdDev, xyStdDevCoefficient * distance * distance / estimate.getTagCount());
+        stdDevs.set(0, 0, xyStdDev);
+        stdDevs.set(1, 0, xyStdDev);
+        stdDevs.set(2, 0, thetaStdDev);
+
+        accepted++;
+        return null;
+    }
+
+    /** Finds the first reason to reject an estimate, cheapest checks first. */
+    private Rejection findRejection(
+        PoseEstimateBuffer estimate,
+        double yawRateDegreesPerSecond,
+        double nowSeconds,
+        TagVisibilityGrid visibility
+    ) {
+        if (estimate.getTagCount() == 0) {
+            return Rejection.NO_TAGS;
+        }
+        if (Math.abs(yawRateDegreesPerSecond) > maxYawRateDegreesPerSecond) {
+            return Rejection.SPINNING;
+        }
+
+        double age = nowSeconds - estimate.getTimestampSeconds();
+        if (age > maxAgeSeconds || age < 0) {
+            return Rejection.STALE;
+        }
+
+        double x = estimate.getXMeters();
+        double y = estimate.getYMeters();
+        if (
+            x < -fieldMarginMeters ||
+            x > fieldLengthMeters + fieldMarginMeters ||
+            y < -fieldMarginMeters ||
+            y > fieldWidthMeters + fieldMarginMeters
+        ) {
+            return Rejection.OUT_OF_FIELD;
+        }
+
+        if (estimate.getAvgTagDist() > maxAvgTagDistMeters) {
+            return Rejection.TOO_FAR;
+        }
+
+        // A single tag can flip between two poses, several tags constrain each other
+        if (estimate.getTagCount() == 1) {
+            FiducialBuffer fiducials = estimate.getFiducials();
+            double[] ambiguities = fiducials.getAmbiguities();
+            for (int i = 0; i < fiducials.getCount(); i++) {
+                if (ambiguities[i] > maxAmbiguity) {
+                    return Rejection.AMBIGUOUS;
+                }
+            }
+        }
+
+        if (visibility != null && !visibility.canSeeAll(estimate)) {
+            return Rejection.UNSEEABLE_TAG;
+        }
+
+        return null;
+    }
+
+    /**
+     * @return The standard deviations of the last estimate that passed. Overwritten by the next
+     *     check, pass it to the estimator right away.
+     */
+    public Matrix<N3, N1> getStdDevs() {
+        return stdDevs;
+    }
+
+    /**
+     * @return The number of estimates that passed.
+     */
+    public long getAcceptedCount() {
+        return accepted;
+    }
+
+    /**
+     * @param rejection The reason.
+     * @return The number of estimates rejected for the reason.
+     */
+    public long getRejectedCount(Rejection rejection) {
+        return rejected[rejection.ordinal()];
+    }
+
+    /** Records the number of estimates accepted and rejected for each reason. */
+    public void record() {
+        Logger.recordOutput(acceptedKey, accepted);
+        for (int i = 0; i < rejected.length; i++) {
+            Logger.recordOutput(rejectedKeys[i], rejected[i]);
+        }
+    }
+}
@@ -1,9 +1,12 @@
 package frc.robot;
 
+import edu.wpi.first.apriltag.AprilTagFields;
 import edu.wpi.first.math.Matrix;
 import edu.wpi.first.math.VecBuilder;
 import edu.wpi.first.math.numbers.N1;
 import edu.wpi.first.math.numbers.N3;
+import frc.lib.util.loggingUtil.AsyncLogWriter;
+import frc.lib.util.visionUtil.LimelightCameraConstants;
 
 public final class Constants {
 
@@ -20,12 +23,78 @@ public final class Constants {
         REPLAY,
     }
 
+    /**
+     * Whether {@link Mode#SIM} runs the loop at real time. Set to false to run as fast as possible, ex.
+     * to profile the control loop. The simulation uses a fixed time step, so the results are the same.
+     */
+    public static final boolean simRealTime = true;
+
     public static final double stickDeadband = 0.1;
 
+    public static final class Logging {
+
+        /* The buffers of the LogManager writer thread. A loop logs a few hundred values at most. */
+        public static final int asyncCapacity = 4096;
+        public static final int asyncArrayCapacity = 16384;
+
+        /** Drop values instead of stalling the loop if the writer falls behind. */
+        public static final AsyncLogWriter.DropPolicy asyncDropPolicy = AsyncLogWriter.DropPolicy.DROP_NEWEST;
+    }
+
     public static final class PoseEstimator {
 
         public static final Matrix<N3, N1> stateStdDevs = VecBuilder.fill(0.1, 0.1, 0.1);
         public static final Matrix<N3, N1> VisionStdDevs = VecBuilder.fill(0.9, 0.9, 0.9);
+
+        /** Seconds. How far back past poses can be looked up. */
+        public static final double poseHistoryWindow = 1.5;
+
+        /**
+         * The Limelights used for pose estimation. The mount of each camera is set in its web
+         * interface until it is measured on the robot, then pass the full pose so it is sent from here
+         * and the estimates are checked against the tags the camera can see.
+         */
+        public static final LimelightCameraConstants[] cameras = new LimelightCameraConstants[] {
+            new LimelightCameraConstants("limelight", 62.5),
+        };
+
+        /** The AprilTag layout of the field. */
+        public static final AprilTagFields fieldLayout = AprilTagFields.k2024Crescendo;
+
+        /* Tag Visibility
+         * Used to reject estimates with tags that could not be in view, and to filter the tags the
+         * Limelights look for */
+        /** Meters. The size of a cell of the visibility grid. */
+        public static final double visibilityCellSize = 0.5;
+        /** The number of heading bins of the visibility grid. */
+        public static final int visibilityHeadingBins = 16;
+        /** Meters. The furthest a tag can be detected from. */
+        public static final double maxTagRange = 8.0;
+        /**
+         * Seconds. The Limelights only look for the tags in view while an estimate was accepted this
+         * recently, so a wrong pose can not hide the tags that would correct it.
+         */
+        public static final double fiducialFilterTimeout = 1.0;
+
+        /* Vision Gate
+         * Estimates are checked in this order, the first failed check rejects them */
+        /** Degrees per second. MegaTag2 estimates are rejected while the robot spins faster than this. */
+        public static final double maxMegaTag2YawRate = 720;
+        /** Seconds. Estimates captured longer ago than this are rejected. */
+        public static final double maxVisionAge = 0.5;
+        /** Meters. Estimates further than this outside the field of the tag layout are rejected. */
+        public static final double fieldMargin = 0.5;
+        /** Meters. Estimates with tags further away than this on average are rejected. */
+        public static final double maxAvgTagDist = 6.0;
+        /** From 0 to 1. Single tag estimates with a more ambiguous tag are rejected. */
+        public static final double maxAmbiguity = 0.3;
+
+        /** Meters. The x and y standard deviation of a single tag 1 meter away, scaled by distance squared. */
+        public static final double visionXYStdDevCoefficient = 0.1;
+        /** Meters. The smallest x and y standard deviation, so close tags do not overwrite the odometry. */
+        public static final double minVisionXYStdDev = 0.1;
+        /** Radians. MegaTag2 takes the heading from the gyro, so the vision heading is not trusted at all. */
+        public static final double megaTag2ThetaStdDev = 9999999;
     }
 
     public static final class Arm {
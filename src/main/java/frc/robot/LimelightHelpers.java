@@ -7,6 +7,7 @@ import edu.wpi.first.networktables.NetworkTable;
 import edu.wpi.first.networktables.NetworkTableEntry;
 import edu.wpi.first.networktables.NetworkTableInstance;
 import edu.wpi.first.networktables.TimestampedDoubleArray;
+import frc.lib.util.visionUtil.LimelightHttpClient;
 import frc.robot.LimelightHelpers.LimelightResults;
 import frc.robot.LimelightHelpers.PoseEstimate;
 import edu.wpi.first.math.geometry.Pose2d;
@@ -17,8 +18,6 @@ import edu.wpi.first.math.util.Units;
 import edu.wpi.first.math.geometry.Rotation3d;
 import edu.wpi.first.math.geometry.Translation2d;
 
-import java.io.IOException;
-import java.net.HttpURLConnection;
 import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.Map;
@@ -563,9 +562,18 @@ public class LimelightHelpers {
         DoubleArrayEntry poseEntry = LimelightHelpers.getLimelightDoubleArrayEntry(limelightName, entryName);
         
         TimestampedDoubleArray tsValue = poseEntry.getAtomic();
-        double[] poseArray = tsValue.value;
-        long timestamp = tsValue.timestamp;
-        
+        return toPoseEstimate(tsValue.value, tsValue.timestamp);
+    }
+
+    /**
+     * Decodes a botpose array into a PoseEstimate. Split out of getBotPoseEstimate so the decoding
+     * can be used on values that did not come from a NetworkTables poll.
+     * 
+     * @param poseArray The botpose array published by the Limelight
+     * @param timestamp The NetworkTables timestamp of the array, in microseconds
+     * @return The PoseEstimate, or null if the array is empty
+     */
+    public static PoseEstimate toPoseEstimate(double[] poseArray, long timestamp) {
         if (poseArray.length == 0) {
             // Handle the case where no data is available
             return null; // or some default PoseEstimate
@@ -606,7 +614,17 @@ public class LimelightHelpers {
 
     private static RawFiducial[] getRawFiducials(String limelightName) {
         var entry = LimelightHelpers.getLimelightNTTableEntry(limelightName, "rawfiducials");
-        var rawFiducialArray = entry.getDoubleArray(new double[0]);
+        return toRawFiducials(entry.getDoubleArray(new double[0]));
+    }
+
+    /**
+     * Decodes a rawfiducials array. Split out of getRawFiducials so the decoding can be used on
+     * values that did not come from a NetworkTables poll.
+     * 
+     * @param rawFiducialArray The rawfiducials array published by the Limelight
+     * @return The fiducials, or an empty array if the array is malformed
+     */
+    public static RawFiducial[] toRawFiducials(double[] rawFiducialArray) {
         int valsPerEntry = 7;
         if (rawFiducialArray.length % valsPerEntry != 0) {
             return new RawFiducial[0];
@@ -633,8 +651,18 @@ public class LimelightHelpers {
 
     public static RawDetection[] getRawDetections(String limelightName) {
         var entry = LimelightHelpers.getLimelightNTTableEntry(limelightName, "rawdetections");
-        var rawDetectionArray = entry.getDoubleArray(new double[0]);
-        int valsPerEntry = 11;
+        return toRawDetections(entry.getDoubleArray(new double[0]));
+    }
+
+    /**
+     * Decodes a rawdetections array. Split out of getRawDetections so the decoding can be used on
+     * values that did not come from a NetworkTables poll.
+     * 
+     * @param rawDetectionArray The rawdetections array published by the Limelight
+     * @return The detections, or an empty array if the array is malformed
+     */
+    public static RawDetection[] toRawDetections(double[] rawDetectionArray) {
+        int valsPerEntry = 12;
         if (rawDetectionArray.length % valsPerEntry != 0) {
             return new RawDetection[0];
         }
@@ -1207,39 +1235,25 @@ public class LimelightHelpers {
     /////
 
     /**
-     * Asynchronously take snapshot.
+     * Asynchronously take snapshot. Runs on the bounded pool of {@link LimelightHttpClient}, with
+     * timeouts, instead of the common ForkJoinPool.
      */
     public static CompletableFuture<Boolean> takeSnapshot(String tableName, String snapshotName) {
-        return CompletableFuture.supplyAsync(() -> {
-            return SYNCH_TAKESNAPSHOT(tableName, snapshotName);
-        });
+        return LimelightHttpClient.getInstance().takeSnapshot(sanitizeName(tableName), snapshotName);
     }
 
-    private static boolean SYNCH_TAKESNAPSHOT(String tableName, String snapshotName) {
-        URL url = getLimelightURLString(tableName, "capturesnapshot");
-        try {
-            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
-            connection.setRequestMethod("GET");
-            if (snapshotName != null && snapshotName != "") {
-                connection.setRequestProperty("snapname", snapshotName);
-            }
-
-            int responseCode = connection.getResponseCode();
-            if (responseCode == 200) {
-                return true;
-            } else {
-                System.err.println("Bad LL Request");
-            }
-        } catch (IOException e) {
-            System.err.println(e.getMessage());
-        }
-        return false;
+    /**
+     * Parses Limelight's JSON results dump into a LimelightResults Object. Parses on the calling
+     * thread, use LimelightResultsService to keep the parsing off the robot loop.
+     */
+    public static LimelightResults getLatestResults(String limelightName) {
+        return parseResults(getJSONDump(limelightName));
     }
 
     /**
-     * Parses Limelight's JSON results dump into a LimelightResults Object
+     * Parses a Limelight JSON results dump into a LimelightResults Object
      */
-    public static LimelightResults getLatestResults(String limelightName) {
+    public static LimelightResults parseResults(String json) {
 
         long start = System.nanoTime();
         LimelightHelpers.LimelightResults results = new LimelightHelpers.LimelightResults();
@@ -1248,7 +1262,7 @@ public class LimelightHelpers {
         }
 
         try {
-            results = mapper.readValue(getJSONDump(limelightName), LimelightResults.class);
+            results = mapper.readValue(json, LimelightResults.class);
         } catch (JsonProcessingException e) {
             results.error = "lljson error: " + e.getMessage();
         }
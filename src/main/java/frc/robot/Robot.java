@@ -6,7 +6,14 @@ package frc.robot;
 
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.CommandScheduler;
+import frc.lib.util.canUtil.PhoenixSignals;
+import frc.lib.util.canUtil.SparkHealthMonitor;
+import frc.lib.util.canUtil.SparkOutput;
+import frc.lib.util.canUtil.StatusFrameManager;
+import frc.lib.util.canUtil.StatusFrameManager.RobotMode;
 import frc.lib.util.loggingUtil.LogManager;
+import frc.lib.util.loggingUtil.LogSchedule;
+import frc.lib.util.loggingUtil.LoopProfiler;
 // Advantage kit utils
 import org.littletonrobotics.junction.LogFileUtil;
 import org.littletonrobotics.junction.LoggedRobot;
@@ -33,6 +40,11 @@ public class Robot extends LoggedRobot {
     private String autoSelected;
     private final LoggedDashboardChooser<String> chooser = new LoggedDashboardChooser<>("Auto Choices");
 
+    /* Timed sections of robotPeriodic. Subsystems and commands time their own sections. */
+    private final LoopProfiler.Section periodicSection = LoopProfiler.section("Robot/Periodic");
+    private final LoopProfiler.Section schedulerSection = LoopProfiler.section("Robot/Scheduler");
+    private final LoopProfiler.Section loggingSection = LoopProfiler.section("Robot/Logging");
+
     /**
      * This function is run when the robot is first started up and should be used for any
      * initialization code.
@@ -63,9 +75,17 @@ public class Robot extends LoggedRobot {
                 // Running on a real robot, log to a USB stick ("/U/logs")
                 Logger.addDataReceiver(new WPILOGWriter());
                 Logger.addDataReceiver(new NT4Publisher());
+
+                // Append the LogManager entries on their own thread, the loop only copies the values
+                LogManager.startAsyncWriter(
+                    Constants.Logging.asyncCapacity,
+                    Constants.Logging.asyncArrayCapacity,
+                    Constants.Logging.asyncDropPolicy
+                );
                 break;
             case SIM:
                 // Running a physics simulator, log to NT
+                setUseTiming(Constants.simRealTime);
                 Logger.addDataReceiver(new NT4Publisher());
                 break;
             case REPLAY:
@@ -90,6 +110,14 @@ public class Robot extends LoggedRobot {
         // Instantiate our RobotContainer.  This will perform all our button bindings, and put our
         // autonomous chooser on the dashboard.
         m_robotContainer = new RobotContainer();
+
+        // Every motor has been registered, start polling faults
+        SparkHealthMonitor.start();
+
+        // Compare the CAN load of the status frame profiles without a robot
+        if (Constants.currentMode == Constants.Mode.SIM) {
+            StatusFrameManager.reportBusLoad();
+        }
     }
 
     /**
@@ -101,17 +129,42 @@ public class Robot extends LoggedRobot {
      */
     @Override
     public void robotPeriodic() {
+        periodicSection.begin();
+
+        // Start a new loop of the logging schedule, so everything this loop agrees on what is due
+        LogSchedule.advance();
+
+        // Refresh every Phoenix status signal at once, so every consumer this loop sees the same values
+        PhoenixSignals.refreshAll();
+
         // Runs the Scheduler.  This is responsible for polling buttons, adding newly-scheduled
         // commands, running already-scheduled commands, removing finished or interrupted commands,
         // and running subsystem periodic() methods.  This must be called from the robot's periodic
         // block in order for anything in the Command-based framework to work.
+        schedulerSection.begin();
         CommandScheduler.getInstance().run();
+        schedulerSection.end();
+
+        loggingSection.begin();
         LogManager.log();
+        SparkOutput.recordAll();
+        SparkHealthMonitor.recordAll();
+
+        // Put the status frame periods back on controllers that reset
+        StatusFrameManager.checkForResets();
+        loggingSection.end();
+
+        periodicSection.end();
+
+        // Record the loop timing histograms once per second
+        LoopProfiler.publish();
     }
 
     /** This function is called once each time the robot enters Disabled mode. */
     @Override
-    public void disabledInit() {}
+    public void disabledInit() {
+        StatusFrameManager.setMode(RobotMode.DISABLED);
+    }
 
     @Override
     public void disabledPeriodic() {}
@@ -119,6 +172,8 @@ public class Robot extends LoggedRobot {
     /** This autonomous runs the autonomous command selected by your {@link RobotContainer} class. */
     @Override
     public void autonomousInit() {
+        StatusFrameManager.setMode(RobotMode.AUTO);
+
         m_autonomousCommand = m_robotContainer.getAutonomousCommand();
 
         // schedule the autonomous command (example)
@@ -133,6 +188,8 @@ public class Robot extends LoggedRobot {
 
     @Override
     public void teleopInit() {
+        StatusFrameManager.setMode(RobotMode.TELEOP);
+
         // This makes sure that the autonomous stops running when
         // teleop starts running. If you want the autonomous to
         // continue until interrupted by another command, remove
@@ -148,6 +205,8 @@ public class Robot extends LoggedRobot {
 
     @Override
     public void testInit() {
+        StatusFrameManager.setMode(RobotMode.TELEOP);
+
         // Cancels all running commands at the start of test mode.
         CommandScheduler.getInstance().cancelAll();
     }
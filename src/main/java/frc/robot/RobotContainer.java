@@ -4,11 +4,16 @@ import edu.wpi.first.wpilibj.GenericHID;
 import edu.wpi.first.wpilibj.XboxController;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.InstantCommand;
+import frc.lib.util.loggingUtil.LoopProfiler;
+import frc.lib.util.visionUtil.AprilTagIndex;
 import frc.robot.commands.*;
 import frc.robot.subsystems.ArmSubsystem;
 import frc.robot.subsystems.IntakeSubsystem;
 import frc.robot.subsystems.LauncherSubsystem;
 import frc.robot.subsystems.PoseEstimator;
+import frc.robot.subsystems.VisionIO;
+import frc.robot.subsystems.VisionIOLimelight;
+import frc.robot.subsystems.VisionManager;
 import frc.robot.subsystems.swerve.Swerve;
 
 /**
@@ -21,7 +26,14 @@ public class RobotContainer {
 
     /* Subsystems */
     private final Swerve s_Swerve = new Swerve();
-    private final PoseEstimator s_PoseEstimator = new PoseEstimator();
+    private final VisionManager s_Vision = new VisionManager(
+        Constants.currentMode == Constants.Mode.REPLAY
+            ? new VisionIO() {}
+            : new VisionIOLimelight(Constants.PoseEstimator.cameras),
+        new AprilTagIndex(Constants.PoseEstimator.fieldLayout.loadAprilTagLayoutField()),
+        Constants.PoseEstimator.cameras
+    );
+    private final PoseEstimator s_PoseEstimator = new PoseEstimator(s_Swerve, s_Vision);
     private final IntakeSubsystem m_intake = new IntakeSubsystem();
     private final ArmSubsystem m_arm = new ArmSubsystem();
     private final LauncherSubsystem m_launcher = new LauncherSubsystem();
@@ -29,14 +41,17 @@ public class RobotContainer {
     /** The container for the robot. Contains subsystems, OI devices, and commands. */
     public RobotContainer() {
         s_Swerve.setDefaultCommand(
-            new TeleopSwerve(
-                s_Swerve,
-                () -> -Controls.driverController.getRawAxis(Controls.Drive.translationAxis),
-                () -> -Controls.driverController.getRawAxis(Controls.Drive.strafeAxis),
-                () -> -Controls.driverController.getRawAxis(Controls.Drive.rotationAxis),
-                () -> false,
-                () -> Controls.Drive.dampen.getAsBoolean(),
-                () -> 1 // speed multiplier
+            LoopProfiler.profile(
+                "TeleopSwerve",
+                new TeleopSwerve(
+                    s_Swerve,
+                    () -> -Controls.driverController.getRawAxis(Controls.Drive.translationAxis),
+                    () -> -Controls.driverController.getRawAxis(Controls.Drive.strafeAxis),
+                    () -> -Controls.driverController.getRawAxis(Controls.Drive.rotationAxis),
+                    () -> false,
+                    () -> Controls.Drive.dampen.getAsBoolean(),
+                    () -> 1 // speed multiplier
+                )
             )
         );
 
@@ -71,17 +86,22 @@ public class RobotContainer {
         // Up system bindings
         // TODO: Switch up system to event commands
         // Note: on the Logitech controller, x and a are swapped
-        Controls.upController.b().whileTrue(m_intake.intake());
-        Controls.upController.x().whileTrue(m_intake.eintake());
-        Controls.upController.rightBumper().whileTrue(m_arm.up());
-        Controls.upController.leftBumper().whileTrue(m_arm.down());
+        // Commands that run every loop are wrapped so their execute time is profiled
+        Controls.upController.b().whileTrue(LoopProfiler.profile("Intake/Intake", m_intake.intake()));
+        Controls.upController.x().whileTrue(LoopProfiler.profile("Intake/EIntake", m_intake.eintake()));
+        Controls.upController.rightBumper().whileTrue(LoopProfiler.profile("Arm/Up", m_arm.up()));
+        Controls.upController.leftBumper().whileTrue(LoopProfiler.profile("Arm/Down", m_arm.down()));
         // Controls.Up.intake.whileTrue(m_intake.intake());
         // Controls.Up.eintake.whileTrue(m_intake.eintake());
         // Controls.Up.armUp.whileTrue(m_arm.up());
         // Controls.Up.armDown.whileTrue(m_arm.down());
 
-        Controls.upController.leftTrigger(0.75).whileTrue(m_launcher.pushOut());
-        Controls.upController.rightTrigger(0.75).whileTrue(m_launcher.pushIn());
+        Controls.upController
+            .leftTrigger(0.75)
+            .whileTrue(LoopProfiler.profile("Launcher/PushOut", m_launcher.pushOut()));
+        Controls.upController
+            .rightTrigger(0.75)
+            .whileTrue(LoopProfiler.profile("Launcher/PushIn", m_launcher.pushIn()));
         // Controls.upController.axisGreaterThan(Controls.Up.launcherInAxis).ifHigh(m_launcher.pushIn());
     }
 
@@ -5,11 +5,16 @@ import com.revrobotics.CANSparkLowLevel.MotorType;
 import com.revrobotics.CANSparkMax;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.lib.util.canUtil.SparkHealthMonitor;
+import frc.lib.util.canUtil.SparkOutput;
+import frc.lib.util.canUtil.StatusFrameManager;
+import frc.lib.util.canUtil.StatusFrameProfile;
 import frc.robot.Constants;
 
 public class IntakeSubsystem extends SubsystemBase {
 
     private CANSparkMax m_motor;
+    private SparkOutput m_output;
 
     private double m_power = -1;
     private double m_epower = .50;
@@ -20,15 +25,29 @@ public class IntakeSubsystem extends SubsystemBase {
         m_motor = new CANSparkMax(Constants.Intake.kCanId, MotorType.kBrushed);
         m_motor.setIdleMode(IdleMode.kBrake);
         m_motor.burnFlash();
+
+        // slow down the status frames, nothing reads them
+        StatusFrameManager.register(
+            "Intake",
+            m_motor,
+            StatusFrameProfile.MECHANISM_DISABLED,
+            StatusFrameProfile.MECHANISM
+        );
+
+        // watch for faults in the background
+        SparkHealthMonitor.register("Intake", m_motor);
+
+        // only send a new output when it changes
+        m_output = new SparkOutput("Intake", m_motor);
     }
 
     public Command intake() {
         return startEnd(
             () -> {
-                m_motor.set(m_power);
+                m_output.set(m_power);
             },
             () -> {
-                m_motor.set(0);
+                m_output.set(0);
             }
         );
     }
@@ -36,10 +55,10 @@ public class IntakeSubsystem extends SubsystemBase {
     public Command eintake() {
         return startEnd(
             () -> {
-                m_motor.set(m_epower);
+                m_output.set(m_epower);
             },
             () -> {
-                m_motor.set(0);
+                m_output.set(0);
             }
         );
     }
@@ -5,6 +5,11 @@ import com.revrobotics.CANSparkLowLevel;
 import com.revrobotics.CANSparkMax;
 import edu.wpi.first.wpilibj2.command.Command;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.lib.util.canUtil.SparkHealthMonitor;
+import frc.lib.util.canUtil.SparkOutput;
+import frc.lib.util.canUtil.StatusFrameManager;
+import frc.lib.util.canUtil.StatusFrameProfile;
+import frc.lib.util.loggingUtil.LoopProfiler;
 import frc.robot.Constants;
 
 public class LauncherSubsystem extends SubsystemBase {
@@ -12,8 +17,13 @@ public class LauncherSubsystem extends SubsystemBase {
     private CANSparkMax m_topMotor;
     private CANSparkMax m_bottomMotor;
 
+    private SparkOutput m_topOutput;
+    private SparkOutput m_bottomOutput;
+
     private boolean m_launcherRunning;
 
+    private final LoopProfiler.Section m_periodicSection = LoopProfiler.section("Subsystems/Launcher");
+
     /** Creates a new LauncherSubsystem. */
     public LauncherSubsystem() {
         // create two new SPARK MAXs and configure them
@@ -31,6 +41,28 @@ public class LauncherSubsystem extends SubsystemBase {
 
         m_bottomMotor.burnFlash();
 
+        // slow down the status frames, nothing reads them
+        StatusFrameManager.register(
+            "Launcher/Top",
+            m_topMotor,
+            StatusFrameProfile.MECHANISM_DISABLED,
+            StatusFrameProfile.MECHANISM
+        );
+        StatusFrameManager.register(
+            "Launcher/Bottom",
+            m_bottomMotor,
+            StatusFrameProfile.MECHANISM_DISABLED,
+            StatusFrameProfile.MECHANISM
+        );
+
+        // watch for faults in the background
+        SparkHealthMonitor.register("Launcher/Top", m_topMotor);
+        SparkHealthMonitor.register("Launcher/Bottom", m_bottomMotor);
+
+        // only send a new output when it changes
+        m_topOutput = new SparkOutput("Launcher/Top", m_topMotor);
+        m_bottomOutput = new SparkOutput("Launcher/Bottom", m_bottomMotor);
+
         m_launcherRunning = false;
     }
 
@@ -52,20 +84,24 @@ public class LauncherSubsystem extends SubsystemBase {
 
     @Override
     public void periodic() { // this method will be called once per scheduler run
+        m_periodicSection.begin();
+
         // set the launcher motor powers based on whether the launcher is on or not
         if (m_launcherRunning) {
-            m_topMotor.set(Constants.Launcher.kTopPower);
-            m_bottomMotor.set(Constants.Launcher.kBottomPower);
+            m_topOutput.set(Constants.Launcher.kTopPower);
+            m_bottomOutput.set(Constants.Launcher.kBottomPower);
         } else {
-            m_topMotor.set(0.0);
-            m_bottomMotor.set(0.0);
+            m_topOutput.set(0.0);
+            m_bottomOutput.set(0.0);
         }
+
+        m_periodicSection.end();
     }
 
     public Command pushOut() {
         return run(() -> {
-            m_topMotor.set(Constants.Launcher.kTopPower);
-            m_bottomMotor.set(Constants.Launcher.kBottomPower);
+            m_topOutput.set(Constants.Launcher.kTopPower);
+            m_bottomOutput.set(Constants.Launcher.kBottomPower);
         });
         // startEnd(
         //     () -> {
@@ -78,8 +114,8 @@ public class LauncherSubsystem extends SubsystemBase {
 
     public Command pushIn() {
         return run(() -> {
-            m_topMotor.set(Constants.Launcher.kTopPowerIn);
-            m_bottomMotor.set(Constants.Launcher.kBottomPowerIn);
+            m_topOutput.set(Constants.Launcher.kTopPowerIn);
+            m_bottomOutput.set(Constants.Launcher.kBottomPowerIn);
         });
     }
 }
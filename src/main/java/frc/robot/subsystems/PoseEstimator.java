@@ -4,23 +4,105 @@
 
 package frc.robot.subsystems;
 
+import edu.wpi.first.math.Matrix;
 import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
 import edu.wpi.first.math.geometry.Pose2d;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.math.numbers.N1;
+import edu.wpi.first.math.numbers.N3;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
+import frc.lib.math.PoseHistory;
+import frc.lib.util.loggingUtil.LoopProfiler;
+import frc.lib.util.visionUtil.AprilTagIndex;
+import frc.lib.util.visionUtil.PoseEstimateBuffer;
+import frc.lib.util.visionUtil.TagVisibilityGrid;
+import frc.lib.util.visionUtil.VisionGate;
 import frc.robot.Constants;
+import frc.robot.subsystems.swerve.Swerve;
 import frc.robot.subsystems.swerve.SwerveConfig;
+import org.littletonrobotics.junction.Logger;
 
+/**
+ * Fuses the swerve odometry with Limelight MegaTag2 estimates. Every odometry sample is added with
+ * its own timestamp, so the estimator's pose history matches when the sensors were read, and vision
+ * estimates are applied at the time the frame was captured. The estimates of every camera come from
+ * the {@link VisionManager}, merged oldest first, and are applied exactly once.
+ *
+ * <p>Must be created after {@link Swerve}, so its periodic runs after the odometry samples for the
+ * loop have been read.
+ */
 public class PoseEstimator extends SubsystemBase {
 
-    /** Creates a new PoseEstimator. */
+    /** The pose estimator. Fed the odometry samples from {@link Swerve} and vision estimates. */
     public SwerveDrivePoseEstimator sEstimator;
 
+    /** The last vision estimate that was applied. */
     public Pose2d visionPose = new Pose2d();
 
-    public PoseEstimator() {
-        sEstimator = new SwerveDrivePoseEstimator(
+    /** The swerve subsystem. Provides the odometry samples and the yaw. */
+    private final Swerve swerve;
+
+    /**
+     * The fused pose after every odometry sample, for looking up past poses. Holds what the
+     * estimator believed at each time, later vision estimates do not rewrite it.
+     */
+    private final PoseHistory poseHistory = new PoseHistory(
+        Constants.PoseEstimator.poseHistoryWindow,
+        (int) Math.ceil(Constants.PoseEstimator.poseHistoryWindow * SwerveConfig.odometryFrequency) + 1
+    );
+
+    /** The time the last vision estimate was accepted, in seconds. */
+    private double lastVisionTimestamp = Double.NEGATIVE_INFINITY;
+
+    /** The cameras. Provides the MegaTag2 estimates. */
+    private final VisionManager vision;
+
+    /** Rejects estimates before they reach the estimator, and scales the trust of the rest. */
+    private final VisionGate visionGate;
+
+    /** Applies each estimate, created once so processing the frames does not allocate. */
+    private final VisionManager.MeasurementConsumer visionConsumer = this::addVisionEstimate;
+
+    private final LoopProfiler.Section periodicSection = LoopProfiler.section("Subsystems/PoseEstimator");
+
+    /**
+     * Creates a new PoseEstimator.
+     *
+     * @param swerve The swerve subsystem. Must be created before this.
+     * @param vision The cameras.
+     */
+    public PoseEstimator(Swerve swerve, VisionManager vision) {
+        this.swerve = swerve;
+        this.vision = vision;
+
+        AprilTagIndex tagIndex = vision.getTagIndex();
+        visionGate = new VisionGate(
+            "Vision/Gate",
+            Constants.PoseEstimator.maxMegaTag2YawRate,
+            Constants.PoseEstimator.maxVisionAge,
+            tagIndex.getFieldLength(),
+            tagIndex.getFieldWidth(),
+            Constants.PoseEstimator.fieldMargin,
+            Constants.PoseEstimator.maxAvgTagDist,
+            Constants.PoseEstimator.maxAmbiguity,
+            Constants.PoseEstimator.visionXYStdDevCoefficient,
+            Constants.PoseEstimator.minVisionXYStdDev,
+            Constants.PoseEstimator.megaTag2ThetaStdDev
+        );
+
+        sEstimator = createEstimator(Constants.PoseEstimator.stateStdDevs);
+    }
+
+    /**
+     * Creates the estimator for the swerve drive, at the origin. Shared with the vision replay, so
+     * offline runs use the same estimator as the robot.
+     *
+     * @param stateStdDevs The standard deviations of the odometry. Meters, meters, radians.
+     * @return The estimator.
+     */
+    public static SwerveDrivePoseEstimator createEstimator(Matrix<N3, N1> stateStdDevs) {
+        return new SwerveDrivePoseEstimator(
             SwerveConfig.swerveKinematics,
             new Rotation2d(),
             new SwerveModulePosition[] {
@@ -30,13 +112,99 @@ public class PoseEstimator extends SubsystemBase {
                 new SwerveModulePosition(),
             },
             new Pose2d(),
-            Constants.PoseEstimator.stateStdDevs,
+            stateStdDevs,
             Constants.PoseEstimator.VisionStdDevs
         );
     }
 
     @Override
     public void periodic() {
-        // This method will be called once per scheduler run
+        periodicSection.begin();
+
+        // Add every odometry sample from this loop at the time it was taken
+        for (int i = 0; i < swerve.getOdometrySampleCount(); i++) {
+            double timestamp = swerve.getOdometryTimestamp(i);
+            Pose2d pose = sEstimator.updateWithTime(
+                timestamp,
+                swerve.getOdometryYaw(i),
+                swerve.getOdometryPositions(i)
+            );
+            poseHistory.addSample(timestamp, pose);
+        }
+
+        // MegaTag2 solves with the heading we give it, send it for the next frame
+        Pose2d estimatedPose = sEstimator.getEstimatedPosition();
+        vision.setRobotOrientation(estimatedPose.getRotation().getDegrees(), swerve.getYawRateDegreesPerSecond());
+
+        // Only look for the tags in view while vision agrees with the pose
+        double visionAge = Logger.getTimestamp() / 1e6 - lastVisionTimestamp;
+        vision.updateFiducialFilters(
+            estimatedPose.getX(),
+            estimatedPose.getY(),
+            estimatedPose.getRotation().getRadians(),
+            visionAge < Constants.PoseEstimator.fiducialFilterTimeout
+        );
+
+        // Apply every estimate received since the last loop, oldest first
+        vision.processFrames(visionConsumer);
+        visionGate.record();
+
+        Logger.recordOutput("PoseEstimator/Pose", getPose());
+        Logger.recordOutput("PoseEstimator/VisionPose", visionPose);
+
+        periodicSection.end();
+    }
+
+    /**
+     * Adds a MegaTag2 estimate, at the time its frame was captured. The estimator replays the
+     * odometry since then on top of it, so estimates the {@link VisionGate} rejects are skipped
+     * before that cost is paid.
+     *
+     * @param camera The index of the camera the estimate came from.
+     * @param estimate The estimate. Pooled, so only the pose is kept.
+     */
+    private void addVisionEstimate(int camera, PoseEstimateBuffer estimate) {
+        double nowSeconds = Logger.getTimestamp() / 1e6;
+        TagVisibilityGrid visibility = vision.getVisibilityGrid(camera);
+        if (visionGate.check(estimate, swerve.getYawRateDegreesPerSecond(), nowSeconds, visibility) != null) {
+            return;
+        }
+        lastVisionTimestamp = nowSeconds;
+
+        visionPose = estimate.toPose2d();
+        sEstimator.addVisionMeasurement(visionPose, estimate.getTimestampSeconds(), visionGate.getStdDevs());
+
+        Logger.recordOutput("PoseEstimator/VisionTagCount", estimate.getTagCount());
+        double latencySeconds = nowSeconds - estimate.getTimestampSeconds();
+        Logger.recordOutput("PoseEstimator/VisionLatencySeconds", latencySeconds);
+    }
+
+    /**
+     * @return The fused pose of the robot, on the blue alliance origin.
+     */
+    public Pose2d getPose() {
+        return sEstimator.getEstimatedPosition();
+    }
+
+    /**
+     * Resets the fused pose.
+     *
+     * @param pose The new pose of the robot.
+     */
+    public void resetPose(Pose2d pose) {
+        sEstimator.resetPosition(swerve.getYaw(), swerve.getModulePositions(), pose);
+        poseHistory.clear();
+    }
+
+    /**
+     * Looks up the fused pose at a past time, ex. when a frame was captured or a note was shot.
+     * Does not allocate.
+     *
+     * @param timestampSeconds The time, on the odometry time base.
+     * @param out The array to write x, y and heading in radians to.
+     * @return Whether there was a pose. False until the first odometry sample.
+     */
+    public boolean getPoseAt(double timestampSeconds, double[] out) {
+        return poseHistory.sample(timestampSeconds, out);
     }
 }
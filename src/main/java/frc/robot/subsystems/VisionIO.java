@@ -0,0 +1,56 @@
+package frc.robot.subsystems;
+
+import org.littletonrobotics.junction.AutoLog;
+
+/**
+ * The Limelights. Every frame received since the last loop is copied into the inputs in {@link
+ * #updateInputs}, once per loop, so the {@link PoseEstimator} only sees logged values and replays
+ * exactly. The default implementations do nothing, which is what replay uses.
+ */
+public interface VisionIO {
+    @AutoLog
+    public static class VisionIOInputs {
+
+        /* The MegaTag2 estimates received since the last loop, oldest first, one element per frame. */
+        /** The index of the camera each frame came from. */
+        public int[] cameras = new int[] {};
+        /** The capture time of each frame, in seconds. */
+        public double[] timestamps = new double[] {};
+        public double[] xMeters = new double[] {};
+        public double[] yMeters = new double[] {};
+        public double[] yawDegrees = new double[] {};
+        public int[] tagCounts = new int[] {};
+        public double[] avgTagDists = new double[] {};
+
+        /** The number of fiducials each frame reported, its fiducials follow the previous frame's. */
+        public int[] fiducialCounts = new int[] {};
+        public int[] fiducialIds = new int[] {};
+        public double[] fiducialAmbiguities = new double[] {};
+    }
+
+    /**
+     * Copies the frames received since the last call into the inputs.
+     *
+     * @param inputs The inputs to update.
+     */
+    public default void updateInputs(VisionIOInputs inputs) {}
+
+    /**
+     * Sends the robot heading to every camera, for MegaTag2.
+     *
+     * @param yawDegrees The heading of the robot on the blue alliance origin.
+     * @param yawRateDegreesPerSecond The yaw rate of the robot.
+     */
+    public default void setRobotOrientation(double yawDegrees, double yawRateDegreesPerSecond) {}
+
+    /**
+     * Tells a camera to only look for some tags.
+     *
+     * @param camera The index of the camera.
+     * @param ids The ids of the tags.
+     */
+    public default void setFiducialFilter(int camera, int[] ids) {}
+
+    /** Stops receiving frames. */
+    public default void close() {}
+}
@@ -0,0 +1,206 @@
+package frc.robot.subsystems;
+
+import frc.lib.util.visionUtil.FiducialBuffer;
+import frc.lib.util.visionUtil.LimelightCameraConstants;
+import frc.lib.util.visionUtil.LimelightFrame;
+import frc.lib.util.visionUtil.LimelightHttpClient;
+import frc.lib.util.visionUtil.LimelightSubscriber;
+import frc.lib.util.visionUtil.PoseEstimateBuffer;
+import frc.robot.LimelightHelpers;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Limelights on NetworkTables. Each camera decodes its frames on its own {@link
+ * LimelightSubscriber} thread, so the cameras are processed in parallel. {@link #updateInputs}
+ * only merges the already decoded MegaTag2 estimates of all cameras, oldest first, and copies their
+ * primitive fields into the inputs.
+ */
+public class VisionIOLimelight implements VisionIO {
+
+    /* Shared by every loop without frames, empty arrays can not be changed. */
+    private static final int[] NO_INTS = new int[0];
+    private static final double[] NO_DOUBLES = new double[0];
+
+    /** The subscribers, one per camera. */
+    private final LimelightSubscriber[] cameras;
+
+    /* The MegaTag2 frames drained this loop and the index of the camera each came from. */
+    private final LimelightFrame[] pendingFrames;
+    private final int[] pendingCameras;
+    private int pendingCount = 0;
+
+    /* The log keys of each camera, built once so recording does not concatenate strings. */
+    private final String[] tagCountKeys;
+    private final String[] detectionCountKeys;
+
+    /**
+     * Creates a new VisionIOLimelight and starts receiving frames from every camera.
+     *
+     * @param cameraConstants The cameras.
+     */
+    public VisionIOLimelight(LimelightCameraConstants... cameraConstants) {
+        cameras = new LimelightSubscriber[cameraConstants.length];
+        tagCountKeys = new String[cameraConstants.length];
+        detectionCountKeys = new String[cameraConstants.length];
+
+        for (int i = 0; i < cameraConstants.length; i++) {
+            LimelightCameraConstants constants = cameraConstants[i];
+            String name = constants.name;
+
+            // Tell the Limelight where it is mounted, so its poses are of the robot and not the camera.
+            // Without a measured pose, keep the mount set in its web interface
+            if (constants.sendPose) {
+                LimelightHelpers.setCameraPose_RobotSpace(
+                    name,
+                    constants.forwardMeters,
+                    constants.sideMeters,
+                    constants.upMeters,
+                    constants.rollDegrees,
+                    constants.pitchDegrees,
+                    constants.yawDegrees
+                );
+            }
+
+            cameras[i] = new LimelightSubscriber(name);
+            tagCountKeys[i] = "Vision/" + name + "/TagCount";
+            detectionCountKeys[i] = "Vision/" + name + "/DetectionCount";
+        }
+
+        // Every pooled frame of every camera can be pending at once
+        pendingFrames = new LimelightFrame[cameraConstants.length * LimelightSubscriber.POOL_SIZE];
+        pendingCameras = new int[pendingFrames.length];
+    }
+
+    @Override
+    public void updateInputs(VisionIOInputs inputs) {
+        // Drain every camera, keeping the estimates and recording the rest
+        for (int i = 0; i < cameras.length; i++) {
+            LimelightFrame frame;
+            while ((frame = cameras[i].poll()) != null) {
+                switch (frame.getType()) {
+                    case MEGATAG2:
+                        insertPending(frame, i);
+                        continue;
+                    case RAW_FIDUCIALS:
+                        Logger.recordOutput(tagCountKeys[i], frame.getRawFiducials().getCount());
+                        break;
+                    case RAW_DETECTIONS:
+                        Logger.recordOutput(detectionCountKeys[i], frame.getRawDetections().getCount());
+                        break;
+                }
+                cameras[i].release(frame);
+            }
+            cameras[i].record();
+        }
+        LimelightHttpClient.getInstance().record();
+
+        copyPending(inputs);
+    }
+
+    /**
+     * Copies the pending frames into the inputs, in capture order, then gives them back. The arrays
+     * are new every loop with frames, the logged inputs keep a reference to them.
+     */
+    private void copyPending(VisionIOInputs inputs) {
+        if (pendingCount == 0) {
+            inputs.cameras = NO_INTS;
+            inputs.timestamps = NO_DOUBLES;
+            inputs.xMeters = NO_DOUBLES;
+            inputs.yMeters = NO_DOUBLES;
+            inputs.yawDegrees = NO_DOUBLES;
+            inputs.tagCounts = NO_INTS;
+            inputs.avgTagDists = NO_DOUBLES;
+            inputs.fiducialCounts = NO_INTS;
+            inputs.fiducialIds = NO_INTS;
+            inputs.fiducialAmbiguities = NO_DOUBLES;
+            return;
+        }
+
+        int fiducialTotal = 0;
+        for (int i = 0; i < pendingCount; i++) {
+            fiducialTotal += pendingFrames[i].getPoseEstimate().getFiducials().getCount();
+        }
+
+        inputs.cameras = new int[pendingCount];
+        inputs.timestamps = new double[pendingCount];
+        inputs.xMeters = new double[pendingCount];
+        inputs.yMeters = new double[pendingCount];
+        inputs.yawDegrees = new double[pendingCount];
+        inputs.tagCounts = new int[pendingCount];
+        inputs.avgTagDists = new double[pendingCount];
+        inputs.fiducialCounts = new int[pendingCount];
+        inputs.fiducialIds = new int[fiducialTotal];
+        inputs.fiducialAmbiguities = new double[fiducialTotal];
+
+        int fiducialIndex = 0;
+        for (int i = 0; i < pendingCount; i++) {
+            PoseEstimateBuffer estimate = pendingFrames[i].getPoseEstimate();
+            inputs.cameras[i] = pendingCameras[i];
+            inputs.timestamps[i] = estimate.getTimestampSeconds();
+            inputs.xMeters[i] = estimate.getXMeters();
+            inputs.yMeters[i] = estimate.getYMeters();
+            inputs.yawDegrees[i] = estimate.getYawDegrees();
+            inputs.tagCounts[i] = estimate.getTagCount();
+            inputs.avgTagDists[i] = estimate.getAvgTagDist();
+
+            FiducialBuffer fiducials = estimate.getFiducials();
+            int count = fiducials.getCount();
+            inputs.fiducialCounts[i] = count;
+            System.arraycopy(fiducials.getIds(), 0, inputs.fiducialIds, fiducialIndex, count);
+            System.arraycopy(fiducials.getAmbiguities(), 0, inputs.fiducialAmbiguities, fiducialIndex, count);
+            fiducialIndex += count;
+
+            cameras[pendingCameras[i]].release(pendingFrames[i]);
+            pendingFrames[i] = null;
+        }
+        pendingCount = 0;
+    }
+
+    /**
+     * Adds a frame to the pending frames, sorted by capture time. Each camera's frames already
+     * arrive in order, so this rarely moves more than a few frames.
+     */
+    private void insertPending(LimelightFrame frame, int camera) {
+        double timestamp = frame.getPoseEstimate().getTimestampSeconds();
+
+        int index = pendingCount;
+        while (index > 0 && pendingFrames[index - 1].getPoseEstimate().getTimestampSeconds() > timestamp) {
+            pendingFrames[index] = pendingFrames[index - 1];
+            pendingCameras[index] = pendingCameras[index - 1];
+            index--;
+        }
+
+        pendingFrames[index] = frame;
+        pendingCameras[index] = camera;
+        pendingCount++;
+    }
+
+    @Override
+    public void setRobotOrientation(double yawDegrees, double yawRateDegreesPerSecond) {
+        // Flush once for every camera
+        for (LimelightSubscriber camera : cameras) {
+            LimelightHelpers.SetRobotOrientation_NoFlush(
+                camera.getCamera(),
+                yawDegrees,
+                yawRateDegreesPerSecond,
+                0,
+                0,
+                0,
+                0
+            );
+        }
+        LimelightHelpers.Flush();
+    }
+
+    @Override
+    public void setFiducialFilter(int camera, int[] ids) {
+        LimelightHelpers.SetFiducialIDFiltersOverride(cameras[camera].getCamera(), ids);
+    }
+
+    @Override
+    public void close() {
+        for (LimelightSubscriber camera : cameras) {
+            camera.close();
+        }
+    }
+}
@@ -0,0 +1,184 @@
+package frc.robot.subsystems;
+
+import frc.lib.util.visionUtil.AprilTagIndex;
+import frc.lib.util.visionUtil.LimelightCameraConstants;
+import frc.lib.util.visionUtil.PoseEstimateBuffer;
+import frc.lib.util.visionUtil.TagVisibilityGrid;
+import frc.robot.Constants;
+import org.littletonrobotics.junction.Logger;
+
+/**
+ * Owns every Limelight used for pose estimation. The {@link VisionIO} merges the MegaTag2
+ * estimates of all cameras, oldest first, into logged inputs once per loop, so the pose estimator
+ * replays its history as few times as possible, and gets the same estimates in replay.
+ */
+public class VisionManager implements AutoCloseable {
+
+    /** Receives the merged MegaTag2 estimates. */
+    @FunctionalInterface
+    public interface MeasurementConsumer {
+        /**
+         * Called for every estimate, oldest first.
+         *
+         * @param camera The index of the camera the estimate came from.
+         * @param estimate The estimate. Reused for every estimate, copy anything that is kept.
+         */
+        void accept(int camera, PoseEstimateBuffer estimate);
+    }
+
+    /** The cameras, or nothing in replay. */
+    private final VisionIO io;
+
+    /** The frames received this loop, from the cameras or the log. */
+    private final VisionIOInputsAutoLogged inputs = new VisionIOInputsAutoLogged();
+
+    /** The estimate handed to the consumer, filled from the inputs. */
+    private final PoseEstimateBuffer estimate = new PoseEstimateBuffer();
+
+    /** The tags on the field. */
+    private final AprilTagIndex tagIndex;
+
+    /** The names of the cameras. */
+    private final String[] cameraNames;
+
+    /** The tags each camera can see from a pose, null for cameras without a measured mount. */
+    private final TagVisibilityGrid[] visibilityGrids;
+
+    /** The tags each camera was last told to look for, to only send the filter when it changes. */
+    private final long[] fiducialFilters;
+
+    /**
+     * Creates a new VisionManager.
+     *
+     * @param io The cameras. Must be created with the same cameras.
+     * @param tagIndex The tags on the field.
+     * @param cameraConstants The cameras.
+     */
+    public VisionManager(VisionIO io, AprilTagIndex tagIndex, LimelightCameraConstants... cameraConstants) {
+        this.io = io;
+        this.tagIndex = tagIndex;
+        cameraNames = new String[cameraConstants.length];
+        visibilityGrids = new TagVisibilityGrid[cameraConstants.length];
+        fiducialFilters = new long[cameraConstants.length];
+
+        for (int i = 0; i < cameraConstants.length; i++) {
+            LimelightCameraConstants constants = cameraConstants[i];
+            cameraNames[i] = constants.name;
+            visibilityGrids[i] = TagVisibilityGrid.forCamera(
+                tagIndex,
+                constants,
+                Constants.PoseEstimator.visibilityCellSize,
+                Constants.PoseEstimator.visibilityHeadingBins,
+                Constants.PoseEstimator.maxTagRange
+            );
+            fiducialFilters[i] = tagIndex.getAllTags();
+        }
+    }
+
+    /**
+     * Sends the robot heading to every camera, for MegaTag2.
+     *
+     * @param yawDegrees The heading of the robot on the blue alliance origin.
+     * @param yawRateDegreesPerSecond The yaw rate of the robot.
+     */
+    public void setRobotOrientation(double yawDegrees, double yawRateDegreesPerSecond) {
+        io.setRobotOrientation(yawDegrees, yawRateDegreesPerSecond);
+    }
+
+    /**
+     * Tells each camera to only look for the tags it can see from a pose. The filter is only sent
+     * when it changes. Ignoring the other tags keeps a reflection or a tag behind the camera from
+     * skewing the estimate.
+     *
+     * @param x The x coordinate of the robot, in meters.
+     * @param y The y coordinate of the robot, in meters.
+     * @param headingRadians The heading of the robot.
+     * @param poseTrusted Whether the pose is trusted. If not, every camera looks for every tag, so a
+     *     wrong pose does not hide the tags that would correct it.
+     */
+    public void updateFiducialFilters(double x, double y, double headingRadians, boolean poseTrusted) {
+        for (int i = 0; i < visibilityGrids.length; i++) {
+            // Cameras without a measured mount always look for every tag
+            TagVisibilityGrid grid = visibilityGrids[i];
+            long filter = poseTrusted && grid != null
+                ? grid.getVisibleTags(x, y, headingRadians)
+                : tagIndex.getAllTags();
+
+            if (filter != fiducialFilters[i]) {
+                io.setFiducialFilter(i, AprilTagIndex.toIds(filter));
+                fiducialFilters[i] = filter;
+            }
+        }
+    }
+
+    /**
+     * Reads and logs the MegaTag2 estimates received since the last call, then hands each to the
+     * consumer, oldest first across all cameras. In replay the estimates come from the log.
+     *
+     * @param consumer Receives the estimates.
+     */
+    public void processFrames(MeasurementConsumer consumer) {
+        io.updateInputs(inputs);
+        Logger.processInputs("Vision", inputs);
+
+        // Guard against mismatched lengths in a replayed log
+        int frameCount = Math.min(inputs.cameras.length, inputs.timestamps.length);
+        int fiducialIndex = 0;
+        for (int i = 0; i < frameCount; i++) {
+            estimate.set(
+                inputs.timestamps[i],
+                inputs.xMeters[i],
+                inputs.yMeters[i],
+                inputs.yawDegrees[i],
+                inputs.tagCounts[i],
+                inputs.avgTagDists[i]
+            );
+
+            int fiducialCount = inputs.fiducialCounts[i];
+            if (fiducialIndex + fiducialCount <= inputs.fiducialIds.length) {
+                estimate
+                    .getFiducials()
+                    .set(inputs.fiducialIds, inputs.fiducialAmbiguities, fiducialIndex, fiducialCount);
+            }
+            fiducialIndex += fiducialCount;
+
+            consumer.accept(inputs.cameras[i], estimate);
+        }
+    }
+
+    /**
+     * @param camera The index of the camera.
+     * @return The name of the Limelight.
+     */
+    public String getCameraName(int camera) {
+        return cameraNames[camera];
+    }
+
+    /**
+     * @param camera The index of the camera.
+     * @return The tags the camera can see from a pose, or null if its mount was not measured.
+     */
+    public TagVisibilityGrid getVisibilityGrid(int camera) {
+        return visibilityGrids[camera];
+    }
+
+    /**
+     * @return The tags on the field, and its size.
+     */
+    public AprilTagIndex getTagIndex() {
+        return tagIndex;
+    }
+
+    /**
+     * @return The number of cameras.
+     */
+    public int getCameraCount() {
+        return cameraNames.length;
+    }
+
+    /** Stops every camera. */
+    @Override
+    public void close() {
+        io.close();
+    }
+}
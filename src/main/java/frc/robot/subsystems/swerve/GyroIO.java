@@ -0,0 +1,38 @@
+package frc.robot.subsystems.swerve;
+
+import org.littletonrobotics.junction.AutoLog;
+
+/**
+ * The hardware of the gyro. Every sensor read happens in {@link #updateInputs}, once per loop, so
+ * {@link Swerve} only sees logged values and replays exactly. The default implementations do
+ * nothing, which is what replay uses.
+ */
+public interface GyroIO {
+    @AutoLog
+    public static class GyroIOInputs {
+
+        public boolean connected = false;
+
+        /** The yaw, counter-clockwise positive, compensated for CAN latency. Not wrapped. */
+        public double yawDegrees = 0.0;
+        public double yawVelocityDegreesPerSec = 0.0;
+
+        /* The samples taken by the OdometryThread since the last loop. */
+        public double[] odometryTimestamps = new double[] {};
+        public double[] odometryYawDegrees = new double[] {};
+    }
+
+    /**
+     * Reads every sensor into the inputs.
+     *
+     * @param inputs The inputs to update.
+     */
+    public default void updateInputs(GyroIOInputs inputs) {}
+
+    /**
+     * Sets the yaw.
+     *
+     * @param degrees The new yaw, in degrees.
+     */
+    public default void setYaw(double degrees) {}
+}
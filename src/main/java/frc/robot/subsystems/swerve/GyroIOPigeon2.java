@@ -0,0 +1,66 @@
+package frc.robot.subsystems.swerve;
+
+import com.ctre.phoenix6.BaseStatusSignal;
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.configs.Pigeon2Configuration;
+import com.ctre.phoenix6.hardware.Pigeon2;
+import frc.lib.util.canUtil.PhoenixSignals;
+import java.util.Arrays;
+
+/** A Pigeon 2 gyro. */
+public class GyroIOPigeon2 implements GyroIO {
+
+    /** The gyro. */
+    private final Pigeon2 gyro;
+
+    /** The gyro yaw, refreshed once per loop by {@link PhoenixSignals#refreshAll}. */
+    private final StatusSignal<Double> yawSignal;
+
+    /** The gyro yaw rate, used to compensate the yaw for latency. */
+    private final StatusSignal<Double> yawRateSignal;
+
+    /** The {@link OdometryThread} signal index of the gyro yaw. */
+    private final int yawOdometrySignal;
+
+    /** Creates a new Pigeon 2 gyro. Must be called before the {@link OdometryThread} is started. */
+    public GyroIOPigeon2() {
+        gyro = new Pigeon2(SwerveConstants.REV.pigeonID);
+        // TODO: implement settings
+        gyro.getConfigurator().apply(new Pigeon2Configuration());
+        yawSignal = PhoenixSignals.register(gyro.getYaw());
+        yawRateSignal = PhoenixSignals.register(gyro.getAngularVelocityZWorld());
+
+        // Sample the yaw on the odometry thread. The thread refreshes its own copy of the signal so it
+        // does not race with reads on the main thread.
+        StatusSignal<Double> odometryYaw = yawSignal.clone();
+        odometryYaw.setUpdateFrequency(SwerveConfig.odometryFrequency);
+        yawOdometrySignal = OdometryThread.getInstance().registerSignal(() -> odometryYaw.refresh().getValue());
+    }
+
+    /**
+     * Reads the values cached by the last {@link PhoenixSignals#refreshAll} and the samples drained
+     * from the {@link OdometryThread}.
+     */
+    @Override
+    public void updateInputs(GyroIOInputs inputs) {
+        inputs.connected = BaseStatusSignal.isAllGood(yawSignal, yawRateSignal);
+        inputs.yawDegrees = PhoenixSignals.getLatencyCompensated(yawSignal, yawRateSignal);
+        inputs.yawVelocityDegreesPerSec = yawRateSignal.getValue();
+
+        OdometryThread odometryThread = OdometryThread.getInstance();
+        int sampleCount = odometryThread.getDrainedCount();
+        inputs.odometryTimestamps = Arrays.copyOf(odometryThread.getTimestamps(), sampleCount);
+        inputs.odometryYawDegrees = Arrays.copyOf(odometryThread.getSamples(yawOdometrySignal), sampleCount);
+    }
+
+    /**
+     * Sets the yaw and refreshes the cached value.
+     *
+     * @param degrees The new yaw, in degrees.
+     */
+    @Override
+    public void setYaw(double degrees) {
+        gyro.setYaw(degrees);
+        yawSignal.refresh();
+    }
+}
@@ -0,0 +1,43 @@
+package frc.robot.subsystems.swerve;
+
+/**
+ * A simulated gyro. Integrates the yaw rate of the simulated drivetrain, so it is exactly as good
+ * as the module models. Reports counter-clockwise positive like the Pigeon 2.
+ */
+public class GyroIOSim implements GyroIO {
+
+    /** The yaw, in degrees. Not wrapped. */
+    private double yawDegrees = 0.0;
+
+    /** The yaw rate from the last update, in degrees per second. */
+    private double yawRateDegreesPerSecond = 0.0;
+
+    /**
+     * Advances the gyro.
+     *
+     * @param omegaRadiansPerSecond The yaw rate of the robot, in radians per second.
+     * @param dtSeconds The time step, in seconds.
+     */
+    public void update(double omegaRadiansPerSecond, double dtSeconds) {
+        yawRateDegreesPerSecond = Math.toDegrees(omegaRadiansPerSecond);
+        yawDegrees += yawRateDegreesPerSecond * dtSeconds;
+    }
+
+    /** There is no odometry thread in simulation, so no samples are reported. */
+    @Override
+    public void updateInputs(GyroIOInputs inputs) {
+        inputs.connected = true;
+        inputs.yawDegrees = yawDegrees;
+        inputs.yawVelocityDegreesPerSec = yawRateDegreesPerSecond;
+    }
+
+    /**
+     * Sets the yaw, like {@code Pigeon2.setYaw}.
+     *
+     * @param degrees The new yaw, in degrees.
+     */
+    @Override
+    public void setYaw(double degrees) {
+        yawDegrees = degrees;
+    }
+}
@@ -0,0 +1,69 @@
+package frc.robot.subsystems.swerve;
+
+import org.littletonrobotics.junction.AutoLog;
+
+/**
+ * The hardware of a swerve module. Every sensor read happens in {@link #updateInputs}, once per
+ * loop, so {@link SwerveMod} only sees logged values and replays exactly. The default
+ * implementations do nothing, which is what replay uses.
+ */
+public interface ModuleIO {
+    @AutoLog
+    public static class ModuleIOInputs {
+
+        /**
+         * The distance the wheel has rolled, positive toward the module angle. With the angle at 0,
+         * positive is robot forward, so the odometry needs no sign flips.
+         */
+        public double drivePositionMeters = 0.0;
+        public double driveVelocityMetersPerSec = 0.0;
+        public double driveAppliedVolts = 0.0;
+        public double driveCurrentAmps = 0.0;
+
+        /** The relative angle of the module. Not wrapped. */
+        public double anglePositionDegrees = 0.0;
+        public double angleVelocityDegreesPerSec = 0.0;
+        public double angleAppliedVolts = 0.0;
+        public double angleCurrentAmps = 0.0;
+
+        /** The absolute encoder angle, before the angle offset is applied. */
+        public double absolutePositionDegrees = 0.0;
+
+        /* The samples taken by the OdometryThread since the last loop. */
+        public double[] odometryTimestamps = new double[] {};
+        public double[] odometryDrivePositionsMeters = new double[] {};
+        public double[] odometryAnglePositionsDegrees = new double[] {};
+    }
+
+    /**
+     * Reads every sensor into the inputs.
+     *
+     * @param inputs The inputs to update.
+     */
+    public default void updateInputs(ModuleIOInputs inputs) {}
+
+    /**
+     * Runs the drive motor open loop.
+     *
+     * @param percentOutput The output, from -1 to 1.
+     */
+    public default void setDriveOpenLoop(double percentOutput) {}
+
+    /**
+     * Runs the drive motor closed loop.
+     *
+     * @param metersPerSecond The velocity setpoint.
+     */
+    public default void setDriveVelocity(double metersPerSecond) {}
+
+    /**
+     * Runs the angle motor closed loop.
+     *
+     * @param degrees The position setpoint, in the same unwrapped scope as {@link
+     *     ModuleIOInputs#anglePositionDegrees}.
+     */
+    public default void setAnglePosition(double degrees) {}
+
+    /** Stops the angle motor. */
+    public default void stopAngle() {}
+}
@@ -0,0 +1,180 @@
+package frc.robot.subsystems.swerve;
+
+import edu.wpi.first.math.MathUtil;
+import edu.wpi.first.math.controller.PIDController;
+import edu.wpi.first.math.controller.SimpleMotorFeedforward;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.math.system.plant.DCMotor;
+import edu.wpi.first.wpilibj.simulation.DCMotorSim;
+import frc.lib.util.canUtil.StatusFrameManager;
+
+/**
+ * A simulated swerve module. The drive and angle motors are NEOs modeled with {@link DCMotorSim}
+ * through the gear ratios of {@link SwerveConfig#chosenModule}, and the closed loop control the
+ * SPARK MAXs would do is done here in volts.
+ *
+ * <p>The physics only advance when {@link #update} is called, with a fixed time step, so the
+ * simulation gives the same result no matter how fast the loop runs.
+ */
+public class ModuleIOSim implements ModuleIO {
+
+    /** The motor maximum voltage. */
+    private static final double MAX_VOLTS = 12.0;
+
+    /** The drive motor and wheel. */
+    private final DCMotorSim driveSim = new DCMotorSim(
+        DCMotor.getNEO(1),
+        SwerveConfig.driveGearRatio,
+        SwerveConfig.simDriveMOI
+    );
+
+    /** The angle motor and module. */
+    private final DCMotorSim angleSim = new DCMotorSim(
+        DCMotor.getNEO(1),
+        SwerveConfig.angleGearRatio,
+        SwerveConfig.simAngleMOI
+    );
+
+    /** The drive velocity controller, in meters per second. */
+    private final PIDController driveController = new PIDController(SwerveConfig.simDriveKP, 0, 0);
+
+    /** The drive feedforward, in meters per second. */
+    private final SimpleMotorFeedforward driveFeedforward = new SimpleMotorFeedforward(
+        SwerveConfig.driveKS,
+        SwerveConfig.driveKV,
+        SwerveConfig.driveKA
+    );
+
+    /** The angle position controller, in degrees. */
+    private final PIDController angleController = new PIDController(SwerveConfig.simAngleKP, 0, 0);
+
+    /* The voltages applied on the next update. */
+    private double driveVolts = 0.0;
+    private double angleVolts = 0.0;
+
+    /**
+     * Creates a new simulated module. Its motors are counted in the CAN bus load report with the
+     * profiles of the real modules.
+     *
+     * @param moduleNumber The module number. Used in the bus load report.
+     */
+    public ModuleIOSim(int moduleNumber) {
+        StatusFrameManager.register(
+            "Swerve/Mod" + moduleNumber + "/Angle",
+            SwerveConfig.disabledStatusFrames,
+            SwerveConfig.enabledStatusFrames
+        );
+        StatusFrameManager.register(
+            "Swerve/Mod" + moduleNumber + "/Drive",
+            SwerveConfig.disabledStatusFrames,
+            SwerveConfig.enabledStatusFrames
+        );
+    }
+
+    /**
+     * Advances the simulation with the last applied voltages.
+     *
+     * @param dtSeconds The time step, in seconds.
+     */
+    public void update(double dtSeconds) {
+        driveVolts = MathUtil.clamp(driveVolts, -MAX_VOLTS, MAX_VOLTS);
+        angleVolts = MathUtil.clamp(angleVolts, -MAX_VOLTS, MAX_VOLTS);
+        driveSim.setInputVoltage(driveVolts);
+        angleSim.setInputVoltage(angleVolts);
+        driveSim.update(dtSeconds);
+        angleSim.update(dtSeconds);
+    }
+
+    /** There is no odometry thread in simulation, so no samples are reported. */
+    @Override
+    public void updateInputs(ModuleIOInputs inputs) {
+        inputs.drivePositionMeters = getDistanceMeters();
+        inputs.driveVelocityMetersPerSec = getVelocityMetersPerSecond();
+        inputs.driveAppliedVolts = driveVolts;
+        inputs.driveCurrentAmps = Math.abs(driveSim.getCurrentDrawAmps());
+
+        inputs.anglePositionDegrees = getAngleDegrees();
+        inputs.angleVelocityDegreesPerSec = Math.toDegrees(angleSim.getAngularVelocityRadPerSec());
+        inputs.angleAppliedVolts = angleVolts;
+        inputs.angleCurrentAmps = Math.abs(angleSim.getCurrentDrawAmps());
+
+        // There is no offset in simulation
+        inputs.absolutePositionDegrees = MathUtil.inputModulus(getAngleDegrees(), 0, 360);
+    }
+
+    /**
+     * Runs the drive motor open loop, scaling the output to a voltage.
+     *
+     * @param percentOutput The output, from -1 to 1.
+     */
+    @Override
+    public void setDriveOpenLoop(double percentOutput) {
+        driveVolts = percentOutput * SwerveConfig.drivePower * MAX_VOLTS;
+    }
+
+    /**
+     * Runs the drive motor with the feedforward and PID controller.
+     *
+     * @param metersPerSecond The velocity setpoint.
+     */
+    @Override
+    public void setDriveVelocity(double metersPerSecond) {
+        driveVolts =
+            driveFeedforward.calculate(metersPerSecond) +
+            driveController.calculate(getVelocityMetersPerSecond(), metersPerSecond);
+    }
+
+    /**
+     * Runs the angle motor with the PID controller.
+     *
+     * @param degrees The position setpoint.
+     */
+    @Override
+    public void setAnglePosition(double degrees) {
+        angleVolts = angleController.calculate(getAngleDegrees(), degrees) * SwerveConfig.anglePower;
+    }
+
+    /** Stops the angle motor. */
+    @Override
+    public void stopAngle() {
+        angleVolts = 0.0;
+    }
+
+    /**
+     * @return The simulated state of the module, for stepping the simulated gyro.
+     */
+    SwerveModuleState getState() {
+        return new SwerveModuleState(getVelocityMetersPerSecond(), Rotation2d.fromDegrees(getAngleDegrees()));
+    }
+
+    /**
+     * @return The angle of the module in degrees. Not wrapped, like the relative encoder on the real
+     *     module.
+     */
+    private double getAngleDegrees() {
+        return Math.toDegrees(angleSim.getAngularPositionRad());
+    }
+
+    /**
+     * @return The distance driven by the wheel, in meters.
+     */
+    private double getDistanceMeters() {
+        return angleToMeters(driveSim.getAngularPositionRad());
+    }
+
+    /**
+     * @return The velocity of the wheel, in meters per second.
+     */
+    private double getVelocityMetersPerSecond() {
+        return angleToMeters(driveSim.getAngularVelocityRadPerSec());
+    }
+
+    /**
+     * @param radians An angle the wheel has turned, in radians.
+     * @return The distance the wheel has rolled, in meters.
+     */
+    private static double angleToMeters(double radians) {
+        return radians / (2 * Math.PI) * SwerveConfig.wheelCircumference;
+    }
+}
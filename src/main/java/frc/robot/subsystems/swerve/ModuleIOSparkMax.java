@@ -0,0 +1,251 @@
+package frc.robot.subsystems.swerve;
+
+import com.ctre.phoenix6.StatusSignal;
+import com.ctre.phoenix6.configs.CANcoderConfiguration;
+import com.ctre.phoenix6.hardware.CANcoder;
+import com.revrobotics.CANSparkBase.ControlType;
+import com.revrobotics.CANSparkLowLevel.MotorType;
+import com.revrobotics.CANSparkMax;
+import com.revrobotics.RelativeEncoder;
+import com.revrobotics.SparkPIDController;
+import edu.wpi.first.math.geometry.Rotation2d;
+import frc.lib.util.canUtil.PhoenixSignals;
+import frc.lib.util.canUtil.SparkHealthMonitor;
+import frc.lib.util.canUtil.SparkOutput;
+import frc.lib.util.canUtil.StatusFrameManager;
+import frc.lib.util.swerveUtil.RevSwerveModuleConstants;
+import java.util.Arrays;
+
+/** A swerve module using REV Robotics motor controllers and a CTRE CANcoder absolute encoder. */
+public class ModuleIOSparkMax implements ModuleIO {
+
+    /** The angle offset. Used to zero the module to a specific angle. */
+    private Rotation2d angleOffset;
+
+    /** The angle motor. This motor is used to control the angle of the module. */
+    private CANSparkMax mAngleMotor;
+
+    /** The drive motor. This motor is used to control the speed of the module. */
+    private CANSparkMax mDriveMotor;
+
+    /** The angle encoder. This encoder is used to determine the angle of the module. */
+    private CANcoder angleEncoder;
+
+    /**
+     * The absolute position of the angle encoder, in rotations. Refreshed once per loop by {@link
+     * PhoenixSignals#refreshAll}.
+     */
+    private StatusSignal<Double> absolutePositionSignal;
+
+    /**
+     * The relative encoders. These encoders are used to determine the relative angle of the module.
+     */
+    private RelativeEncoder relAngleEncoder;
+
+    /**
+     * The relative drive encoder. This encoder is used to determine the relative position of the
+     * module.
+     */
+    private RelativeEncoder relDriveEncoder;
+
+    /** The output of the angle motor. Skips commands that have not changed since the last loop. */
+    private SparkOutput angleOutput;
+
+    /** The output of the drive motor. Skips commands that have not changed since the last loop. */
+    private SparkOutput driveOutput;
+
+    /** The {@link OdometryThread} signal index of the drive encoder position. */
+    private int driveOdometrySignal;
+
+    /** The {@link OdometryThread} signal index of the angle encoder position. */
+    private int angleOdometrySignal;
+
+    /**
+     * Creates a new swerve module. Must be called before the {@link OdometryThread} is started.
+     *
+     * @param moduleNumber The module number. Used in log keys.
+     * @param moduleConstants The module constants.
+     */
+    public ModuleIOSparkMax(int moduleNumber, RevSwerveModuleConstants moduleConstants) {
+        this.angleOffset = moduleConstants.angleOffset;
+
+        // Create and configure the angle motor.
+        mAngleMotor = new CANSparkMax(moduleConstants.angleMotorID, MotorType.kBrushless);
+        configAngleMotor();
+
+        // Create and configure the drive motor.
+        mDriveMotor = new CANSparkMax(moduleConstants.driveMotorID, MotorType.kBrushless);
+        configDriveMotor();
+
+        // Send the positions as often as the odometry thread samples them.
+        StatusFrameManager.register(
+            "Swerve/Mod" + moduleNumber + "/Angle",
+            mAngleMotor,
+            SwerveConfig.disabledStatusFrames,
+            SwerveConfig.enabledStatusFrames
+        );
+        StatusFrameManager.register(
+            "Swerve/Mod" + moduleNumber + "/Drive",
+            mDriveMotor,
+            SwerveConfig.disabledStatusFrames,
+            SwerveConfig.enabledStatusFrames
+        );
+
+        // Watch for faults in the background, so setting the state only does control.
+        SparkHealthMonitor.register("Swerve/Mod" + moduleNumber + "/Angle", mAngleMotor);
+        SparkHealthMonitor.register("Swerve/Mod" + moduleNumber + "/Drive", mDriveMotor);
+
+        // Wrap the motor outputs.
+        angleOutput = new SparkOutput("Swerve/Mod" + moduleNumber + "/Angle", mAngleMotor);
+        driveOutput = new SparkOutput("Swerve/Mod" + moduleNumber + "/Drive", mDriveMotor);
+
+        // Create and configure the encoders.
+        angleEncoder = new CANcoder(moduleConstants.cancoderID);
+        configEncoders();
+    }
+
+    /** Configures the encoders. */
+    private void configEncoders() {
+        // Reset the CANCoder to factory defaults and configure it.
+        // angleEncoder.getConfigurator().apply(new CANcoderConfiguration());
+        angleEncoder.getConfigurator().refresh(new CANcoderConfiguration());
+        angleEncoder.getConfigurator().apply(new SwerveConfig().canCoderConfig);
+        absolutePositionSignal = PhoenixSignals.register(angleEncoder.getAbsolutePosition());
+
+        // Assign the relative drive encoder and set the position to 0.
+        relDriveEncoder = mDriveMotor.getEncoder();
+        relDriveEncoder.setPosition(0);
+
+        // Set the position and velocity conversion factors based on the SwerveConfig
+        relDriveEncoder.setPositionConversionFactor(SwerveConfig.driveRevToMeters);
+        relDriveEncoder.setVelocityConversionFactor(SwerveConfig.driveRpmToMetersPerSecond);
+
+        // Assign the relative angle encoder and configure it.
+        relAngleEncoder = mAngleMotor.getEncoder();
+        relAngleEncoder.setPositionConversionFactor(SwerveConfig.DegreesPerTurnRotation);
+        relAngleEncoder.setVelocityConversionFactor(SwerveConfig.DegreesPerTurnRotation / 60); // in degrees/sec
+
+        // Reset the module to absolute position.
+        resetToAbsolute();
+
+        // Sample the encoder positions on the odometry thread.
+        driveOdometrySignal = OdometryThread.getInstance().registerSignal(relDriveEncoder::getPosition);
+        angleOdometrySignal = OdometryThread.getInstance().registerSignal(relAngleEncoder::getPosition);
+
+        // Write the configuration to flash memory.
+        mDriveMotor.burnFlash();
+        mAngleMotor.burnFlash();
+    }
+
+    /** Configures the angle motor. */
+    private void configAngleMotor() {
+        // Reset the angle motor to factory defaults
+        mAngleMotor.restoreFactoryDefaults();
+
+        // Configure the PID controller for the angle motor
+        SparkPIDController angleController = mAngleMotor.getPIDController();
+        angleController.setP(SwerveConfig.angleKP, 0);
+        angleController.setI(SwerveConfig.angleKI, 0);
+        angleController.setD(SwerveConfig.angleKD, 0);
+        angleController.setFF(SwerveConfig.angleKF, 0);
+        angleController.setOutputRange(-SwerveConfig.anglePower, SwerveConfig.anglePower);
+
+        mAngleMotor.setSmartCurrentLimit(SwerveConfig.angleContinuousCurrentLimit);
+        mAngleMotor.setInverted(SwerveConfig.angleMotorInvert);
+        mAngleMotor.setIdleMode(SwerveConfig.angleIdleMode);
+    }
+
+    /** Configures the drive motor. */
+    private void configDriveMotor() {
+        // Reset the drive motor to factory defaults
+        mDriveMotor.restoreFactoryDefaults();
+
+        // Configure the PID controller for the drive motor
+        SparkPIDController driveController = mDriveMotor.getPIDController();
+        driveController.setP(SwerveConfig.driveKP, 0);
+        driveController.setI(SwerveConfig.driveKI, 0);
+        driveController.setD(SwerveConfig.driveKD, 0);
+        driveController.setFF(SwerveConfig.driveKF, 0);
+        driveController.setOutputRange(-SwerveConfig.drivePower, SwerveConfig.drivePower);
+
+        mDriveMotor.setSmartCurrentLimit(SwerveConfig.driveContinuousCurrentLimit);
+        mDriveMotor.setInverted(SwerveConfig.driveMotorInvert);
+        mDriveMotor.setIdleMode(SwerveConfig.driveIdleMode);
+    }
+
+    /** Resets the relative angle encoder to the absolute position. */
+    private void resetToAbsolute() {
+        // Make sure the absolute position is current, this runs before the loop refreshes it.
+        absolutePositionSignal.refresh();
+        double absolutePosition = absolutePositionSignal.getValue() * 360 - angleOffset.getDegrees();
+        relAngleEncoder.setPosition(absolutePosition);
+    }
+
+    /**
+     * Reads the values from the last status frames, the CANcoder position cached by the last {@link
+     * PhoenixSignals#refreshAll} and the samples drained from the {@link OdometryThread}. None of
+     * these wait on the bus.
+     */
+    @Override
+    public void updateInputs(ModuleIOInputs inputs) {
+        inputs.drivePositionMeters = relDriveEncoder.getPosition();
+        inputs.driveVelocityMetersPerSec = relDriveEncoder.getVelocity();
+        inputs.driveAppliedVolts = mDriveMotor.getAppliedOutput() * mDriveMotor.getBusVoltage();
+        inputs.driveCurrentAmps = mDriveMotor.getOutputCurrent();
+
+        inputs.anglePositionDegrees = relAngleEncoder.getPosition();
+        inputs.angleVelocityDegreesPerSec = relAngleEncoder.getVelocity();
+        inputs.angleAppliedVolts = mAngleMotor.getAppliedOutput() * mAngleMotor.getBusVoltage();
+        inputs.angleCurrentAmps = mAngleMotor.getOutputCurrent();
+
+        inputs.absolutePositionDegrees = absolutePositionSignal.getValue() * 360;
+
+        OdometryThread odometryThread = OdometryThread.getInstance();
+        int sampleCount = odometryThread.getDrainedCount();
+        inputs.odometryTimestamps = Arrays.copyOf(odometryThread.getTimestamps(), sampleCount);
+        inputs.odometryDrivePositionsMeters = Arrays.copyOf(
+            odometryThread.getSamples(driveOdometrySignal),
+            sampleCount
+        );
+        inputs.odometryAnglePositionsDegrees = Arrays.copyOf(
+            odometryThread.getSamples(angleOdometrySignal),
+            sampleCount
+        );
+    }
+
+    /**
+     * Runs the drive motor open loop.
+     *
+     * @param percentOutput The output, from -1 to 1.
+     */
+    @Override
+    public void setDriveOpenLoop(double percentOutput) {
+        driveOutput.set(percentOutput);
+    }
+
+    /**
+     * Runs the drive motor with the SPARK MAX velocity controller.
+     *
+     * @param metersPerSecond The velocity setpoint.
+     */
+    @Override
+    public void setDriveVelocity(double metersPerSecond) {
+        driveOutput.setReference(metersPerSecond, ControlType.kVelocity, 0);
+    }
+
+    /**
+     * Runs the angle motor with the SPARK MAX position controller.
+     *
+     * @param degrees The position setpoint.
+     */
+    @Override
+    public void setAnglePosition(double degrees) {
+        angleOutput.setReference(degrees, ControlType.kPosition, 0);
+    }
+
+    /** Stops the angle motor. */
+    @Override
+    public void stopAngle() {
+        angleOutput.stopMotor();
+    }
+}
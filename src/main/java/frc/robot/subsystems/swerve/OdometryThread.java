@@ -0,0 +1,183 @@
+package frc.robot.subsystems.swerve;
+
+import edu.wpi.first.wpilibj.Notifier;
+import edu.wpi.first.wpilibj.RobotController;
+import java.util.ArrayList;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Samples the odometry sensors (drive/angle encoders and gyro yaw) at a higher rate than the main
+ * robot loop. Each sample is timestamped and stored in preallocated ring buffers, which are drained
+ * once per loop by {@link Swerve#periodic}.
+ *
+ * <p>Signals must be registered with {@link #registerSignal} before {@link #start} is called.
+ */
+public class OdometryThread {
+
+    /**
+     * The number of samples that can be stored between drains. If the main loop stalls for longer
+     * than this, the oldest samples are overwritten.
+     */
+    public static final int QUEUE_CAPACITY = 32;
+
+    /** The single instance of the odometry thread. */
+    private static OdometryThread instance = null;
+
+    /** Locks the sample buffers. Held by the sampler while writing and by the main loop while draining. */
+    private final Lock odometryLock = new ReentrantLock();
+
+    /** The signals to sample, in registration order. */
+    private final ArrayList<DoubleSupplier> signals = new ArrayList<>();
+
+    /** The notifier that runs {@link #sample} at {@link SwerveConfig#odometryFrequency}. */
+    private final Notifier notifier = new Notifier(this::sample);
+
+    /** The timestamps of the samples, in seconds. Written as a ring buffer. */
+    private final double[] timestamps = new double[QUEUE_CAPACITY];
+
+    /** The sampled values, indexed by [signal][sample]. Allocated in {@link #start}. */
+    private double[][] samples = new double[0][];
+
+    /** The index of the oldest sample in the ring buffers. */
+    private int head = 0;
+
+    /** The number of samples in the ring buffers. */
+    private int count = 0;
+
+    /** The drained timestamps, valid up to {@link #drainedCount}. */
+    private final double[] drainedTimestamps = new double[QUEUE_CAPACITY];
+
+    /** The drained values, indexed by [signal][sample]. Valid up to {@link #drainedCount}. */
+    private double[][] drainedSamples = new double[0][];
+
+    /** The number of samples drained by the last call to {@link #drain}. */
+    private int drainedCount = 0;
+
+    /** Whether the notifier has been started. */
+    private boolean running = false;
+
+    /**
+     * @return The odometry thread instance.
+     */
+    public static OdometryThread getInstance() {
+        if (instance == null) {
+            instance = new OdometryThread();
+        }
+        return instance;
+    }
+
+    private OdometryThread() {
+        notifier.setName("OdometryThread");
+    }
+
+    /**
+     * Registers a signal to be sampled. Must be called before {@link #start}.
+     *
+     * @param signal The signal to sample. Called from the odometry thread.
+     * @return The index of the signal, used with {@link #getSamples}.
+     */
+    public int registerSignal(DoubleSupplier signal) {
+        if (running) {
+            throw new IllegalStateException("Odometry signals must be registered before the thread is started");
+        }
+
+        signals.add(signal);
+        return signals.size() - 1;
+    }
+
+    /** Allocates the sample buffers and starts sampling. Does nothing if already started. */
+    public void start() {
+        if (running) {
+            return;
+        }
+
+        samples = new double[signals.size()][QUEUE_CAPACITY];
+        drainedSamples = new double[signals.size()][QUEUE_CAPACITY];
+
+        running = true;
+        notifier.startPeriodic(1.0 / SwerveConfig.odometryFrequency);
+    }
+
+    /**
+     * @return Whether the odometry thread is sampling.
+     */
+    public boolean isRunning() {
+        return running;
+    }
+
+    /** Reads every registered signal into the ring buffers. Runs on the notifier thread. */
+    private void sample() {
+        double timestamp = RobotController.getFPGATime() / 1e6;
+
+        odometryLock.lock();
+        try {
+            // Overwrite the oldest sample if the buffer is full
+            int index;
+            if (count < QUEUE_CAPACITY) {
+                index = (head + count) % QUEUE_CAPACITY;
+                count++;
+            } else {
+                index = head;
+                head = (head + 1) % QUEUE_CAPACITY;
+            }
+
+            timestamps[index] = timestamp;
+            for (int i = 0; i < signals.size(); i++) {
+                samples[i][index] = signals.get(i).getAsDouble();
+            }
+        } finally {
+            odometryLock.unlock();
+        }
+    }
+
+    /**
+     * Moves every sample taken since the last drain into the drained buffers, oldest first. Should
+     * be called once per loop, before reading {@link #getTimestamps} or {@link #getSamples}.
+     *
+     * @return The number of samples drained.
+     */
+    public int drain() {
+        odometryLock.lock();
+        try {
+            for (int i = 0; i < count; i++) {
+                int index = (head + i) % QUEUE_CAPACITY;
+                drainedTimestamps[i] = timestamps[index];
+                for (int signal = 0; signal < samples.length; signal++) {
+                    drainedSamples[signal][i] = samples[signal][index];
+                }
+            }
+
+            drainedCount = count;
+            head = 0;
+            count = 0;
+        } finally {
+            odometryLock.unlock();
+        }
+
+        return drainedCount;
+    }
+
+    /**
+     * @return The number of samples drained by the last call to {@link #drain}.
+     */
+    public int getDrainedCount() {
+        return drainedCount;
+    }
+
+    /**
+     * @return The drained timestamps in seconds. Only the first {@link #getDrainedCount} are valid.
+     */
+    public double[] getTimestamps() {
+        return drainedTimestamps;
+    }
+
+    /**
+     * @param signal The index returned by {@link #registerSignal}.
+     * @return The drained values of the signal. Only the first {@link #getDrainedCount} are valid.
+     */
+    public double[] getSamples(int signal) {
+        return drainedSamples[signal];
+    }
+}
@@ -2,8 +2,6 @@ package frc.robot.subsystems.swerve;
 
 import org.littletonrobotics.junction.Logger;
 
-import com.ctre.phoenix6.configs.Pigeon2Configuration;
-import com.ctre.phoenix6.hardware.Pigeon2;
 import com.pathplanner.lib.auto.AutoBuilder;
 import com.pathplanner.lib.util.PathPlannerLogging;
 
@@ -22,11 +20,20 @@ import edu.wpi.first.wpilibj.smartdashboard.Field2d;
 import edu.wpi.first.wpilibj.smartdashboard.SmartDashboard;
 import edu.wpi.first.wpilibj2.command.SubsystemBase;
 import frc.lib.math.GeometryUtils;
+import frc.lib.util.loggingUtil.LogManager;
+import frc.lib.util.loggingUtil.LogPolicy;
+import frc.lib.util.loggingUtil.LogSchedule;
+import frc.lib.util.loggingUtil.LoopProfiler;
+import frc.robot.Constants;
 
 /** Swerve subsystem, responsible for controlling the swerve drive. */
 public class Swerve extends SubsystemBase {
 
-    /** The swerve odometry. This is used to determine the robot's position on the field. */
+    /**
+     * The swerve odometry. This is used to determine the robot's position on the field. It is in the
+     * WPILib field frame, +x forward and counter-clockwise positive, the same frame as the blue
+     * alliance vision poses, so it is never negated.
+     */
     public final SwerveDriveOdometry swerveOdometry;
 
     /**
@@ -36,30 +43,123 @@ public class Swerve extends SubsystemBase {
     public final SwerveModule[] mSwerveMods;
 
     /** The gyro. This is used to determine the robot's heading. */
-    public final Pigeon2 gyro;
+    private final GyroIO gyroIO;
+
+    /** The gyro inputs read at the start of the loop. */
+    private final GyroIOInputsAutoLogged gyroInputs = new GyroIOInputsAutoLogged();
+
+    /** The simulated module hardware, in module order. Null unless in simulation. */
+    private final ModuleIOSim[] simModuleIOs;
+
+    /** The simulated gyro, the same object as {@link #gyroIO}. Null unless in simulation. */
+    private final GyroIOSim simGyroIO;
+
+    /** Loop time in seconds. Used to correct for the dynamics of the robot. */
+    private static final double LOOP_TIME_S = 0.02;
+
+    /** The x position of each module relative to the robot center, in meters. */
+    private static final double[] MODULE_X = new double[SwerveConfig.moduleTranslations.length];
+
+    /** The y position of each module relative to the robot center, in meters. */
+    private static final double[] MODULE_Y = new double[SwerveConfig.moduleTranslations.length];
+
+    static {
+        for (int i = 0; i < SwerveConfig.moduleTranslations.length; i++) {
+            MODULE_X[i] = SwerveConfig.moduleTranslations[i].getX();
+            MODULE_Y[i] = SwerveConfig.moduleTranslations[i].getY();
+        }
+    }
+
+    /*
+     * Scratch objects for the drive loop. These are reused every call to drive() so that the drive
+     * loop does not allocate.
+     */
+    private final ChassisSpeeds desiredChassisSpeeds = new ChassisSpeeds();
+    private final Twist2d twistScratch = new Twist2d();
+    private final double[] desiredModuleSpeeds = new double[4];
+    private final double[] desiredModuleAnglesDegrees = new double[4];
 
     /**
      * A 2d representation of the field
      */
     private Field2d field = new Field2d();
 
+    /*
+     * The odometry samples integrated by the last loop, oldest first. Kept for the PoseEstimator,
+     * which runs after this subsystem and replays the same samples with their timestamps. The
+     * arrays are reused every loop, so a consumer must copy what it keeps.
+     */
+    private int odometrySampleCount = 0;
+    private final double[] odometryTimestamps = new double[OdometryThread.QUEUE_CAPACITY];
+    private final Rotation2d[] odometryYaws = new Rotation2d[OdometryThread.QUEUE_CAPACITY];
+    private final SwerveModulePosition[][] odometryPositions =
+        new SwerveModulePosition[OdometryThread.QUEUE_CAPACITY][SwerveConfig.moduleTranslations.length];
+
+    /** The loops the SmartDashboard values are put on. */
+    private final LogSchedule.Slot dashboardSlot = LogSchedule.slot(SwerveConfig.dashboardFrequency);
+
+    /** The timed section of {@link #periodic}. */
+    private final LoopProfiler.Section periodicSection = LoopProfiler.section("Subsystems/Swerve");
+
+    /** The telemetry of the drivetrain, filled and recorded every loop. */
+    private final SwerveTelemetry telemetry = new SwerveTelemetry();
+
     /** Creates a new Swerve subsystem. */
     public Swerve() {
-        gyro = new Pigeon2(SwerveConstants.REV.pigeonID);
-        // TODO: implement settings
-        gyro.getConfigurator().apply(new Pigeon2Configuration());
-
-        // Create swerve modules
-        mSwerveMods = new SwerveModule[] {
-            new SwerveMod(0, SwerveConstants.Swerve.Mod0.constants),
-            new SwerveMod(1, SwerveConstants.Swerve.Mod1.constants),
-            new SwerveMod(2, SwerveConstants.Swerve.Mod2.constants),
-            new SwerveMod(3, SwerveConstants.Swerve.Mod3.constants),
-        };
+        switch (Constants.currentMode) {
+            case REAL:
+                // Read the hardware. Every sensor registers with the odometry thread before it starts.
+                gyroIO = new GyroIOPigeon2();
+                mSwerveMods = new SwerveModule[] {
+                    new SwerveMod(0, new ModuleIOSparkMax(0, SwerveConstants.Swerve.Mod0.constants)),
+                    new SwerveMod(1, new ModuleIOSparkMax(1, SwerveConstants.Swerve.Mod1.constants)),
+                    new SwerveMod(2, new ModuleIOSparkMax(2, SwerveConstants.Swerve.Mod2.constants)),
+                    new SwerveMod(3, new ModuleIOSparkMax(3, SwerveConstants.Swerve.Mod3.constants)),
+                };
+                OdometryThread.getInstance().start();
+
+                simModuleIOs = null;
+                simGyroIO = null;
+                break;
+            case SIM:
+                // Simulate the modules and gyro. There is no hardware to sample, so the odometry thread
+                // is not started and odometry updates once per loop.
+                simModuleIOs = new ModuleIOSim[] {
+                    new ModuleIOSim(0),
+                    new ModuleIOSim(1),
+                    new ModuleIOSim(2),
+                    new ModuleIOSim(3),
+                };
+                simGyroIO = new GyroIOSim();
+
+                gyroIO = simGyroIO;
+                mSwerveMods = new SwerveModule[] {
+                    new SwerveMod(0, simModuleIOs[0]),
+                    new SwerveMod(1, simModuleIOs[1]),
+                    new SwerveMod(2, simModuleIOs[2]),
+                    new SwerveMod(3, simModuleIOs[3]),
+                };
+                break;
+            default:
+                // Replay the inputs from the log, there is no hardware
+                gyroIO = new GyroIO() {};
+                mSwerveMods = new SwerveModule[] {
+                    new SwerveMod(0, new ModuleIO() {}),
+                    new SwerveMod(1, new ModuleIO() {}),
+                    new SwerveMod(2, new ModuleIO() {}),
+                    new SwerveMod(3, new ModuleIO() {}),
+                };
+
+                simModuleIOs = null;
+                simGyroIO = null;
+                break;
+        }
 
         swerveOdometry = new SwerveDriveOdometry(SwerveConfig.swerveKinematics, getYaw(), getModulePositions());
         zeroGyro();
 
+        logConfig();
+
         // Load the RobotConfig from the GUI settings. You should probably
         // store this in your Constants file
         // 2025 exclusive
@@ -99,6 +199,36 @@ public class Swerve extends SubsystemBase {
         // Logger.recordOutput("Field2d", field);
     }
 
+    /**
+     * Logs the configuration of the drivetrain, so a log shows the gains and limits it was driven
+     * with. The entries only write when a value changes, so they are written once and cost nothing
+     * after that.
+     */
+    private static void logConfig() {
+        LogManager.doubleHandle("Swerve/Config/MaxSpeed", LogPolicy.ON_CHANGE).append(SwerveConfig.maxSpeed);
+        LogManager.doubleHandle("Swerve/Config/MaxAngularVelocity", LogPolicy.ON_CHANGE)
+            .append(SwerveConfig.maxAngularVelocity);
+        LogManager.doubleHandle("Swerve/Config/OdometryFrequency", LogPolicy.ON_CHANGE)
+            .append(SwerveConfig.odometryFrequency);
+        LogManager.doubleArrayHandle("Swerve/Config/DriveGains", LogPolicy.ON_CHANGE).append(
+            new double[] {
+                SwerveConfig.driveKP,
+                SwerveConfig.driveKI,
+                SwerveConfig.driveKD,
+                SwerveConfig.driveKS,
+                SwerveConfig.driveKV,
+                SwerveConfig.driveKA,
+            }
+        );
+        LogManager.doubleArrayHandle("Swerve/Config/AngleGains", LogPolicy.ON_CHANGE).append(
+            new double[] { SwerveConfig.angleKP, SwerveConfig.angleKI, SwerveConfig.angleKD }
+        );
+        LogManager.intHandle("Swerve/Config/DriveCurrentLimit", LogPolicy.ON_CHANGE)
+            .append(SwerveConfig.driveContinuousCurrentLimit);
+        LogManager.intHandle("Swerve/Config/AngleCurrentLimit", LogPolicy.ON_CHANGE)
+            .append(SwerveConfig.angleContinuousCurrentLimit);
+    }
+
     /**
      * Corrects for the dynamics of the robot. This is used to ensure that the robot drives as
      * expected.
@@ -106,10 +236,7 @@ public class Swerve extends SubsystemBase {
      * @param originalSpeeds The original chassis speeds.
      * @return The corrected chassis speeds.
      */
-    private static ChassisSpeeds correctForDynamics(ChassisSpeeds originalSpeeds) {
-        // Loop time in seconds
-        final double LOOP_TIME_S = 0.02;
-
+    static ChassisSpeeds correctForDynamics(ChassisSpeeds originalSpeeds) {
         // Calculate the future robot pose based on the original speeds and loop time
         Pose2d futureRobotPose = new Pose2d(
             originalSpeeds.vxMetersPerSecond * LOOP_TIME_S,
@@ -128,6 +255,88 @@ public class Swerve extends SubsystemBase {
         );
     }
 
+    /**
+     * Same as {@link #correctForDynamics(ChassisSpeeds)}, but corrects the speeds in place.
+     *
+     * @param speeds The chassis speeds to correct.
+     * @param twistScratch A twist to hold the intermediate result.
+     */
+    static void correctForDynamics(ChassisSpeeds speeds, Twist2d twistScratch) {
+        // Compute the twist (change in pose) required to reach the future pose
+        GeometryUtils.log(
+            speeds.vxMetersPerSecond * LOOP_TIME_S,
+            speeds.vyMetersPerSecond * LOOP_TIME_S,
+            speeds.omegaRadiansPerSecond * LOOP_TIME_S,
+            twistScratch
+        );
+
+        // Update the speeds based on the computed twist
+        speeds.vxMetersPerSecond = twistScratch.dx / LOOP_TIME_S;
+        speeds.vyMetersPerSecond = twistScratch.dy / LOOP_TIME_S;
+        speeds.omegaRadiansPerSecond = twistScratch.dtheta / LOOP_TIME_S;
+    }
+
+    /**
+     * Rotates field-relative speeds into the robot's frame. Equivalent to the translation part of
+     * {@link ChassisSpeeds#fromFieldRelativeSpeeds}, but writes into caller-owned speeds.
+     *
+     * @param xSpeed The field-relative x speed, in meters per second.
+     * @param ySpeed The field-relative y speed, in meters per second.
+     * @param yawDegrees The yaw of the robot on the field.
+     * @param speeds The speeds to write the robot-relative x and y speeds to. The rotation is not changed.
+     */
+    static void toRobotRelative(double xSpeed, double ySpeed, double yawDegrees, ChassisSpeeds speeds) {
+        // Rotate the field-relative speeds by the negative of the robot's yaw
+        double yawRadians = Math.toRadians(yawDegrees);
+        double cos = Math.cos(yawRadians);
+        double sin = Math.sin(yawRadians);
+        speeds.vxMetersPerSecond = xSpeed * cos + ySpeed * sin;
+        speeds.vyMetersPerSecond = -xSpeed * sin + ySpeed * cos;
+    }
+
+    /**
+     * Converts chassis speeds to module speeds and angles. Equivalent to {@link
+     * SwerveDriveKinematics#toSwerveModuleStates} followed by {@link
+     * SwerveDriveKinematics#desaturateWheelSpeeds}, but writes into caller-owned arrays. If the
+     * chassis is not moving, the module angles are left unchanged.
+     *
+     * @param speeds The chassis speeds.
+     * @param moduleSpeeds The array to write the module speeds to, in meters per second.
+     * @param moduleAnglesDegrees The array to write the module angles to, in degrees.
+     */
+    static void toModuleStates(ChassisSpeeds speeds, double[] moduleSpeeds, double[] moduleAnglesDegrees) {
+        double vx = speeds.vxMetersPerSecond;
+        double vy = speeds.vyMetersPerSecond;
+        double omega = speeds.omegaRadiansPerSecond;
+
+        // Keep the current angles if the chassis is not moving
+        if (vx == 0.0 && vy == 0.0 && omega == 0.0) {
+            for (int i = 0; i < moduleSpeeds.length; i++) {
+                moduleSpeeds[i] = 0.0;
+            }
+            return;
+        }
+
+        // Each module moves at the chassis velocity plus the tangential velocity from the rotation
+        double maxModuleSpeed = 0.0;
+        for (int i = 0; i < moduleSpeeds.length; i++) {
+            double moduleVx = vx - omega * MODULE_Y[i];
+            double moduleVy = vy + omega * MODULE_X[i];
+
+            moduleSpeeds[i] = Math.hypot(moduleVx, moduleVy);
+            moduleAnglesDegrees[i] = Math.toDegrees(Math.atan2(moduleVy, moduleVx));
+            maxModuleSpeed = Math.max(maxModuleSpeed, moduleSpeeds[i]);
+        }
+
+        // Ensure the wheel speeds are within the allowable range
+        if (maxModuleSpeed > SwerveConfig.maxSpeed) {
+            double scale = SwerveConfig.maxSpeed / maxModuleSpeed;
+            for (int i = 0; i < moduleSpeeds.length; i++) {
+                moduleSpeeds[i] *= scale;
+            }
+        }
+    }
+
     /**
      * Drives the swerve modules based on the desired translation and rotation.
      *
@@ -137,25 +346,38 @@ public class Swerve extends SubsystemBase {
      * @param isOpenLoop Whether to use open-loop control.
      */
     public void drive(Translation2d translation, double rotation, boolean fieldRelative, boolean isOpenLoop) {
+        drive(translation.getX(), translation.getY(), rotation, fieldRelative, isOpenLoop);
+    }
+
+    /**
+     * Drives the swerve modules based on the desired translation and rotation. Does not allocate.
+     *
+     * @param xSpeed The desired x speed, in meters per second.
+     * @param ySpeed The desired y speed, in meters per second.
+     * @param rotation The desired rotation speed, in radians per second.
+     * @param fieldRelative Whether the speeds are field-relative.
+     * @param isOpenLoop Whether to use open-loop control.
+     */
+    public void drive(double xSpeed, double ySpeed, double rotation, boolean fieldRelative, boolean isOpenLoop) {
         // Determine the desired chassis speeds based on whether the control is field-relative
-        ChassisSpeeds desiredChassisSpeeds = fieldRelative
-            ? ChassisSpeeds.fromFieldRelativeSpeeds(translation.getX(), translation.getY(), rotation, getYaw())
-            : new ChassisSpeeds(translation.getX(), translation.getY(), rotation);
+        if (fieldRelative) {
+            toRobotRelative(xSpeed, ySpeed, getYawDegrees(), desiredChassisSpeeds);
+        } else {
+            desiredChassisSpeeds.vxMetersPerSecond = xSpeed;
+            desiredChassisSpeeds.vyMetersPerSecond = ySpeed;
+        }
+        desiredChassisSpeeds.omegaRadiansPerSecond = rotation;
 
         // Correct the chassis speeds for robot dynamics
-        desiredChassisSpeeds = correctForDynamics(desiredChassisSpeeds);
-
-        // Convert the chassis speeds to swerve module states
-        SwerveModuleState[] swerveModuleStates = SwerveConfig.swerveKinematics.toSwerveModuleStates(
-            desiredChassisSpeeds
-        );
+        correctForDynamics(desiredChassisSpeeds, twistScratch);
 
-        // Ensure the wheel speeds are within the allowable range
-        SwerveDriveKinematics.desaturateWheelSpeeds(swerveModuleStates, SwerveConfig.maxSpeed);
+        // Convert the chassis speeds to module speeds and angles
+        toModuleStates(desiredChassisSpeeds, desiredModuleSpeeds, desiredModuleAnglesDegrees);
 
         // Set the desired state for each swerve module
         for (SwerveModule mod : mSwerveMods) {
-            mod.setDesiredState(swerveModuleStates[mod.getModuleNumber()], isOpenLoop);
+            int i = mod.getModuleNumber();
+            mod.setDesiredState(desiredModuleSpeeds[i], desiredModuleAnglesDegrees[i], isOpenLoop);
         }
     }
 
@@ -177,11 +399,11 @@ public class Swerve extends SubsystemBase {
     }
 
     /**
-     * @return The current pose of the robot. This is determined by the swerve odometry.
+     * @return The current pose of the robot. This is determined by the swerve odometry, in the same
+     *     frame as the {@link frc.robot.subsystems.PoseEstimator}.
      */
     public Pose2d getPose() {
-        Pose2d p = swerveOdometry.getPoseMeters();
-        return new Pose2d(-p.getX(), -p.getY(), p.getRotation());
+        return swerveOdometry.getPoseMeters();
     }
 
     /**
@@ -190,8 +412,9 @@ public class Swerve extends SubsystemBase {
      * @param pose The new pose of the robot.
      */
     public void resetOdometry(Pose2d pose) {
-        swerveOdometry.resetPosition(new Rotation2d(), getModulePositions(), pose);
+        // Zero the gyro to the new heading first, so the odometry is reset with the yaw it will read
         zeroGyro(pose.getRotation().getDegrees());
+        swerveOdometry.resetPosition(getYaw(), getModulePositions(), pose);
     }
 
     /**
@@ -235,8 +458,10 @@ public class Swerve extends SubsystemBase {
             deg = -deg;
         }
 
-        // Zero the gyro and update the odometry
-        gyro.setYaw(deg);
+        // Zero the gyro and update the odometry. The inputs are not read again until the next loop,
+        // so assume the gyro took the new yaw. This also holds in replay, where setYaw does nothing.
+        gyroIO.setYaw(deg);
+        gyroInputs.yawDegrees = deg;
         swerveOdometry.update(getYaw(), getModulePositions());
     }
 
@@ -249,35 +474,200 @@ public class Swerve extends SubsystemBase {
      * @return The current yaw of the robot.
      */
     public Rotation2d getYaw() {
+        return Rotation2d.fromDegrees(getYawDegrees());
+    }
+
+    /**
+     * @return The current yaw of the robot, in degrees. Does not allocate a {@link Rotation2d}. Uses
+     *     the gyro inputs read at the start of the loop.
+     */
+    public double getYawDegrees() {
+        return yawFromGyroDegrees(gyroInputs.yawDegrees);
+    }
+
+    /**
+     * @return The current yaw rate of the robot, in degrees per second.
+     */
+    public double getYawRateDegreesPerSecond() {
+        // The inverted yaw runs the other way
+        if (SwerveConfig.invertGyro) {
+            return -gyroInputs.yawVelocityDegreesPerSec;
+        }
+        return gyroInputs.yawVelocityDegreesPerSec;
+    }
+
+    /**
+     * @param gyroDegrees The raw yaw reported by the gyro.
+     * @return The yaw of the robot in degrees, inverted if necessary.
+     */
+    public static double yawFromGyroDegrees(double gyroDegrees) {
         // If the gyro is inverted, return the inverted yaw
         if (SwerveConfig.invertGyro) {
-            return Rotation2d.fromDegrees(360 - gyro.getYaw().getValue());
+            return 360 - gyroDegrees;
         }
 
         // Otherwise, return the yaw as-is
-        return Rotation2d.fromDegrees(gyro.getYaw().getValue());
+        return gyroDegrees;
+    }
+
+    /**
+     * Reads and logs the inputs of the gyro and every module. The samples taken by the {@link
+     * OdometryThread} since the last loop are drained first, so they end up in the inputs.
+     */
+    private void updateInputs() {
+        OdometryThread.getInstance().drain();
+
+        gyroIO.updateInputs(gyroInputs);
+        Logger.processInputs("Swerve/Gyro", gyroInputs);
+
+        for (SwerveModule mod : mSwerveMods) {
+            mod.updateInputs();
+        }
+    }
+
+    /**
+     * Updates the odometry with every odometry sample in the inputs. Falls back to a single sample
+     * from the current inputs, at the loop timestamp, if there are no samples, ex. in simulation.
+     */
+    private void updateOdometry() {
+        // Every sensor is drained together, but guard against mismatched counts in a replayed log
+        int sampleCount = Math.min(gyroInputs.odometryYawDegrees.length, gyroInputs.odometryTimestamps.length);
+        for (SwerveModule mod : mSwerveMods) {
+            sampleCount = Math.min(sampleCount, mod.getOdometrySampleCount());
+        }
+        sampleCount = Math.min(sampleCount, OdometryThread.QUEUE_CAPACITY);
+
+        if (sampleCount == 0) {
+            odometryTimestamps[0] = Logger.getTimestamp() / 1e6;
+            odometryYaws[0] = getYaw();
+            for (SwerveModule mod : mSwerveMods) {
+                odometryPositions[0][mod.getModuleNumber()] = mod.getPosition();
+            }
+            sampleCount = 1;
+        } else {
+            for (int i = 0; i < sampleCount; i++) {
+                // Get the position of each module at the sample, into the reused row of the sample
+                for (SwerveModule mod : mSwerveMods) {
+                    odometryPositions[i][mod.getModuleNumber()] = mod.getOdometryPosition(i);
+                }
+
+                odometryTimestamps[i] = gyroInputs.odometryTimestamps[i];
+                odometryYaws[i] = Rotation2d.fromDegrees(yawFromGyroDegrees(gyroInputs.odometryYawDegrees[i]));
+            }
+        }
+        odometrySampleCount = sampleCount;
+
+        for (int i = 0; i < sampleCount; i++) {
+            swerveOdometry.update(odometryYaws[i], odometryPositions[i]);
+        }
+    }
+
+    /**
+     * @return The number of odometry samples integrated by the last loop. Always at least one after
+     *     the first loop.
+     */
+    public int getOdometrySampleCount() {
+        return odometrySampleCount;
+    }
+
+    /**
+     * @param sampleIndex The index of the sample, from 0 to {@link #getOdometrySampleCount}.
+     * @return The FPGA timestamp of the sample, in seconds.
+     */
+    public double getOdometryTimestamp(int sampleIndex) {
+        return odometryTimestamps[sampleIndex];
+    }
+
+    /**
+     * @param sampleIndex The index of the sample, from 0 to {@link #getOdometrySampleCount}.
+     * @return The yaw of the robot at the sample.
+     */
+    public Rotation2d getOdometryYaw(int sampleIndex) {
+        return odometryYaws[sampleIndex];
+    }
+
+    /**
+     * @param sampleIndex The index of the sample, from 0 to {@link #getOdometrySampleCount}.
+     * @return The module positions at the sample.
+     */
+    public SwerveModulePosition[] getOdometryPositions(int sampleIndex) {
+        return odometryPositions[sampleIndex];
     }
 
     /** Periodically updates the SmartDashboard with information about the swerve modules. */
     @Override
     public void periodic() {
-        // Put the yaw on the SmartDashboard
-        SmartDashboard.putNumber("yaw", gyro.getYaw().getValue());
+        periodicSection.begin();
 
-        // Put the module information on the SmartDashboard
-        for (SwerveModule mod : mSwerveMods) {
-            /** The module name. Ex. "REV Mod 0" */
-            String moduleName = String.format("REV Mod %d", mod.getModuleNumber());
+        // Read the sensors once, everything after this only uses the inputs
+        updateInputs();
+
+        // Integrate the odometry samples taken since the last loop
+        updateOdometry();
+
+        // The dashboard is for people, it does not need every loop
+        if (dashboardSlot.isDue()) {
+            // Put the yaw on the SmartDashboard
+            SmartDashboard.putNumber("yaw", getYawDegrees());
+
+            // Put the module information on the SmartDashboard
+            for (SwerveModule mod : mSwerveMods) {
+                /** The module name. Ex. "REV Mod 0" */
+                String moduleName = String.format("REV Mod %d", mod.getModuleNumber());
 
-            SmartDashboard.putNumber(moduleName + " Cancoder", mod.getCanCoder().getDegrees());
-            SmartDashboard.putNumber(moduleName + " Integrated", mod.getPosition().angle.getDegrees());
-            SmartDashboard.putNumber(moduleName + " Velocity", mod.getState().speedMetersPerSecond);
+                SmartDashboard.putNumber(moduleName + " Cancoder", mod.getCanCoder().getDegrees());
+                SmartDashboard.putNumber(moduleName + " Integrated", mod.getPosition().angle.getDegrees());
+                SmartDashboard.putNumber(moduleName + " Velocity", mod.getState().speedMetersPerSecond);
+            }
         }
 
-        // Record module states
-        Logger.recordOutput("SwerveModStates", getModuleStates());
-        Logger.recordOutput("SwerveGyro", gyro.getRotation2d());
+        // Record the module states, gyro and pose as one record
+        updateTelemetry();
+
+        periodicSection.end();
+    }
+
+    /**
+     * Fills the telemetry from the inputs and the odometry, and records it as one output, so it is in
+     * the log, on NetworkTables and in replay. Reads primitives only, so no geometry objects are
+     * created to record it.
+     */
+    private void updateTelemetry() {
+        for (int i = 0; i < mSwerveMods.length; i++) {
+            telemetry.moduleSpeedsMetersPerSecond[i] = mSwerveMods[i].getVelocityMetersPerSecond();
+            telemetry.moduleAnglesRadians[i] = Math.toRadians(mSwerveMods[i].getAngleDegrees());
+        }
+        telemetry.gyroYawRadians = Math.toRadians(getYawDegrees());
+        telemetry.gyroYawRateRadiansPerSecond = Math.toRadians(getYawRateDegreesPerSecond());
+
+        // The pose getters return the pose's own fields
+        Pose2d pose = swerveOdometry.getPoseMeters();
+        telemetry.poseXMeters = pose.getX();
+        telemetry.poseYMeters = pose.getY();
+        telemetry.poseRotationRadians = pose.getRotation().getRadians();
+
+        Logger.recordOutput("Swerve/Telemetry", SwerveTelemetry.struct, telemetry);
+    }
+
+    /**
+     * Advances the simulated modules and gyro by one loop. The time step is fixed, so the simulation
+     * can run faster than real time.
+     */
+    @Override
+    public void simulationPeriodic() {
+        if (simModuleIOs == null) {
+            return;
+        }
+
+        // Step the module physics with the voltages set this loop
+        SwerveModuleState[] states = new SwerveModuleState[simModuleIOs.length];
+        for (int i = 0; i < simModuleIOs.length; i++) {
+            simModuleIOs[i].update(LOOP_TIME_S);
+            states[i] = simModuleIOs[i].getState();
+        }
 
-        Logger.recordOutput("SwervePose2d", swerveOdometry.getPoseMeters());
+        // Integrate the yaw rate the modules produce
+        double omega = SwerveConfig.swerveKinematics.toChassisSpeeds(states).omegaRadiansPerSecond;
+        simGyroIO.update(omega, LOOP_TIME_S);
     }
 }
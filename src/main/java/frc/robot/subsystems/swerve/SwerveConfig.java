@@ -11,6 +11,7 @@ import com.revrobotics.CANSparkBase.IdleMode;
 import edu.wpi.first.math.geometry.Translation2d;
 import edu.wpi.first.math.kinematics.SwerveDriveKinematics;
 import edu.wpi.first.math.util.Units;
+import frc.lib.util.canUtil.StatusFrameProfile;
 import frc.lib.util.swerveUtil.COTSNeoSwerveConstants;
 
 /**
@@ -41,12 +42,13 @@ public class SwerveConfig {
 
     /* Swerve Kinematics
      * No need to ever change this unless you are not doing a traditional rectangular/square 4 module swerve */
-    public static final SwerveDriveKinematics swerveKinematics = new SwerveDriveKinematics(
+    public static final Translation2d[] moduleTranslations = new Translation2d[] {
         new Translation2d(wheelBase / 2.0, trackWidth / 2.0),
         new Translation2d(wheelBase / 2.0, -trackWidth / 2.0),
         new Translation2d(-wheelBase / 2.0, trackWidth / 2.0),
-        new Translation2d(-wheelBase / 2.0, -trackWidth / 2.0)
-    );
+        new Translation2d(-wheelBase / 2.0, -trackWidth / 2.0),
+    };
+    public static final SwerveDriveKinematics swerveKinematics = new SwerveDriveKinematics(moduleTranslations);
 
     /* Module Gear Ratios */
     public static final double driveGearRatio = chosenModule.driveGearRatio;
@@ -106,6 +108,31 @@ public class SwerveConfig {
     /** Radians per Second */
     public static final double maxAngularVelocity = 5.0; // max 10 or.....
 
+    /* Odometry */
+    /** Hertz. The rate the odometry thread samples the encoders and gyro at. */
+    public static final double odometryFrequency = 250.0;
+    /** Milliseconds. The status frame period that carries the sampled encoder positions. */
+    public static final int odometryFramePeriodMs = (int) (1000.0 / odometryFrequency);
+
+    /* Dashboard */
+    /** Hertz. How often the module angles and speeds are put on the SmartDashboard. */
+    public static final double dashboardFrequency = 10.0;
+
+    /* Status Frame Profiles */
+    public static final StatusFrameProfile enabledStatusFrames = StatusFrameProfile.odometry(odometryFramePeriodMs);
+    public static final StatusFrameProfile disabledStatusFrames = StatusFrameProfile.odometryDisabled();
+
+    /* Simulation
+     * Used by ModuleIOSim in Mode.SIM. The controllers run in volts, not SPARK MAX units */
+    /** Kilogram square meters. The moment of inertia of the wheel and drive gearing. */
+    public static final double simDriveMOI = 0.025;
+    /** Kilogram square meters. The moment of inertia of the module rotating about the steer axis. */
+    public static final double simAngleMOI = 0.004;
+    /** Volts per meter per second of velocity error. */
+    public static final double simDriveKP = 1.0;
+    /** Volts per degree of angle error. */
+    public static final double simAngleKP = 0.12;
+
     /**
      * pplib config, temporary
      */
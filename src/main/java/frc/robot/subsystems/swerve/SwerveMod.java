@@ -1,21 +1,15 @@
 package frc.robot.subsystems.swerve;
 
-import com.ctre.phoenix6.configs.CANcoderConfiguration;
-import com.ctre.phoenix6.hardware.CANcoder;
-import com.revrobotics.CANSparkBase.ControlType;
-import com.revrobotics.CANSparkBase.FaultID;
-import com.revrobotics.CANSparkLowLevel.MotorType;
-import com.revrobotics.CANSparkMax;
-import com.revrobotics.RelativeEncoder;
-import com.revrobotics.SparkPIDController;
 import edu.wpi.first.math.geometry.Rotation2d;
 import edu.wpi.first.math.kinematics.SwerveModulePosition;
 import edu.wpi.first.math.kinematics.SwerveModuleState;
-import edu.wpi.first.wpilibj.DriverStation;
 import frc.lib.util.swerveUtil.CTREModuleState;
-import frc.lib.util.swerveUtil.RevSwerveModuleConstants;
+import org.littletonrobotics.junction.Logger;
 
-/** a Swerve Modules using REV Robotics motor controllers and CTRE CANcoder absolute encoders. */
+/**
+ * A swerve module. Controls the module through a {@link ModuleIO} and only reads the inputs it
+ * logs, so the module behaves the same on a robot, in simulation and in replay.
+ */
 public class SwerveMod implements SwerveModule {
 
     /**
@@ -24,115 +18,37 @@ public class SwerveMod implements SwerveModule {
      */
     private int moduleNumber;
 
-    /** The angle offset. Used to zero the module to a specific angle. */
-    private Rotation2d angleOffset;
+    /** The hardware of the module. */
+    private final ModuleIO io;
 
-    /** The angle motor. This motor is used to control the angle of the module. */
-    private CANSparkMax mAngleMotor;
+    /** The inputs read from the hardware at the start of the loop. */
+    private final ModuleIOInputsAutoLogged inputs = new ModuleIOInputsAutoLogged();
 
-    /** The drive motor. This motor is used to control the speed of the module. */
-    private CANSparkMax mDriveMotor;
-
-    /** The angle encoder. This encoder is used to determine the angle of the module. */
-    private CANcoder angleEncoder;
-
-    /**
-     * The relative encoders. These encoders are used to determine the relative angle of the module.
-     */
-    private RelativeEncoder relAngleEncoder;
+    /** The log key of the inputs, built once so logging does not concatenate strings. */
+    private final String inputsKey;
 
     /**
-     * The relative drive encoder. This encoder is used to determine the relative position of the
-     * module.
+     * Holds the output of {@link CTREModuleState#optimize(double, double, double, double[])}. Reused
+     * every loop so setting the desired state does not allocate.
      */
-    private RelativeEncoder relDriveEncoder;
+    private final double[] optimizedState = new double[2];
 
     /**
      * Creates a new Swerve Module.
      *
      * @param moduleNumber The module number.
-     * @param moduleConstants The module constants.
+     * @param io The hardware of the module.
      */
-    public SwerveMod(int moduleNumber, RevSwerveModuleConstants moduleConstants) {
-        // Set the module number and angle offset.
+    public SwerveMod(int moduleNumber, ModuleIO io) {
         this.moduleNumber = moduleNumber;
-        this.angleOffset = moduleConstants.angleOffset;
-
-        // Create and configure the angle motor.
-        mAngleMotor = new CANSparkMax(moduleConstants.angleMotorID, MotorType.kBrushless);
-        configAngleMotor();
-
-        // Create and configure the drive motor.
-        mDriveMotor = new CANSparkMax(moduleConstants.driveMotorID, MotorType.kBrushless);
-        configDriveMotor();
-
-        // Create and configure the encoders.
-        angleEncoder = new CANcoder(moduleConstants.cancoderID);
-        configEncoders();
-    }
-
-    /** Configures the encoders. */
-    private void configEncoders() {
-        // Reset the CANCoder to factory defaults and configure it.
-        // angleEncoder.getConfigurator().apply(new CANcoderConfiguration());
-        angleEncoder.getConfigurator().refresh(new CANcoderConfiguration());
-        angleEncoder.getConfigurator().apply(new SwerveConfig().canCoderConfig);
-
-        // Assign the relative drive encoder and set the position to 0.
-        relDriveEncoder = mDriveMotor.getEncoder();
-        relDriveEncoder.setPosition(0);
-
-        // Set the position and velocity conversion factors based on the SwerveConfig
-        relDriveEncoder.setPositionConversionFactor(SwerveConfig.driveRevToMeters);
-        relDriveEncoder.setVelocityConversionFactor(SwerveConfig.driveRpmToMetersPerSecond);
-
-        // Assign the relative angle encoder and configure it.
-        relAngleEncoder = mAngleMotor.getEncoder();
-        relAngleEncoder.setPositionConversionFactor(SwerveConfig.DegreesPerTurnRotation);
-        relAngleEncoder.setVelocityConversionFactor(SwerveConfig.DegreesPerTurnRotation / 60); // in degrees/sec
-
-        // Reset the module to absolute position.
-        resetToAbsolute();
-
-        // Write the configuration to flash memory.
-        mDriveMotor.burnFlash();
-        mAngleMotor.burnFlash();
+        this.io = io;
+        inputsKey = "Swerve/Mod" + moduleNumber;
     }
 
-    /** Configures the angle motor. */
-    private void configAngleMotor() {
-        // Reset the angle motor to factory defaults
-        mAngleMotor.restoreFactoryDefaults();
-
-        // Configure the PID controller for the angle motor
-        SparkPIDController controller = mAngleMotor.getPIDController();
-        controller.setP(SwerveConfig.angleKP, 0);
-        controller.setI(SwerveConfig.angleKI, 0);
-        controller.setD(SwerveConfig.angleKD, 0);
-        controller.setFF(SwerveConfig.angleKF, 0);
-        controller.setOutputRange(-SwerveConfig.anglePower, SwerveConfig.anglePower);
-
-        mAngleMotor.setSmartCurrentLimit(SwerveConfig.angleContinuousCurrentLimit);
-        mAngleMotor.setInverted(SwerveConfig.angleMotorInvert);
-        mAngleMotor.setIdleMode(SwerveConfig.angleIdleMode);
-    }
-
-    /** Configures the drive motor. */
-    private void configDriveMotor() {
-        // Reset the drive motor to factory defaults
-        mDriveMotor.restoreFactoryDefaults();
-
-        // Configure the PID controller for the drive motor
-        SparkPIDController controller = mDriveMotor.getPIDController();
-        controller.setP(SwerveConfig.driveKP, 0);
-        controller.setI(SwerveConfig.driveKI, 0);
-        controller.setD(SwerveConfig.driveKD, 0);
-        controller.setFF(SwerveConfig.driveKF, 0);
-        controller.setOutputRange(-SwerveConfig.drivePower, SwerveConfig.drivePower);
-
-        mDriveMotor.setSmartCurrentLimit(SwerveConfig.driveContinuousCurrentLimit);
-        mDriveMotor.setInverted(SwerveConfig.driveMotorInvert);
-        mDriveMotor.setIdleMode(SwerveConfig.driveIdleMode);
+    /** Reads and logs the inputs. Should be called once at the start of every loop. */
+    public void updateInputs() {
+        io.updateInputs(inputs);
+        Logger.processInputs(inputsKey, inputs);
     }
 
     /**
@@ -142,74 +58,71 @@ public class SwerveMod implements SwerveModule {
      * @param isOpenLoop Whether the module is in open loop.
      */
     public void setDesiredState(SwerveModuleState desiredState, boolean isOpenLoop) {
-        // CTREModuleState functions for any motor type.
-        desiredState = CTREModuleState.optimize(desiredState, getState().angle);
-        setAngle(desiredState);
-        setSpeed(desiredState, isOpenLoop);
+        setDesiredState(desiredState.speedMetersPerSecond, desiredState.angle.getDegrees(), isOpenLoop);
+    }
 
-        // Check for sensor faults.
-        if (mDriveMotor.getFault(FaultID.kSensorFault)) {
-            DriverStation.reportWarning("Sensor Fault on Drive Motor ID:" + mDriveMotor.getDeviceId(), false);
-        }
-        if (mAngleMotor.getFault(FaultID.kSensorFault)) {
-            DriverStation.reportWarning("Sensor Fault on Angle Motor ID:" + mAngleMotor.getDeviceId(), false);
-        }
+    /**
+     * Sets the desired state of the module without allocating.
+     *
+     * @param speedMetersPerSecond The desired speed.
+     * @param angleDegrees The desired angle.
+     * @param isOpenLoop Whether the module is in open loop.
+     */
+    public void setDesiredState(double speedMetersPerSecond, double angleDegrees, boolean isOpenLoop) {
+        // CTREModuleState functions for any motor type.
+        CTREModuleState.optimize(speedMetersPerSecond, angleDegrees, inputs.anglePositionDegrees, optimizedState);
+        setAngle(optimizedState[CTREModuleState.SPEED], optimizedState[CTREModuleState.ANGLE]);
+        setSpeed(optimizedState[CTREModuleState.SPEED], isOpenLoop);
     }
 
     /**
      * Sets the speed of the module.
      *
-     * @param desiredState The desired state.
+     * @param speedMetersPerSecond The desired speed.
      * @param isOpenLoop Whether the module is in open loop.
      */
-    private void setSpeed(SwerveModuleState desiredState, boolean isOpenLoop) {
+    private void setSpeed(double speedMetersPerSecond, boolean isOpenLoop) {
         // If the module is in open loop, set the speed directly.
         if (isOpenLoop) {
-            double percentOutput = desiredState.speedMetersPerSecond / SwerveConfig.maxSpeed;
-            mDriveMotor.set(percentOutput);
+            double percentOutput = speedMetersPerSecond / SwerveConfig.maxSpeed;
+            io.setDriveOpenLoop(percentOutput);
             return;
         }
 
         // Otherwise, set the speed using the PID controller.
-        double velocity = desiredState.speedMetersPerSecond;
-
-        SparkPIDController controller = mDriveMotor.getPIDController();
-        controller.setReference(velocity, ControlType.kVelocity, 0);
+        io.setDriveVelocity(speedMetersPerSecond);
     }
 
     /**
      * Sets the angle of the module.
      *
-     * @param desiredState The desired state.
+     * @param speedMetersPerSecond The desired speed. Used to stop the motor at low speeds.
+     * @param angleDegrees The desired angle.
      */
-    private void setAngle(SwerveModuleState desiredState) {
+    private void setAngle(double speedMetersPerSecond, double angleDegrees) {
         // Stop the motor if the speed is less than 1%.
         // Prevents Jittering.
-        if (Math.abs(desiredState.speedMetersPerSecond) <= (SwerveConfig.maxSpeed * 0.01)) {
-            mAngleMotor.stopMotor();
+        if (Math.abs(speedMetersPerSecond) <= (SwerveConfig.maxSpeed * 0.01)) {
+            io.stopAngle();
             return;
         }
 
         // Set the angle using the PID controller.
-        Rotation2d angle = desiredState.angle;
-        double degReference = angle.getDegrees();
-
-        SparkPIDController controller = mAngleMotor.getPIDController();
-        controller.setReference(degReference, ControlType.kPosition, 0);
+        io.setAnglePosition(angleDegrees);
     }
 
     /**
      * @return The angle of the module.
      */
     private Rotation2d getAngle() {
-        return Rotation2d.fromDegrees(relAngleEncoder.getPosition());
+        return Rotation2d.fromDegrees(inputs.anglePositionDegrees);
     }
 
     /**
      * @return The CANCoder angle of the module.
      */
     public Rotation2d getCanCoder() {
-        return Rotation2d.fromDegrees(angleEncoder.getAbsolutePosition().getValue() * 360);
+        return Rotation2d.fromDegrees(inputs.absolutePositionDegrees);
     }
 
     /**
@@ -228,23 +141,49 @@ public class SwerveMod implements SwerveModule {
         this.moduleNumber = moduleNumber;
     }
 
-    /** Resets the module to absolute position. */
-    private void resetToAbsolute() {
-        double absolutePosition = getCanCoder().getDegrees() - angleOffset.getDegrees();
-        relAngleEncoder.setPosition(absolutePosition);
-    }
-
     /**
      * @return The state of the module.
      */
     public SwerveModuleState getState() {
-        return new SwerveModuleState(relDriveEncoder.getVelocity(), getAngle());
+        return new SwerveModuleState(inputs.driveVelocityMetersPerSec, getAngle());
+    }
+
+    /**
+     * @return The drive speed of the module, in meters per second.
+     */
+    public double getVelocityMetersPerSecond() {
+        return inputs.driveVelocityMetersPerSec;
+    }
+
+    /**
+     * @return The angle of the module, in degrees.
+     */
+    public double getAngleDegrees() {
+        return inputs.anglePositionDegrees;
     }
 
     /**
      * @return The position of the module.
      */
     public SwerveModulePosition getPosition() {
-        return new SwerveModulePosition(relDriveEncoder.getPosition(), getAngle());
+        return new SwerveModulePosition(inputs.drivePositionMeters, getAngle());
+    }
+
+    /**
+     * @return The number of odometry samples in the inputs.
+     */
+    public int getOdometrySampleCount() {
+        return inputs.odometryTimestamps.length;
+    }
+
+    /**
+     * @param sampleIndex The index of the odometry sample in the inputs.
+     * @return The position of the module at the sample.
+     */
+    public SwerveModulePosition getOdometryPosition(int sampleIndex) {
+        return new SwerveModulePosition(
+            inputs.odometryDrivePositionsMeters[sampleIndex],
+            Rotation2d.fromDegrees(inputs.odometryAnglePositionsDegrees[sampleIndex])
+        );
     }
 }
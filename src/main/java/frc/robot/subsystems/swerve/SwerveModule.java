@@ -6,14 +6,49 @@ import edu.wpi.first.math.kinematics.SwerveModuleState;
 
 /** A swerve module. Used to control a single swerve module on the robot. */
 public interface SwerveModule {
+    /** Reads and logs the inputs of the module. Should be called once at the start of every loop. */
+    public void updateInputs();
+
     public void setDesiredState(SwerveModuleState desiredState, boolean isOpenLoop);
 
+    /**
+     * Same as {@link #setDesiredState(SwerveModuleState, boolean)}, but takes the state as primitives
+     * so the drive loop does not allocate.
+     *
+     * @param speedMetersPerSecond The desired speed.
+     * @param angleDegrees The desired angle.
+     * @param isOpenLoop Whether the module is in open loop.
+     */
+    public void setDesiredState(double speedMetersPerSecond, double angleDegrees, boolean isOpenLoop);
+
     public Rotation2d getCanCoder();
 
     public SwerveModuleState getState();
 
+    /**
+     * @return The drive speed of the module, in meters per second. Does not allocate a
+     *     {@link SwerveModuleState}.
+     */
+    public double getVelocityMetersPerSecond();
+
+    /**
+     * @return The angle of the module, in degrees. Does not allocate a {@link Rotation2d}.
+     */
+    public double getAngleDegrees();
+
     public SwerveModulePosition getPosition();
 
+    /**
+     * @return The number of samples taken by the {@link OdometryThread} since the last loop.
+     */
+    public int getOdometrySampleCount();
+
+    /**
+     * @param sampleIndex The index of the sample taken by the {@link OdometryThread}.
+     * @return The position of the module at the sample.
+     */
+    public SwerveModulePosition getOdometryPosition(int sampleIndex);
+
     public int getModuleNumber();
 
     public void setModuleNumber(int moduleNumber);
@@ -0,0 +1,111 @@
+package frc.robot.subsystems.swerve;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModuleState;
+import edu.wpi.first.util.struct.Struct;
+import edu.wpi.first.util.struct.StructSerializable;
+import java.nio.ByteBuffer;
+
+/**
+ * The drivetrain telemetry of one loop, the module states, the gyro and the pose, as primitive
+ * fields. Packs into one WPILib struct, so a loop records a single output instead of an output per
+ * value, and no geometry objects are created to record it.
+ *
+ * <p>The schema nests the WPILib {@link SwerveModuleState}, {@link Rotation2d} and {@link Pose2d}
+ * structs, so AdvantageScope shows the states and the pose like the objects they replace. Fill one
+ * instance every loop and reuse it.
+ */
+public class SwerveTelemetry implements StructSerializable {
+
+    /** The number of modules, one state each. */
+    public static final int MODULE_COUNT = SwerveConfig.moduleTranslations.length;
+
+    /** The speed of each module, in meters per second, in module order. */
+    public final double[] moduleSpeedsMetersPerSecond = new double[MODULE_COUNT];
+
+    /** The angle of each module, in radians, in module order. */
+    public final double[] moduleAnglesRadians = new double[MODULE_COUNT];
+
+    /** The yaw of the robot, in radians. */
+    public double gyroYawRadians = 0;
+
+    /** The yaw rate of the robot, in radians per second. */
+    public double gyroYawRateRadiansPerSecond = 0;
+
+    /* The pose of the robot, in meters and radians. */
+    public double poseXMeters = 0;
+    public double poseYMeters = 0;
+    public double poseRotationRadians = 0;
+
+    /** The struct, used to log and publish the telemetry. */
+    public static final TelemetryStruct struct = new TelemetryStruct();
+
+    /** Packs {@link SwerveTelemetry} field by field, in the order of the schema. */
+    public static class TelemetryStruct implements Struct<SwerveTelemetry> {
+
+        @Override
+        public Class<SwerveTelemetry> getTypeClass() {
+            return SwerveTelemetry.class;
+        }
+
+        @Override
+        public String getTypeString() {
+            return "struct:SwerveTelemetry";
+        }
+
+        @Override
+        public int getSize() {
+            return MODULE_COUNT * SwerveModuleState.struct.getSize() +
+                Rotation2d.struct.getSize() +
+                kSizeDouble +
+                Pose2d.struct.getSize();
+        }
+
+        @Override
+        public String getSchema() {
+            return "SwerveModuleState states[" + MODULE_COUNT + "];Rotation2d gyroYaw;double gyroYawRate;Pose2d pose";
+        }
+
+        @Override
+        public Struct<?>[] getNested() {
+            return new Struct<?>[] { SwerveModuleState.struct, Rotation2d.struct, Pose2d.struct };
+        }
+
+        @Override
+        public SwerveTelemetry unpack(ByteBuffer bb) {
+            SwerveTelemetry telemetry = new SwerveTelemetry();
+            unpackInto(telemetry, bb);
+            return telemetry;
+        }
+
+        @Override
+        public void unpackInto(SwerveTelemetry out, ByteBuffer bb) {
+            for (int i = 0; i < MODULE_COUNT; i++) {
+                out.moduleSpeedsMetersPerSecond[i] = bb.getDouble();
+                out.moduleAnglesRadians[i] = bb.getDouble();
+            }
+            out.gyroYawRadians = bb.getDouble();
+            out.gyroYawRateRadiansPerSecond = bb.getDouble();
+            out.poseXMeters = bb.getDouble();
+            out.poseYMeters = bb.getDouble();
+            out.poseRotationRadians = bb.getDouble();
+        }
+
+        @Override
+        public void pack(ByteBuffer bb, SwerveTelemetry value) {
+            // A SwerveModuleState is its speed then its Rotation2d, which is its angle in radians
+            for (int i = 0; i < MODULE_COUNT; i++) {
+                bb.putDouble(value.moduleSpeedsMetersPerSecond[i]);
+                bb.putDouble(value.moduleAnglesRadians[i]);
+            }
+            bb.putDouble(value.gyroYawRadians);
+            bb.putDouble(value.gyroYawRateRadiansPerSecond);
+
+            // A Pose2d is its Translation2d, x then y, then its Rotation2d
+            bb.putDouble(value.poseXMeters);
+            bb.putDouble(value.poseYMeters);
+            bb.putDouble(value.poseRotationRadians);
+        }
+    }
+}
@@ -0,0 +1,228 @@
+package frc.robot.replay;
+
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+import frc.robot.subsystems.swerve.Swerve;
+import frc.robot.subsystems.swerve.SwerveConfig;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The odometry, Limelight estimates and logged poses of a WPILOG, decoded once into arrays so every
+ * replay run can share them read-only.
+ *
+ * <p>AdvantageKit only writes a value when it changes, so each signal is looked up as the last value
+ * at or before a loop, not the value written at the loop.
+ */
+class ReplayLog {
+
+    /** A signal and the times it was written, oldest first. */
+    private static class Series {
+
+        private final List<Long> times = new ArrayList<>();
+        private final List<Object> values = new ArrayList<>();
+
+        private void add(long timeMicros, Object value) {
+            times.add(timeMicros);
+            values.add(value);
+        }
+
+        /** The last value at or before a time, or null if there is none. */
+        private Object valueAt(long timeMicros) {
+            int low = 0;
+            int high = times.size();
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (times.get(middle) > timeMicros) {
+                    high = middle;
+                } else {
+                    low = middle + 1;
+                }
+            }
+            return low == 0 ? null : values.get(low - 1);
+        }
+    }
+
+    /* The loops with odometry samples, and the samples of each loop. */
+    final long[] loopTimesMicros;
+    final double[][] sampleTimestamps;
+    final Rotation2d[][] sampleYaws;
+    final SwerveModulePosition[][][] samplePositions;
+
+    /** The yaw rate of the robot at each loop, counter-clockwise positive. */
+    final double[] yawRates;
+
+    /** The pose the robot logged at each loop, null before the first one. */
+    final Pose2d[] loggedPoses;
+
+    /* The botpose arrays of each camera and their NetworkTables timestamps, oldest first. */
+    final double[][][] frames;
+    final long[][] frameTimesMicros;
+
+    /**
+     * Reads the log.
+     *
+     * @param path The robot log, with the AdvantageKit inputs and outputs.
+     * @param networkTablesPath The log with the Limelight NetworkTables traffic. Can be the same as path.
+     * @param inputsPrefix The prefix of the AdvantageKit inputs, ex. "/".
+     * @param outputsPrefix The prefix of the AdvantageKit outputs, ex. "/RealOutputs/".
+     * @param frameKeys The entry of each camera's botpose array.
+     * @throws IOException If a log can not be read.
+     */
+    ReplayLog(String path, String networkTablesPath, String inputsPrefix, String outputsPrefix, String[] frameKeys)
+        throws IOException {
+        // Every entry that is needed, by name
+        Map<String, Series> series = new HashMap<>();
+        String gyro = inputsPrefix + "Swerve/Gyro/";
+        String[] wanted = new String[] {
+            gyro + "OdometryTimestamps",
+            gyro + "OdometryYawDegrees",
+            gyro + "YawVelocityDegreesPerSec",
+            outputsPrefix + "PoseEstimator/Pose",
+        };
+        for (String name : wanted) {
+            series.put(name, new Series());
+        }
+        for (int module = 0; module < 4; module++) {
+            series.put(inputsPrefix + "Swerve/Mod" + module + "/OdometryDrivePositionsMeters", new Series());
+            series.put(inputsPrefix + "Swerve/Mod" + module + "/OdometryAnglePositionsDegrees", new Series());
+        }
+        for (String key : frameKeys) {
+            series.put(key, new Series());
+        }
+
+        read(path, series);
+        if (!networkTablesPath.equals(path)) {
+            read(networkTablesPath, series);
+        }
+
+        // Every loop with odometry writes new sample timestamps
+        Series loops = series.get(gyro + "OdometryTimestamps");
+        if (loops.times.isEmpty()) {
+            throw new IOException("No odometry samples under " + gyro + "OdometryTimestamps");
+        }
+
+        int loopCount = loops.times.size();
+        loopTimesMicros = new long[loopCount];
+        sampleTimestamps = new double[loopCount][];
+        sampleYaws = new Rotation2d[loopCount][];
+        samplePositions = new SwerveModulePosition[loopCount][][];
+        yawRates = new double[loopCount];
+        loggedPoses = new Pose2d[loopCount];
+
+        for (int loop = 0; loop < loopCount; loop++) {
+            long time = loops.times.get(loop);
+            loopTimesMicros[loop] = time;
+
+            double[] timestamps = (double[]) loops.values.get(loop);
+            double[] yaws = arrayAt(series.get(gyro + "OdometryYawDegrees"), time);
+            double[][] drivePositions = new double[4][];
+            double[][] anglePositions = new double[4][];
+
+            // Guard against mismatched counts the same way the robot does
+            int sampleCount = Math.min(timestamps.length, yaws.length);
+            for (int module = 0; module < 4; module++) {
+                String prefix = inputsPrefix + "Swerve/Mod" + module + "/";
+                drivePositions[module] = arrayAt(series.get(prefix + "OdometryDrivePositionsMeters"), time);
+                anglePositions[module] = arrayAt(series.get(prefix + "OdometryAnglePositionsDegrees"), time);
+                sampleCount = Math.min(sampleCount, drivePositions[module].length);
+                sampleCount = Math.min(sampleCount, anglePositions[module].length);
+            }
+
+            sampleTimestamps[loop] = new double[sampleCount];
+            sampleYaws[loop] = new Rotation2d[sampleCount];
+            samplePositions[loop] = new SwerveModulePosition[sampleCount][];
+            for (int i = 0; i < sampleCount; i++) {
+                sampleTimestamps[loop][i] = timestamps[i];
+                sampleYaws[loop][i] = Rotation2d.fromDegrees(Swerve.yawFromGyroDegrees(yaws[i]));
+
+                SwerveModulePosition[] positions = new SwerveModulePosition[4];
+                for (int module = 0; module < 4; module++) {
+                    positions[module] = new SwerveModulePosition(
+                        drivePositions[module][i],
+                        Rotation2d.fromDegrees(anglePositions[module][i])
+                    );
+                }
+                samplePositions[loop][i] = positions;
+            }
+
+            Object yawRate = series.get(gyro + "YawVelocityDegreesPerSec").valueAt(time);
+            yawRates[loop] = yawRate == null ? 0 : (double) yawRate;
+            if (SwerveConfig.invertGyro) {
+                yawRates[loop] = -yawRates[loop];
+            }
+            loggedPoses[loop] = (Pose2d) series.get(outputsPrefix + "PoseEstimator/Pose").valueAt(time);
+        }
+
+        frames = new double[frameKeys.length][][];
+        frameTimesMicros = new long[frameKeys.length][];
+        for (int camera = 0; camera < frameKeys.length; camera++) {
+            Series cameraFrames = series.get(frameKeys[camera]);
+            frames[camera] = cameraFrames.values.toArray(new double[0][]);
+            frameTimesMicros[camera] = new long[cameraFrames.times.size()];
+            for (int i = 0; i < frameTimesMicros[camera].length; i++) {
+                frameTimesMicros[camera][i] = cameraFrames.times.get(i);
+            }
+        }
+    }
+
+    /** Reads the records of the wanted entries of a log into their series. */
+    private static void read(String path, Map<String, Series> series) throws IOException {
+        DataLogReader reader = new DataLogReader(path);
+        if (!reader.isValid()) {
+            throw new IOException(path + " is not a WPILOG");
+        }
+
+        // Entry ids are only valid within one log
+        Map<Integer, Series> entrySeries = new HashMap<>();
+        Map<Integer, String> entryTypes = new HashMap<>();
+        for (DataLogRecord record : reader) {
+            if (record.isStart()) {
+                DataLogRecord.StartRecordData start = record.getStartData();
+                Series wanted = series.get(start.name);
+                if (wanted != null) {
+                    entrySeries.put(start.entry, wanted);
+                    entryTypes.put(start.entry, start.type);
+                }
+                continue;
+            }
+            if (record.isControl()) {
+                continue;
+            }
+
+            Series wanted = entrySeries.get(record.getEntry());
+            if (wanted == null) {
+                continue;
+            }
+            wanted.add(record.getTimestamp(), decode(record, entryTypes.get(record.getEntry())));
+        }
+    }
+
+    /** Decodes a record by the type of its entry. */
+    private static Object decode(DataLogRecord record, String type) {
+        switch (type) {
+            case "double":
+                return record.getDouble();
+            case "double[]":
+                return record.getDoubleArray();
+            case "struct:Pose2d":
+                return Pose2d.struct.unpack(ByteBuffer.wrap(record.getRaw()).order(ByteOrder.LITTLE_ENDIAN));
+            default:
+                throw new IllegalArgumentException("Unsupported entry type " + type);
+        }
+    }
+
+    /** The array at or before a time, empty if there is none. */
+    private static double[] arrayAt(Series series, long timeMicros) {
+        Object value = series.valueAt(timeMicros);
+        return value == null ? new double[] {} : (double[]) value;
+    }
+}
@@ -0,0 +1,395 @@
+package frc.robot.replay;
+
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import frc.lib.util.visionUtil.AprilTagIndex;
+import frc.lib.util.visionUtil.LimelightCameraConstants;
+import frc.lib.util.visionUtil.PoseEstimateBuffer;
+import frc.lib.util.visionUtil.TagVisibilityGrid;
+import frc.lib.util.visionUtil.VisionGate;
+import frc.robot.Constants;
+import frc.robot.subsystems.PoseEstimator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Replays a WPILOG through the pose estimator and the {@link VisionGate} as fast as possible, to
+ * compare estimator configurations offline. Each run reports the throughput, the time each
+ * estimator update took and how far the replayed pose ends up from the pose the robot logged.
+ * Several configurations can be swept at once, one run per core.
+ *
+ * <p>The log needs the AdvantageKit swerve inputs, the logged PoseEstimator/Pose and the
+ * NetworkTables traffic of the Limelights, ex. from DataLogManager.logNetworkTables. Replays the
+ * same steps as {@link PoseEstimator#periodic}: every odometry sample at its own time, then the
+ * MegaTag2 estimates received by the loop, oldest first. The fiducial filters and robot
+ * orientation sent to the cameras can not be replayed, the frames already have them applied.
+ *
+ * <p>Options are given as key=value:
+ *
+ * <ul>
+ *   <li>log: The robot log. Required.
+ *   <li>ntlog: The log with the NetworkTables traffic, if it is not the robot log.
+ *   <li>inputs, outputs: The prefixes of the AdvantageKit inputs and outputs. Default "/" and
+ *       "/RealOutputs/".
+ *   <li>cameras: The Limelight names, comma separated. Default the cameras in {@link Constants}.
+ *   <li>frames: The entry of each camera's botpose array, %s for the name. Default
+ *       "NT:/%s/botpose_orb_wpiblue".
+ *   <li>stateStdDev, xyCoefficient, maxAvgTagDist: The values to sweep, comma separated. Every
+ *       combination is run. Default the values in {@link Constants}.
+ *   <li>threads: The number of runs at once. Default the number of cores.
+ *   <li>warmup: The untimed runs of each configuration before the timed one, so the JIT has
+ *       compiled the estimator. Default 1.
+ * </ul>
+ */
+public class VisionReplay {
+
+    /** One configuration of the estimator and the gate. */
+    private static class Config {
+
+        private final double stateStdDev;
+        private final double xyCoefficient;
+        private final double maxAvgTagDist;
+
+        private Config(double stateStdDev, double xyCoefficient, double maxAvgTagDist) {
+            this.stateStdDev = stateStdDev;
+            this.xyCoefficient = xyCoefficient;
+            this.maxAvgTagDist = maxAvgTagDist;
+        }
+    }
+
+    /** The results of a run. */
+    private static class Result {
+
+        private long wallNanos;
+        private int loops;
+        private int samples;
+        private int frames;
+        private long accepted;
+        private long rejected;
+
+        /* The time of each update, in nanoseconds. Sorted once the run is done. */
+        private long[] odometryNanos;
+        private long[] visionNanos;
+
+        /* The error against the logged pose. */
+        private double squaredErrorSum;
+        private int errorCount;
+        private double finalTranslationError;
+        private double finalHeadingErrorDegrees;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (split < 0) {
+                throw new IllegalArgumentException("Options are key=value, got " + arg);
+            }
+            options.put(arg.substring(0, split), arg.substring(split + 1));
+        }
+        if (!options.containsKey("log")) {
+            throw new IllegalArgumentException("Usage: log=<path to .wpilog> [option=value ...]");
+        }
+
+        // The cameras, with their constants if they are known
+        String[] cameraNames = cameraNames(options.get("cameras"));
+        String framesKey = options.getOrDefault("frames", "NT:/%s/botpose_orb_wpiblue");
+        String[] frameKeys = new String[cameraNames.length];
+        for (int i = 0; i < cameraNames.length; i++) {
+            frameKeys[i] = String.format(framesKey, cameraNames[i]);
+        }
+
+        // Read the log once, every run shares it
+        long loadStart = System.nanoTime();
+        ReplayLog log = new ReplayLog(
+            options.get("log"),
+            options.getOrDefault("ntlog", options.get("log")),
+            options.getOrDefault("inputs", "/"),
+            options.getOrDefault("outputs", "/RealOutputs/"),
+            frameKeys
+        );
+        System.out.printf(
+            "Read %d loops and %d frames in %.1f s%n",
+            log.loopTimesMicros.length,
+            Arrays.stream(log.frames).mapToInt(cameraFrames -> cameraFrames.length).sum(),
+            (System.nanoTime() - loadStart) / 1e9
+        );
+
+        // The grids are only read, so they are shared too
+        AprilTagIndex tagIndex = new AprilTagIndex(Constants.PoseEstimator.fieldLayout.loadAprilTagLayoutField());
+        TagVisibilityGrid[] grids = new TagVisibilityGrid[cameraNames.length];
+        for (int i = 0; i < cameraNames.length; i++) {
+            grids[i] = visibilityGrid(tagIndex, cameraNames[i]);
+        }
+
+        // Every combination of the swept values
+        double[] stateStdDevs = values(options.get("stateStdDev"), Constants.PoseEstimator.stateStdDevs.get(0, 0));
+        double[] xyCoefficients = values(
+            options.get("xyCoefficient"),
+            Constants.PoseEstimator.visionXYStdDevCoefficient
+        );
+        double[] maxAvgTagDists = values(options.get("maxAvgTagDist"), Constants.PoseEstimator.maxAvgTagDist);
+        List<Config> configs = new ArrayList<>();
+        for (double stateStdDev : stateStdDevs) {
+            for (double xyCoefficient : xyCoefficients) {
+                for (double maxAvgTagDist : maxAvgTagDists) {
+                    configs.add(new Config(stateStdDev, xyCoefficient, maxAvgTagDist));
+                }
+            }
+        }
+
+        int threads = Integer.parseInt(
+            options.getOrDefault("threads", Integer.toString(Runtime.getRuntime().availableProcessors()))
+        );
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "1"));
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, Math.min(threads, configs.size())));
+        List<Future<Result>> futures = new ArrayList<>();
+        for (Config config : configs) {
+            futures.add(
+                executor.submit(() -> {
+                    for (int i = 0; i < warmup; i++) {
+                        run(log, tagIndex, grids, config);
+                    }
+                    return run(log, tagIndex, grids, config);
+                })
+            );
+        }
+
+        System.out.printf(
+            "%-9s %-9s %-9s | %10s %10s %8s | %7s %7s %7s | %7s %7s %7s | %8s %8s | %8s %8s %8s%n",
+            "stateStd",
+            "xyCoef",
+            "maxDist",
+            "frames/s",
+            "loops/s",
+            "x real",
+            "odo p50",
+            "p99",
+            "max",
+            "vis p50",
+            "p99",
+            "max",
+            "accepted",
+            "rejected",
+            "rms m",
+            "final m",
+            "final deg"
+        );
+        double logSeconds = (log.loopTimesMicros[log.loopTimesMicros.length - 1] - log.loopTimesMicros[0]) / 1e6;
+        for (int i = 0; i < configs.size(); i++) {
+            Config config = configs.get(i);
+            Result result = futures.get(i).get();
+            double wallSeconds = result.wallNanos / 1e9;
+
+            System.out.printf(
+                "%-9.4g %-9.4g %-9.4g | %10.0f %10.0f %8.1f | %7.1f %7.1f %7.1f | %7.1f %7.1f %7.1f | %8d %8d |" +
+                " %8.3f %8.3f %8.2f%n",
+                config.stateStdDev,
+                config.xyCoefficient,
+                config.maxAvgTagDist,
+                result.frames / wallSeconds,
+                result.loops / wallSeconds,
+                logSeconds / wallSeconds,
+                percentileMicros(result.odometryNanos, result.samples, 0.5),
+                percentileMicros(result.odometryNanos, result.samples, 0.99),
+                percentileMicros(result.odometryNanos, result.samples, 1),
+                percentileMicros(result.visionNanos, result.frames, 0.5),
+                percentileMicros(result.visionNanos, result.frames, 0.99),
+                percentileMicros(result.visionNanos, result.frames, 1),
+                result.accepted,
+                result.rejected,
+                result.errorCount == 0 ? Double.NaN : Math.sqrt(result.squaredErrorSum / result.errorCount),
+                result.finalTranslationError,
+                result.finalHeadingErrorDegrees
+            );
+        }
+        executor.shutdown();
+    }
+
+    /**
+     * Replays the log with a configuration.
+     *
+     * @param log The log.
+     * @param tagIndex The tags on the field, and its size.
+     * @param grids The tags each camera can see.
+     * @param config The configuration.
+     * @return The results.
+     */
+    private static Result run(ReplayLog log, AprilTagIndex tagIndex, TagVisibilityGrid[] grids, Config config) {
+        SwerveDrivePoseEstimator estimator = PoseEstimator.createEstimator(
+            VecBuilder.fill(config.stateStdDev, config.stateStdDev, Constants.PoseEstimator.stateStdDevs.get(2, 0))
+        );
+        VisionGate gate = new VisionGate(
+            "Replay/Gate",
+            Constants.PoseEstimator.maxMegaTag2YawRate,
+            Constants.PoseEstimator.maxVisionAge,
+            tagIndex.getFieldLength(),
+            tagIndex.getFieldWidth(),
+            Constants.PoseEstimator.fieldMargin,
+            config.maxAvgTagDist,
+            Constants.PoseEstimator.maxAmbiguity,
+            config.xyCoefficient,
+            Constants.PoseEstimator.minVisionXYStdDev,
+            Constants.PoseEstimator.megaTag2ThetaStdDev
+        );
+        PoseEstimateBuffer estimate = new PoseEstimateBuffer();
+
+        Result result = new Result();
+        int totalSamples = 0;
+        for (double[] timestamps : log.sampleTimestamps) {
+            totalSamples += timestamps.length;
+        }
+        int totalFrames = 0;
+        for (double[][] cameraFrames : log.frames) {
+            totalFrames += cameraFrames.length;
+        }
+        result.odometryNanos = new long[totalSamples];
+        result.visionNanos = new long[totalFrames];
+
+        // The next frame of each camera
+        int[] nextFrames = new int[log.frames.length];
+        boolean started = false;
+
+        long runStart = System.nanoTime();
+        for (int loop = 0; loop < log.loopTimesMicros.length; loop++) {
+            int sampleCount = log.sampleTimestamps[loop].length;
+            Pose2d loggedPose = log.loggedPoses[loop];
+
+            // Start where the robot was, so the error only measures how the estimates differ
+            if (!started && sampleCount > 0 && loggedPose != null) {
+                estimator.resetPosition(log.sampleYaws[loop][0], log.samplePositions[loop][0], loggedPose);
+                started = true;
+            }
+
+            // Add every odometry sample from this loop at the time it was taken
+            for (int i = 0; i < sampleCount; i++) {
+                long start = System.nanoTime();
+                estimator.updateWithTime(
+                    log.sampleTimestamps[loop][i],
+                    log.sampleYaws[loop][i],
+                    log.samplePositions[loop][i]
+                );
+                result.odometryNanos[result.samples++] = System.nanoTime() - start;
+            }
+
+            // Apply every frame received by this loop, oldest first across the cameras
+            long loopTime = log.loopTimesMicros[loop];
+            double nowSeconds = loopTime / 1e6;
+            while (true) {
+                int camera = oldestFrame(log, nextFrames, loopTime);
+                if (camera < 0) {
+                    break;
+                }
+                int frame = nextFrames[camera]++;
+
+                long start = System.nanoTime();
+                if (
+                    estimate.decode(log.frames[camera][frame], log.frameTimesMicros[camera][frame]) &&
+                    gate.check(estimate, log.yawRates[loop], nowSeconds, grids[camera]) == null
+                ) {
+                    estimator.addVisionMeasurement(
+                        estimate.toPose2d(),
+                        estimate.getTimestampSeconds(),
+                        gate.getStdDevs()
+                    );
+                }
+                result.visionNanos[result.frames++] = System.nanoTime() - start;
+            }
+
+            // Compare against what the robot estimated at the end of the same loop
+            if (started && loggedPose != null) {
+                Pose2d pose = estimator.getEstimatedPosition();
+                double error = pose.getTranslation().getDistance(loggedPose.getTranslation());
+                result.squaredErrorSum += error * error;
+                result.errorCount++;
+                result.finalTranslationError = error;
+                result.finalHeadingErrorDegrees = Math.abs(
+                    pose.getRotation().minus(loggedPose.getRotation()).getDegrees()
+                );
+            }
+            result.loops++;
+        }
+        result.wallNanos = System.nanoTime() - runStart;
+
+        result.accepted = gate.getAcceptedCount();
+        for (VisionGate.Rejection rejection : VisionGate.Rejection.values()) {
+            result.rejected += gate.getRejectedCount(rejection);
+        }
+        Arrays.sort(result.odometryNanos, 0, result.samples);
+        Arrays.sort(result.visionNanos, 0, result.frames);
+        return result;
+    }
+
+    /** The camera with the oldest frame received by a time, or -1 if there is none. */
+    private static int oldestFrame(ReplayLog log, int[] nextFrames, long timeMicros) {
+        int oldest = -1;
+        for (int camera = 0; camera < nextFrames.length; camera++) {
+            int frame = nextFrames[camera];
+            if (frame >= log.frames[camera].length || log.frameTimesMicros[camera][frame] > timeMicros) {
+                continue;
+            }
+            if (oldest < 0 || log.frameTimesMicros[camera][frame] < log.frameTimesMicros[oldest][nextFrames[oldest]]) {
+                oldest = camera;
+            }
+        }
+        return oldest;
+    }
+
+    /** A percentile of sorted durations, in microseconds. */
+    private static double percentileMicros(long[] sortedNanos, int count, double percentile) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        int index = Math.min(count - 1, Math.max(0, (int) Math.ceil(percentile * count) - 1));
+        return sortedNanos[index] / 1e3;
+    }
+
+    /** The camera names in an option, or the cameras in {@link Constants}. */
+    private static String[] cameraNames(String option) {
+        if (option != null) {
+            return option.split(",");
+        }
+
+        LimelightCameraConstants[] cameras = Constants.PoseEstimator.cameras;
+        String[] names = new String[cameras.length];
+        for (int i = 0; i < cameras.length; i++) {
+            names[i] = cameras[i].name;
+        }
+        return names;
+    }
+
+    /**
+     * The visibility grid of a camera, or null to skip the check if the camera is not in {@link
+     * Constants} or its mount was not measured.
+     */
+    private static TagVisibilityGrid visibilityGrid(AprilTagIndex tagIndex, String cameraName) {
+        for (LimelightCameraConstants camera : Constants.PoseEstimator.cameras) {
+            if (camera.name.equals(cameraName)) {
+                return TagVisibilityGrid.forCamera(
+                    tagIndex,
+                    camera,
+                    Constants.PoseEstimator.visibilityCellSize,
+                    Constants.PoseEstimator.visibilityHeadingBins,
+                    Constants.PoseEstimator.maxTagRange
+                );
+            }
+        }
+        return null;
+    }
+
+    /** The comma separated values of an option, or the default if it is not given. */
+    private static double[] values(String option, double defaultValue) {
+        if (option == null) {
+            return new double[] { defaultValue };
+        }
+        return Arrays.stream(option.split(",")).mapToDouble(Double::parseDouble).toArray();
+    }
+}
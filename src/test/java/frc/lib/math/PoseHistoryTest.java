@@ -0,0 +1,129 @@
+package frc.lib.math;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+/** Checks the ring, the window and the interpolation of {@link PoseHistory}. */
+public class PoseHistoryTest {
+
+    private static final double EPSILON = 1e-9;
+
+    /** The pose written by each lookup. */
+    private final double[] out = new double[3];
+
+    @Test
+    public void emptyHistoryHasNoPose() {
+        PoseHistory history = new PoseHistory(1.0, 8);
+
+        assertFalse(history.sample(0.0, out));
+        assertEquals(0, history.size());
+        assertTrue(Double.isNaN(history.getOldestTimestamp()));
+    }
+
+    @Test
+    public void interpolatesBetweenSamples() {
+        PoseHistory history = new PoseHistory(10.0, 8);
+        history.addSample(1.0, 0.0, 0.0, 0.0);
+        history.addSample(2.0, 2.0, 4.0, 1.0);
+        history.addSample(3.0, 2.0, 8.0, 1.0);
+
+        assertTrue(history.sample(1.25, out));
+        assertArrayEquals(new double[] { 0.5, 1.0, 0.25 }, out, EPSILON);
+
+        assertTrue(history.sample(2.5, out));
+        assertArrayEquals(new double[] { 2.0, 6.0, 1.0 }, out, EPSILON);
+
+        // Exactly on a sample
+        assertTrue(history.sample(2.0, out));
+        assertArrayEquals(new double[] { 2.0, 4.0, 1.0 }, out, EPSILON);
+    }
+
+    @Test
+    public void clampsOutsideTheHistory() {
+        PoseHistory history = new PoseHistory(10.0, 8);
+        history.addSample(1.0, 1.0, 2.0, 0.5);
+        history.addSample(2.0, 3.0, 4.0, 0.7);
+
+        assertTrue(history.sample(0.0, out));
+        assertArrayEquals(new double[] { 1.0, 2.0, 0.5 }, out, EPSILON);
+
+        assertTrue(history.sample(5.0, out));
+        assertArrayEquals(new double[] { 3.0, 4.0, 0.7 }, out, EPSILON);
+    }
+
+    @Test
+    public void looksUpAfterTheRingWraps() {
+        // The window is long, so only the capacity drops samples
+        PoseHistory history = new PoseHistory(100.0, 4);
+        for (int i = 0; i < 10; i++) {
+            assertTrue(history.addSample(i, i, -i, 0.0));
+        }
+
+        assertEquals(4, history.size());
+        assertEquals(6.0, history.getOldestTimestamp(), EPSILON);
+        assertEquals(9.0, history.getNewestTimestamp(), EPSILON);
+
+        assertTrue(history.sample(7.5, out));
+        assertArrayEquals(new double[] { 7.5, -7.5, 0.0 }, out, EPSILON);
+
+        // Samples that were overwritten clamp to the oldest one kept
+        assertTrue(history.sample(2.0, out));
+        assertArrayEquals(new double[] { 6.0, -6.0, 0.0 }, out, EPSILON);
+    }
+
+    @Test
+    public void dropsSamplesOutsideTheWindow() {
+        PoseHistory history = new PoseHistory(1.0, 16);
+        history.addSample(0.0, 0.0, 0.0, 0.0);
+        history.addSample(0.5, 1.0, 0.0, 0.0);
+        history.addSample(1.0, 2.0, 0.0, 0.0);
+        history.addSample(1.6, 3.0, 0.0, 0.0);
+
+        assertEquals(2, history.size());
+        assertEquals(1.0, history.getOldestTimestamp(), EPSILON);
+    }
+
+    @Test
+    public void rejectsSamplesThatAreNotNewer() {
+        PoseHistory history = new PoseHistory(10.0, 8);
+        assertTrue(history.addSample(1.0, 1.0, 1.0, 0.0));
+
+        assertFalse(history.addSample(1.0, 2.0, 2.0, 0.0));
+        assertFalse(history.addSample(0.5, 3.0, 3.0, 0.0));
+        assertEquals(1, history.size());
+
+        assertTrue(history.sample(1.0, out));
+        assertArrayEquals(new double[] { 1.0, 1.0, 0.0 }, out, EPSILON);
+    }
+
+    @Test
+    public void interpolatesHeadingAcrossPi() {
+        PoseHistory history = new PoseHistory(10.0, 8);
+        history.addSample(0.0, 0.0, 0.0, Math.PI - 0.1);
+        history.addSample(1.0, 0.0, 0.0, -Math.PI + 0.1);
+
+        // The short way around is through pi, not through 0
+        assertTrue(history.sample(0.25, out));
+        assertEquals(Math.PI - 0.05, out[2], EPSILON);
+
+        assertTrue(history.sample(0.75, out));
+        assertEquals(-Math.PI + 0.05, out[2], EPSILON);
+    }
+
+    @Test
+    public void clearRemovesEverySample() {
+        PoseHistory history = new PoseHistory(10.0, 8);
+        history.addSample(1.0, 1.0, 1.0, 0.0);
+        history.clear();
+
+        assertEquals(0, history.size());
+        assertFalse(history.sample(1.0, out));
+
+        // Time can start over after a clear
+        assertTrue(history.addSample(0.5, 1.0, 1.0, 0.0));
+    }
+}
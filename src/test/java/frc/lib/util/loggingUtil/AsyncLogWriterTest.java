@@ -0,0 +1,198 @@
+package frc.lib.util.loggingUtil;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.util.datalog.DataLog;
+import edu.wpi.first.util.datalog.DataLogReader;
+import edu.wpi.first.util.datalog.DataLogRecord;
+import edu.wpi.first.util.datalog.DoubleArrayLogEntry;
+import edu.wpi.first.util.datalog.DoubleLogEntry;
+import frc.lib.util.loggingUtil.AsyncLogWriter.DropPolicy;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * Writes through an {@link AsyncLogWriter} into a DataLog in a temporary directory, then reads the
+ * log back to check what the writer thread appended.
+ */
+public class AsyncLogWriterTest {
+
+    private static final String LOG_NAME = "test.wpilog";
+
+    @TempDir
+    Path logDir;
+
+    private DataLog log;
+
+    /** Holds the writer thread inside its first append until counted down. */
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    public void createLog() {
+        log = new DataLog(logDir.toString(), LOG_NAME);
+    }
+
+    @AfterEach
+    public void closeLog() {
+        release.countDown();
+        if (log != null) {
+            log.close();
+        }
+    }
+
+    @Test
+    public void dropNewestKeepsTheOldestInOrder() throws IOException {
+        // The writer can not free a slot while it is held, so exactly the capacity is kept
+        AsyncLogWriter writer = new AsyncLogWriter(16, 16, DropPolicy.DROP_NEWEST, 64, 1.0);
+        DoubleLogEntry entry = new HeldDoubleLogEntry(log, "Values");
+
+        int kept = 0;
+        for (int i = 0; i < 100; i++) {
+            if (writer.addDouble(entry, i, i + 1)) {
+                kept++;
+            }
+        }
+
+        assertEquals(16, kept);
+        assertEquals(84, writer.getDroppedCount());
+
+        release.countDown();
+        writer.close();
+        assertEquals(0, writer.getDepth());
+
+        List<Double> values = readDoubles("Values");
+        assertEquals(16, values.size());
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(i, values.get(i).doubleValue());
+        }
+    }
+
+    @Test
+    public void blockLosesNothing() throws IOException {
+        AsyncLogWriter writer = new AsyncLogWriter(8, 16, DropPolicy.BLOCK, 4, 1.0);
+        DoubleLogEntry entry = new DoubleLogEntry(log, "Values");
+
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(writer.addDouble(entry, i, i + 1));
+        }
+        writer.close();
+
+        assertEquals(0, writer.getDroppedCount());
+        assertEquals(0, writer.getDepth());
+
+        List<Double> values = readDoubles("Values");
+        assertEquals(1000, values.size());
+        for (int i = 0; i < values.size(); i++) {
+            assertEquals(i, values.get(i).doubleValue());
+        }
+    }
+
+    @Test
+    public void arraysAtTheEndOfTheRingReadBackIntact() throws IOException {
+        // Lengths that do not divide the ring, so arrays keep reaching its end and skip to the start
+        AsyncLogWriter writer = new AsyncLogWriter(8, 16, DropPolicy.BLOCK, 4, 1.0);
+        DoubleArrayLogEntry entry = new DoubleArrayLogEntry(log, "Arrays");
+
+        List<double[]> expected = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            double[] array = new double[1 + i % 7];
+            for (int j = 0; j < array.length; j++) {
+                array[j] = i * 10 + j;
+            }
+            expected.add(array.clone());
+            assertTrue(writer.addDoubleArray(entry, array, i + 1));
+
+            // The writer copied the values, so the caller can reuse the array right away
+            Arrays.fill(array, Double.NaN);
+        }
+        writer.close();
+
+        assertEquals(0, writer.getDroppedCount());
+
+        List<double[]> arrays = readDoubleArrays("Arrays");
+        assertEquals(expected.size(), arrays.size());
+        for (int i = 0; i < arrays.size(); i++) {
+            assertArrayEquals(expected.get(i), arrays.get(i), "Array " + i);
+        }
+    }
+
+    @Test
+    public void arrayLongerThanTheRingIsDropped() throws IOException {
+        AsyncLogWriter writer = new AsyncLogWriter(8, 16, DropPolicy.BLOCK, 4, 1.0);
+        DoubleArrayLogEntry entry = new DoubleArrayLogEntry(log, "Arrays");
+
+        assertFalse(writer.addDoubleArray(entry, new double[17], 1));
+        assertEquals(1, writer.getDroppedCount());
+        writer.close();
+
+        assertEquals(0, readDoubleArrays("Arrays").size());
+    }
+
+    /** A double entry whose appends wait for {@link #release}, to hold the writer thread. */
+    private class HeldDoubleLogEntry extends DoubleLogEntry {
+        HeldDoubleLogEntry(DataLog log, String name) {
+            super(log, name);
+        }
+
+        @Override
+        public void append(double value, long timestamp) {
+            try {
+                release.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            super.append(value, timestamp);
+        }
+    }
+
+    /** Closes the log and reads back the doubles of an entry. */
+    private List<Double> readDoubles(String name) throws IOException {
+        List<Double> values = new ArrayList<>();
+        for (DataLogRecord record : readEntry(name)) {
+            values.add(record.getDouble());
+        }
+        return values;
+    }
+
+    /** Closes the log and reads back the double arrays of an entry. */
+    private List<double[]> readDoubleArrays(String name) throws IOException {
+        List<double[]> values = new ArrayList<>();
+        for (DataLogRecord record : readEntry(name)) {
+            values.add(record.getDoubleArray());
+        }
+        return values;
+    }
+
+    /** Closes the log, so every record is on disk, and reads back the data records of an entry in order. */
+    private List<DataLogRecord> readEntry(String name) throws IOException {
+        log.close();
+        log = null;
+
+        DataLogReader reader = new DataLogReader(logDir.resolve(LOG_NAME).toString());
+        assertTrue(reader.isValid());
+
+        int entryId = -1;
+        List<DataLogRecord> records = new ArrayList<>();
+        for (DataLogRecord record : reader) {
+            if (record.isStart()) {
+                if (record.getStartData().name.equals(name)) {
+                    entryId = record.getStartData().entry;
+                }
+            } else if (!record.isControl() && record.getEntry() == entryId) {
+                records.add(record);
+            }
+        }
+        return records;
+    }
+}
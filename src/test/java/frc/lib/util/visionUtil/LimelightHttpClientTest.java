@@ -0,0 +1,152 @@
+package frc.lib.util.visionUtil;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs {@link LimelightHttpClient} against a local stub server. The camera name is the first part
+ * of the path, "ok" answers right away and "held" answers once {@link #release} is counted down.
+ */
+public class LimelightHttpClientTest {
+
+    /** How long a test waits for a future, far longer than any request should take. */
+    private static final long WAIT_SECONDS = 10;
+
+    private HttpServer server;
+    private ExecutorService serverExecutor;
+
+    /** Holds the "held" requests until counted down. */
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    /** The client made by the test, closed after it. */
+    private LimelightHttpClient client;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/ok/", exchange -> respond(exchange, 200));
+        server.createContext(
+            "/held/",
+            exchange -> {
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                respond(exchange, 200);
+            }
+        );
+
+        // Each request gets its own thread, so held requests do not block the others
+        serverExecutor = Executors.newCachedThreadPool();
+        server.setExecutor(serverExecutor);
+        server.start();
+    }
+
+    @AfterEach
+    public void stopServer() throws InterruptedException {
+        release.countDown();
+        if (client != null) {
+            client.close();
+        }
+        server.stop(0);
+        serverExecutor.shutdownNow();
+        serverExecutor.awaitTermination(WAIT_SECONDS, TimeUnit.SECONDS);
+    }
+
+    /** Sends an empty response. */
+    private static void respond(HttpExchange exchange, int status) throws IOException {
+        exchange.sendResponseHeaders(status, -1);
+        exchange.close();
+    }
+
+    /** Creates a client for the stub server. */
+    private void createClient(int threads, int queueCapacity, Duration requestTimeout) {
+        String urlFormat = "http://127.0.0.1:" + server.getAddress().getPort() + "/%s/";
+        client = new LimelightHttpClient(urlFormat, threads, queueCapacity, Duration.ofSeconds(1), requestTimeout);
+    }
+
+    @Test
+    public void okResponseCompletesTrue() throws Exception {
+        createClient(2, 8, Duration.ofSeconds(5));
+
+        assertTrue(client.takeSnapshot("ok", "test").get(WAIT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(1, client.getSucceededCount());
+        assertEquals(0, client.getFailedCount());
+    }
+
+    @Test
+    public void slowResponseTimesOut() throws Exception {
+        createClient(2, 8, Duration.ofMillis(200));
+
+        assertFalse(client.get("held", "capturesnapshot", Map.of()).get(WAIT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(1, client.getTimedOutCount());
+        assertEquals(0, client.getSucceededCount());
+    }
+
+    @Test
+    public void identicalGetsAreCoalesced() throws Exception {
+        createClient(2, 8, Duration.ofSeconds(5));
+
+        CompletableFuture<Boolean> first = client.get("held", "capturesnapshot", Map.of());
+        CompletableFuture<Boolean> second = client.get("held", "capturesnapshot", Map.of());
+        assertSame(first, second);
+        assertEquals(1, client.getCoalescedCount());
+        assertEquals(1, client.getRequestCount());
+
+        release.countDown();
+        assertTrue(first.get(WAIT_SECONDS, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void getAfterResponseSendsAgain() throws Exception {
+        createClient(2, 8, Duration.ofSeconds(5));
+
+        CompletableFuture<Boolean> first = client.get("ok", "capturesnapshot", Map.of());
+        assertTrue(first.get(WAIT_SECONDS, TimeUnit.SECONDS));
+
+        // The completed GET is no longer in flight, so the same GET is a new request
+        CompletableFuture<Boolean> second = client.get("ok", "capturesnapshot", Map.of());
+        assertNotSame(first, second);
+        assertTrue(second.get(WAIT_SECONDS, TimeUnit.SECONDS));
+        assertEquals(0, client.getCoalescedCount());
+        assertEquals(2, client.getSucceededCount());
+    }
+
+    @Test
+    public void fullQueueRejectsRightAway() throws Exception {
+        // One request runs and one waits, the third has nowhere to go
+        createClient(1, 1, Duration.ofSeconds(5));
+
+        CompletableFuture<Boolean> running = client.get("held", "first", Map.of());
+        CompletableFuture<Boolean> queued = client.get("held", "second", Map.of());
+        CompletableFuture<Boolean> rejected = client.get("held", "third", Map.of());
+
+        assertTrue(rejected.isDone());
+        assertFalse(rejected.get());
+        assertEquals(1, client.getRejectedCount());
+
+        release.countDown();
+        assertTrue(running.get(WAIT_SECONDS, TimeUnit.SECONDS));
+        assertTrue(queued.get(WAIT_SECONDS, TimeUnit.SECONDS));
+    }
+}
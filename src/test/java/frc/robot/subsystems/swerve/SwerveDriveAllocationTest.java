@@ -0,0 +1,201 @@
+package frc.robot.subsystems.swerve;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import edu.wpi.first.math.geometry.Twist2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import frc.lib.util.swerveUtil.CTREModuleState;
+import java.lang.management.ManagementFactory;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks that the steps of {@link Swerve#drive} allocate nothing once warmed up: the field-relative
+ * rotation, the dynamics correction, the kinematics and each {@link SwerveMod} down to its {@link
+ * ModuleIO}. The IO only keeps the setpoints, so the {@link frc.lib.util.canUtil.SparkOutput} of a
+ * real module is not covered. Each test warms the step up, then counts the bytes the test thread
+ * allocates across many calls.
+ */
+public class SwerveDriveAllocationTest {
+
+    /** The calls made before measuring, so the JIT has compiled the step. */
+    private static final int WARMUP_CALLS = 20_000;
+
+    /** The calls measured. */
+    private static final int MEASURED_CALLS = 10_000;
+
+    /** The allocation counter of the JVM, null if it does not support one. */
+    private static com.sun.management.ThreadMXBean threadBean;
+
+    /* The state of the drive pipeline, reused by every call like in Swerve. */
+    private final ChassisSpeeds speeds = new ChassisSpeeds();
+    private final Twist2d twistScratch = new Twist2d();
+    private final double[] moduleSpeeds = new double[4];
+    private final double[] moduleAnglesDegrees = new double[4];
+    private final double[] optimized = new double[2];
+
+    /** A module IO that only keeps the last setpoints, so the calls can not be optimized away. */
+    private static class SetpointIO implements ModuleIO {
+
+        double driveSetpoint = 0;
+        double angleSetpoint = 0;
+
+        @Override
+        public void setDriveOpenLoop(double percentOutput) {
+            driveSetpoint = percentOutput;
+        }
+
+        @Override
+        public void setDriveVelocity(double metersPerSecond) {
+            driveSetpoint = metersPerSecond;
+        }
+
+        @Override
+        public void setAnglePosition(double degrees) {
+            angleSetpoint = degrees;
+        }
+
+        @Override
+        public void stopAngle() {
+            angleSetpoint = Double.NaN;
+        }
+    }
+
+    /** The modules, driven like {@link Swerve#drive} drives them. */
+    private final SwerveMod[] mods = new SwerveMod[4];
+
+    public SwerveDriveAllocationTest() {
+        for (int i = 0; i < mods.length; i++) {
+            mods[i] = new SwerveMod(i, new SetpointIO());
+        }
+    }
+
+    @BeforeAll
+    public static void setupThreadBean() {
+        if (ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean bean) {
+            if (bean.isThreadAllocatedMemorySupported()) {
+                bean.setThreadAllocatedMemoryEnabled(true);
+                threadBean = bean;
+            }
+        }
+    }
+
+    @Test
+    public void toRobotRelativeDoesNotAllocate() {
+        assertNoAllocation(this::toRobotRelative);
+    }
+
+    @Test
+    public void correctForDynamicsDoesNotAllocate() {
+        assertNoAllocation(this::correctForDynamics);
+    }
+
+    @Test
+    public void toModuleStatesDoesNotAllocate() {
+        assertNoAllocation(this::toModuleStates);
+    }
+
+    @Test
+    public void optimizeDoesNotAllocate() {
+        assertNoAllocation(this::optimize);
+    }
+
+    @Test
+    public void setDesiredStateDoesNotAllocate() {
+        assertNoAllocation(this::setDesiredStates);
+    }
+
+    @Test
+    public void drivePipelineDoesNotAllocate() {
+        assertNoAllocation(i -> {
+            toRobotRelative(i);
+            Swerve.correctForDynamics(speeds, twistScratch);
+            Swerve.toModuleStates(speeds, moduleSpeeds, moduleAnglesDegrees);
+            sendModuleStates(i % 2 == 0);
+        });
+    }
+
+    /** Rotates field-relative speeds that change every call by a yaw that changes every call. */
+    private void toRobotRelative(int i) {
+        Swerve.toRobotRelative(2.0 - (i % 7) * 0.3, -1.0 + (i % 5) * 0.4, (i * 13) % 360 - 180, speeds);
+        speeds.omegaRadiansPerSecond = 1.5 - (i % 3) * 0.5;
+    }
+
+    /** Sets speeds that change every call, like a joystick, and corrects them. */
+    private void correctForDynamics(int i) {
+        speeds.vxMetersPerSecond = 2.0 + (i % 7) * 0.1;
+        speeds.vyMetersPerSecond = -1.0 + (i % 5) * 0.2;
+        speeds.omegaRadiansPerSecond = 1.5 - (i % 3) * 0.5;
+        Swerve.correctForDynamics(speeds, twistScratch);
+    }
+
+    /** Converts speeds that change every call to module states. */
+    private void toModuleStates(int i) {
+        speeds.vxMetersPerSecond = 3.0 - (i % 11) * 0.3;
+        speeds.vyMetersPerSecond = (i % 4) * 0.5;
+        speeds.omegaRadiansPerSecond = (i % 9) * 0.4;
+        Swerve.toModuleStates(speeds, moduleSpeeds, moduleAnglesDegrees);
+    }
+
+    /** Optimizes every module against a current angle that changes every call. */
+    private void optimize(int i) {
+        for (int module = 0; module < moduleSpeeds.length; module++) {
+            CTREModuleState.optimize(
+                moduleSpeeds[module],
+                moduleAnglesDegrees[module],
+                (i * 37 + module * 90) % 720 - 360,
+                optimized
+            );
+        }
+    }
+
+    /** Sends module states that change every call to every module, open and closed loop. */
+    private void setDesiredStates(int i) {
+        for (int module = 0; module < mods.length; module++) {
+            moduleSpeeds[module] = (i % 9) * 0.5 - 2.0;
+            moduleAnglesDegrees[module] = (i * 29 + module * 90) % 360 - 180;
+        }
+        sendModuleStates(i % 2 == 0);
+    }
+
+    /** Sends the module states to the modules, like the end of {@link Swerve#drive}. */
+    private void sendModuleStates(boolean isOpenLoop) {
+        for (int module = 0; module < mods.length; module++) {
+            mods[module].setDesiredState(moduleSpeeds[module], moduleAnglesDegrees[module], isOpenLoop);
+        }
+    }
+
+    /** A step of the drive pipeline, given the number of the call. */
+    private interface Step {
+        void run(int i);
+    }
+
+    /** Warms a step up, then asserts the measured calls allocate no bytes. */
+    private static void assertNoAllocation(Step step) {
+        assumeTrue(threadBean != null, "The JVM does not count allocated bytes per thread");
+
+        for (int i = 0; i < WARMUP_CALLS; i++) {
+            step.run(i);
+        }
+
+        // Reading the counter can allocate, so subtract what an empty measurement reads
+        long start = allocatedBytes();
+        long overhead = allocatedBytes() - start;
+
+        long before = allocatedBytes();
+        for (int i = 0; i < MEASURED_CALLS; i++) {
+            step.run(i);
+        }
+        long after = allocatedBytes();
+
+        assertEquals(0, after - before - overhead, "Bytes allocated across " + MEASURED_CALLS + " calls");
+    }
+
+    /**
+     * @return The bytes allocated by this thread so far.
+     */
+    private static long allocatedBytes() {
+        return threadBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+}
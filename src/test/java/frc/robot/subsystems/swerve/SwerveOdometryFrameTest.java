@@ -0,0 +1,100 @@
+package frc.robot.subsystems.swerve;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import edu.wpi.first.math.VecBuilder;
+import edu.wpi.first.math.estimator.SwerveDrivePoseEstimator;
+import edu.wpi.first.math.geometry.Pose2d;
+import edu.wpi.first.math.geometry.Rotation2d;
+import edu.wpi.first.math.kinematics.ChassisSpeeds;
+import edu.wpi.first.math.kinematics.SwerveModulePosition;
+import frc.robot.subsystems.PoseEstimator;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Drives simulated modules through the same steps as {@link Swerve#drive} and feeds their positions
+ * to the {@link PoseEstimator}'s estimator, to check the odometry is in the WPILib field frame the
+ * vision poses are in: driving +x moves the estimate +x, and driving +y moves it +y.
+ */
+public class SwerveOdometryFrameTest {
+
+    /** The time step of the simulation, in seconds. */
+    private static final double DT_SECONDS = 0.02;
+
+    /** How long each test drives, in seconds. */
+    private static final double DRIVE_SECONDS = 1.0;
+
+    /** The commanded speed, in meters per second. */
+    private static final double SPEED = 1.0;
+
+    /**
+     * How far the estimate may move off the commanded direction, as a fraction of how far it moved
+     * along it. The modules drive a little while they steer, so it is not 0.
+     */
+    private static final double CROSS_FRACTION = 0.2;
+
+    private final ModuleIOSim[] ios = new ModuleIOSim[4];
+    private final SwerveMod[] mods = new SwerveMod[4];
+
+    public SwerveOdometryFrameTest() {
+        for (int i = 0; i < mods.length; i++) {
+            ios[i] = new ModuleIOSim(i);
+            mods[i] = new SwerveMod(i, ios[i]);
+        }
+    }
+
+    @Test
+    public void drivingForwardMovesTheEstimatePositiveX() {
+        Pose2d pose = drive(SPEED, 0);
+
+        assertTrue(pose.getX() > 0.5 * SPEED * DRIVE_SECONDS, "x is " + pose.getX());
+        assertTrue(Math.abs(pose.getY()) < CROSS_FRACTION * pose.getX(), "y is " + pose.getY());
+    }
+
+    @Test
+    public void drivingLeftMovesTheEstimatePositiveY() {
+        Pose2d pose = drive(0, SPEED);
+
+        assertTrue(pose.getY() > 0.5 * SPEED * DRIVE_SECONDS, "y is " + pose.getY());
+        assertTrue(Math.abs(pose.getX()) < CROSS_FRACTION * pose.getY(), "x is " + pose.getX());
+    }
+
+    /**
+     * Drives robot-relative at a fixed heading of 0 and returns the estimate at the end.
+     *
+     * @param vx The x speed, in meters per second.
+     * @param vy The y speed, in meters per second.
+     * @return The estimated pose.
+     */
+    private Pose2d drive(double vx, double vy) {
+        SwerveDrivePoseEstimator estimator = PoseEstimator.createEstimator(VecBuilder.fill(0.1, 0.1, 0.1));
+        ChassisSpeeds speeds = new ChassisSpeeds(vx, vy, 0);
+        double[] moduleSpeeds = new double[4];
+        double[] moduleAnglesDegrees = new double[4];
+        SwerveModulePosition[] positions = new SwerveModulePosition[4];
+
+        // Start from the modules' own positions, like the odometry does when it is created
+        updateInputs(positions);
+        estimator.resetPosition(new Rotation2d(), positions, new Pose2d());
+
+        for (double time = DT_SECONDS; time <= DRIVE_SECONDS; time += DT_SECONDS) {
+            Swerve.toModuleStates(speeds, moduleSpeeds, moduleAnglesDegrees);
+            for (int i = 0; i < mods.length; i++) {
+                mods[i].setDesiredState(moduleSpeeds[i], moduleAnglesDegrees[i], false);
+                ios[i].update(DT_SECONDS);
+            }
+
+            updateInputs(positions);
+            estimator.updateWithTime(time, new Rotation2d(), positions);
+        }
+        return estimator.getEstimatedPosition();
+    }
+
+    /** Reads the inputs of every module and fills the positions from them. */
+    private void updateInputs(SwerveModulePosition[] positions) {
+        for (int i = 0; i < mods.length; i++) {
+            mods[i].updateInputs();
+            positions[i] = mods[i].getPosition();
+        }
+    }
+}